@@ -0,0 +1,86 @@
+package benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import simulation.Common;
+import simulation.Simulator;
+import simulation.hospital.Hospital;
+import simulation.individual.Individual;
+import simulation.individual.Population;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of Hospital.handlePatients with a full hospital, while patients stay and when all of them are discharged
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class HospitalBenchmark {
+    @Param({"400", "10000", "100000", "1000000"})
+    public int population;
+
+    @Param({"0.1"})
+    public double infectedShare;
+
+    private Simulator simulator;
+    private Hospital hospital;
+    private int iteration;
+    /**
+     * Patients of the scenario, admitted again before every discharge invocation
+     */
+    private final ArrayList<Individual> patients = new ArrayList<>();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        simulator = Scenario.create(population, infectedShare);
+        hospital = simulator.getHospital();
+        iteration = simulator.getIteration();
+        Population individuals = simulator.getIndividuals();
+        for (int i = 0; i < individuals.size(); i++) {
+            if (individuals.isHospitalized(i))
+                patients.add(individuals.get(i));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        simulator.end();
+    }
+
+    /**
+     * Admit every patient of the scenario again at the current iteration
+     */
+    @Setup(Level.Invocation)
+    public void admitPatients() {
+        for (Individual patient : patients) {
+            if (!patient.isHospitalized())
+                patient.hospitalize(hospital, iteration);
+        }
+    }
+
+    @Benchmark
+    public void handlePatientsWhileStaying() {
+        hospital.handlePatients(population, iteration);
+    }
+
+    @Benchmark
+    public void handlePatientsDischargingAll() {
+        hospital.handlePatients(population, iteration + Common.AT_HOSPITAL_SEC + 1);
+    }
+}
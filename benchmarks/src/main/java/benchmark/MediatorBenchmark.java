@@ -0,0 +1,146 @@
+package benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import simulation.Mediator;
+import simulation.Simulator;
+import simulation.individual.Population;
+import simulation.schedule.Transitions;
+import simulation.util.IntList;
+import simulation.util.PairList;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Single tick cost of each Mediator phase over the whole population
+ * Every benchmark iteration starts from a fresh scenario, invocations advance the iteration like the process state does
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MediatorBenchmark {
+    @Param({"400", "10000", "100000", "1000000"})
+    public int population;
+
+    @Param({"0.1"})
+    public double infectedShare;
+
+    private Simulator simulator;
+    private Population individuals;
+    private int iteration;
+    private final IntList candidates = new IntList();
+    private final PairList collisions = new PairList();
+    private byte[] proposals = new byte[0];
+
+    /**
+     * Collisions of the scenario, handled again in rounds that each start from the collected state
+     */
+    @State(Scope.Benchmark)
+    public static class Collisions {
+        /**
+         * Rounds of every invocation, a single round of a small population is too short to be timed alone
+         */
+        static final int ROUNDS = 16;
+
+        private final PairList list = new PairList();
+        private Population individuals;
+        /**
+         * Schedule of the rounds, cleared after each round so the scheduled entries do not pile up
+         */
+        private Transitions transitions;
+        // State of the individuals of the collisions before the first round
+        private int[] members;
+        private boolean[] infected;
+        private int[] infectedAt;
+
+        @Setup(Level.Iteration)
+        public void setUp(MediatorBenchmark benchmark) {
+            individuals = benchmark.individuals;
+            transitions = new Transitions(benchmark.simulator.getDisease());
+            Mediator.collectCollisions(individuals, new IntList(), list);
+            members = new int[list.size() * 2];
+            infected = new boolean[members.length];
+            infectedAt = new int[members.length];
+            for (int k = 0; k < list.size(); k++) {
+                members[2 * k] = list.getFirst(k);
+                members[2 * k + 1] = list.getSecond(k);
+            }
+            for (int m = 0; m < members.length; m++) {
+                infected[m] = individuals.isInfected(members[m]);
+                infectedAt[m] = individuals.getInfectedAt(members[m]);
+            }
+        }
+
+        /**
+         * Undo the interactions and infections of a round, the undo is part of the score and costs a fraction of the round
+         */
+        void restore() {
+            for (int m = 0; m < members.length; m++) {
+                int i = members[m];
+                individuals.setInInteraction(i, false);
+                individuals.setInteractedUntil(i, 0);
+                individuals.setInfected(i, infected[m]);
+                individuals.setInfectedAt(i, infectedAt[m]);
+            }
+            transitions.clear();
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        simulator = Scenario.create(population, infectedShare);
+        individuals = simulator.getIndividuals();
+        iteration = simulator.getIteration();
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() {
+        simulator.end();
+    }
+
+    @Benchmark
+    public byte[] moveForAll() {
+        proposals = Mediator.moveForAll(individuals, iteration++, simulator.getRandom(), proposals);
+        return proposals;
+    }
+
+    @Benchmark
+    public PairList collectCollisions() {
+        Mediator.collectCollisions(individuals, candidates, collisions);
+        return collisions;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(Collisions.ROUNDS)
+    public void handleCollisions(Collisions collisions) {
+        for (int round = 0; round < Collisions.ROUNDS; round++) {
+            Mediator.handleCollisions(individuals, collisions.list, simulator.getDisease(), collisions.transitions, iteration, simulator.getRandom());
+            collisions.restore();
+        }
+    }
+
+    @Benchmark
+    public void checkHospitalTimeForAll() {
+        Mediator.checkHospitalTimeForAll(individuals, simulator.getTransitions(), simulator.getHospital(), iteration++);
+    }
+
+    @Benchmark
+    public void checkInfectionTimeForAll() {
+        Mediator.checkInfectionTimeForAll(individuals, simulator.getTransitions(), iteration++);
+    }
+}
@@ -0,0 +1,221 @@
+package benchmark;
+
+import simulation.Simulator;
+import simulation.Statistics;
+import simulation.TickListener;
+import simulation.log.Log;
+import simulation.phase.AgentState;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * End-to-end benchmark, ticks the headless simulator over a matrix of populations, thread counts and disease parameters
+ * Results are written as CSV, and compared with a baseline file written by an earlier run if one is given
+ * Usage: ScalingBenchmark [--populations=400,10000,100000] [--threads=1,2,4] [--spreadingFactors=0.8] [--mortalityRates=0.2,0.5]
+ * [--ticks=200] [--warmup=20] [--out=scaling-results.csv] [--baseline=file.csv] [--tolerance=0.1]
+ */
+public class ScalingBenchmark {
+    private static final String DEFAULT_POPULATIONS = "400,10000,100000";
+    private static final String DEFAULT_THREADS = "1,2,4";
+    private static final String DEFAULT_SPREADING_FACTORS = "0.8";
+    private static final String DEFAULT_MORTALITY_RATES = "0.2,0.5";
+    private static final int DEFAULT_TICKS = 200;
+    private static final int DEFAULT_WARMUP = 20;
+    private static final String DEFAULT_OUT = "scaling-results.csv";
+    private static final double DEFAULT_TOLERANCE = 0.1;
+
+    public static void main(String[] args) throws IOException {
+        Map<String, String> options = parseOptions(args);
+        int[] populations = parseInts(options.getOrDefault("populations", DEFAULT_POPULATIONS));
+        int[] threadCounts = parseInts(options.getOrDefault("threads", DEFAULT_THREADS));
+        double[] spreadingFactors = parseDoubles(options.getOrDefault("spreadingFactors", DEFAULT_SPREADING_FACTORS));
+        double[] mortalityRates = parseDoubles(options.getOrDefault("mortalityRates", DEFAULT_MORTALITY_RATES));
+        int ticks = Integer.parseInt(options.getOrDefault("ticks", Integer.toString(DEFAULT_TICKS)));
+        int warmup = Integer.parseInt(options.getOrDefault("warmup", Integer.toString(DEFAULT_WARMUP)));
+        Path out = Path.of(options.getOrDefault("out", DEFAULT_OUT));
+        double tolerance = Double.parseDouble(options.getOrDefault("tolerance", Double.toString(DEFAULT_TOLERANCE)));
+
+        List<ScalingResult> results = new ArrayList<>();
+        for (int population : populations)
+            for (int threads : threadCounts)
+                for (double spreadingFactor : spreadingFactors)
+                    for (double mortalityRate : mortalityRates) {
+                        ScalingResult result = run(population, threads, spreadingFactor, mortalityRate, ticks, warmup);
+                        Log.flush();
+                        System.out.println(result);
+                        results.add(result);
+                    }
+        write(out, results);
+        System.out.println("Results written to " + out.toAbsolutePath());
+
+        if (options.containsKey("baseline")) {
+            int regressions = compare(read(Path.of(options.get("baseline"))), results, tolerance);
+            System.out.println(regressions + " regression(s) against " + options.get("baseline"));
+            if (regressions > 0)
+                System.exit(1);
+        }
+    }
+
+    /**
+     * Tick a new simulator for the given configuration and measure it
+     */
+    static ScalingResult run(int population, int threads, double spreadingFactor, double mortalityRate, int ticks, int warmup) {
+        Simulator simulator = new Simulator(population, spreadingFactor, mortalityRate, threads, Scenario.SEED);
+        try {
+            simulator.runBatch(warmup);
+            System.gc();
+            List<MemoryPoolMXBean> heapPools = getHeapPools();
+            heapPools.forEach(MemoryPoolMXBean::resetPeakUsage);
+            TickClock clock = new TickClock(ticks);
+            simulator.addTickListener(clock);
+            long allocatedBefore = getAllocatedBytes();
+            long startTime = System.nanoTime();
+            clock.start(startTime);
+            // A single batch, so ticks that overlap in the process state also overlap here
+            simulator.runBatch(ticks);
+            double elapsedSeconds = (System.nanoTime() - startTime) / 1000000000.0;
+            simulator.removeTickListener(clock);
+            long[] tickNanos = clock.getTickNanos();
+            double allocatedMB = (getAllocatedBytes() - allocatedBefore) / (1024.0 * 1024.0);
+            double peakHeapMB = heapPools.stream().mapToLong(pool -> pool.getPeakUsage().getUsed()).sum() / (1024.0 * 1024.0);
+            Arrays.sort(tickNanos);
+            return new ScalingResult(population, threads, spreadingFactor, mortalityRate, ticks, ticks / elapsedSeconds,
+                    percentile(tickNanos, 0.50) / 1000000.0, percentile(tickNanos, 0.99) / 1000000.0, allocatedMB / elapsedSeconds, peakHeapMB);
+        } finally {
+            simulator.end();
+        }
+    }
+
+    /**
+     * Records the time between the ends of consecutive ticks, only reads the statistics so it does not hold back the next tick
+     */
+    private static class TickClock implements TickListener {
+        private final long[] tickNanos;
+        private long lastTime;
+        private int count;
+
+        TickClock(int ticks) {
+            this.tickNanos = new long[ticks];
+        }
+
+        void start(long startTime) {
+            lastTime = startTime;
+        }
+
+        @Override
+        public void onTick(Simulator simulator, Statistics statistics) {
+            long time = System.nanoTime();
+            if (count < tickNanos.length)
+                tickNanos[count++] = time - lastTime;
+            lastTime = time;
+        }
+
+        @Override
+        public Set<AgentState> getReads() {
+            return EnumSet.of(AgentState.STATISTICS);
+        }
+
+        long[] getTickNanos() {
+            return Arrays.copyOf(tickNanos, count);
+        }
+    }
+
+    /**
+     * Flag results whose throughput dropped or whose p99 latency rose more than the tolerance
+     *
+     * @return Number of regressions
+     */
+    static int compare(Map<String, ScalingResult> baseline, List<ScalingResult> results, double tolerance) {
+        int regressions = 0;
+        for (ScalingResult result : results) {
+            ScalingResult expected = baseline.get(result.getConfiguration());
+            if (expected == null) {
+                System.out.println("NEW        " + result.getConfiguration());
+                continue;
+            }
+            double throughputChange = result.getTicksPerSecond() / expected.getTicksPerSecond() - 1.0;
+            double latencyChange = result.getP99Millis() / expected.getP99Millis() - 1.0;
+            boolean regressed = throughputChange < -tolerance || latencyChange > tolerance;
+            if (regressed)
+                regressions++;
+            System.out.printf("%-10s %s, ticksPerSecond %+.1f%%, p99 %+.1f%%%n", regressed ? "REGRESSION" : "OK", result.getConfiguration(),
+                    throughputChange * 100, latencyChange * 100);
+        }
+        return regressions;
+    }
+
+    static void write(Path path, List<ScalingResult> results) throws IOException {
+        List<String> lines = new ArrayList<>();
+        lines.add(ScalingResult.CSV_HEADER);
+        for (ScalingResult result : results)
+            lines.add(result.toCsv());
+        Files.write(path, lines);
+    }
+
+    static Map<String, ScalingResult> read(Path path) throws IOException {
+        Map<String, ScalingResult> results = new HashMap<>();
+        for (String line : Files.readAllLines(path)) {
+            if (line.isBlank() || line.equals(ScalingResult.CSV_HEADER))
+                continue;
+            ScalingResult result = ScalingResult.fromCsv(line);
+            results.put(result.getConfiguration(), result);
+        }
+        return results;
+    }
+
+    private static long percentile(long[] sorted, double percentile) {
+        return sorted[(int) Math.ceil(percentile * sorted.length) - 1];
+    }
+
+    /**
+     * Heap allocated so far by every live thread, worker threads of the parallel engine included
+     */
+    private static long getAllocatedBytes() {
+        var threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long total = 0;
+        for (long allocated : threads.getThreadAllocatedBytes(threads.getAllThreadIds())) {
+            if (allocated > 0)
+                total += allocated;
+        }
+        return total;
+    }
+
+    private static List<MemoryPoolMXBean> getHeapPools() {
+        List<MemoryPoolMXBean> pools = new ArrayList<>();
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP && pool.isValid())
+                pools.add(pool);
+        }
+        return pools;
+    }
+
+    private static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("="))
+                throw new IllegalArgumentException("ScalingBenchmark::parseOptions()::expected --name=value: " + arg);
+            options.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+        }
+        return options;
+    }
+
+    private static int[] parseInts(String values) {
+        return Arrays.stream(values.split(",")).mapToInt(value -> Integer.parseInt(value.trim())).toArray();
+    }
+
+    private static double[] parseDoubles(String values) {
+        return Arrays.stream(values.split(",")).mapToDouble(value -> Double.parseDouble(value.trim())).toArray();
+    }
+}
@@ -0,0 +1,130 @@
+package benchmark;
+
+import java.util.Locale;
+
+/**
+ * Measurements of a single configuration of the scaling benchmark, one line of the results file
+ */
+public final class ScalingResult {
+    public static final String CSV_HEADER = "population,threads,spreadingFactor,mortalityRate,ticks,ticksPerSecond,p50Millis,p99Millis,allocatedMBPerSecond,peakHeapMB";
+
+    private final int population;
+    private final int threads;
+    private final double spreadingFactor;
+    private final double mortalityRate;
+    private final int ticks;
+    private final double ticksPerSecond;
+    /**
+     * Median tick latency, in milliseconds
+     */
+    private final double p50Millis;
+    /**
+     * 99th percentile tick latency, in milliseconds
+     */
+    private final double p99Millis;
+    /**
+     * Heap allocated by every thread of the process per second of ticking
+     */
+    private final double allocatedMBPerSecond;
+    /**
+     * Highest heap usage seen during the ticks
+     */
+    private final double peakHeapMB;
+
+    // Constructors
+    public ScalingResult(int population, int threads, double spreadingFactor, double mortalityRate, int ticks,
+                         double ticksPerSecond, double p50Millis, double p99Millis, double allocatedMBPerSecond, double peakHeapMB) {
+        this.population = population;
+        this.threads = threads;
+        this.spreadingFactor = spreadingFactor;
+        this.mortalityRate = mortalityRate;
+        this.ticks = ticks;
+        this.ticksPerSecond = ticksPerSecond;
+        this.p50Millis = p50Millis;
+        this.p99Millis = p99Millis;
+        this.allocatedMBPerSecond = allocatedMBPerSecond;
+        this.peakHeapMB = peakHeapMB;
+    }
+
+    /**
+     * Parse a line written by toCsv()
+     *
+     * @param line CSV line
+     * @return Parsed result
+     */
+    public static ScalingResult fromCsv(String line) {
+        String[] fields = line.split(",");
+        if (fields.length != 10)
+            throw new IllegalArgumentException("ScalingResult::fromCsv()::expected 10 fields: " + line);
+        return new ScalingResult(Integer.parseInt(fields[0]), Integer.parseInt(fields[1]), Double.parseDouble(fields[2]), Double.parseDouble(fields[3]),
+                Integer.parseInt(fields[4]), Double.parseDouble(fields[5]), Double.parseDouble(fields[6]), Double.parseDouble(fields[7]),
+                Double.parseDouble(fields[8]), Double.parseDouble(fields[9]));
+    }
+
+    public String toCsv() {
+        return String.format(Locale.ROOT, "%d,%d,%s,%s,%d,%.3f,%.3f,%.3f,%.3f,%.3f", population, threads, spreadingFactor, mortalityRate, ticks,
+                ticksPerSecond, p50Millis, p99Millis, allocatedMBPerSecond, peakHeapMB);
+    }
+
+    /**
+     * Key of the configuration, results with the same key are compared with each other
+     *
+     * @return Configuration key
+     */
+    public String getConfiguration() {
+        return "population=" + population + ", threads=" + threads + ", spreadingFactor=" + spreadingFactor + ", mortalityRate=" + mortalityRate;
+    }
+
+    // Getters
+    public int getPopulation() {
+        return population;
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    public double getSpreadingFactor() {
+        return spreadingFactor;
+    }
+
+    public double getMortalityRate() {
+        return mortalityRate;
+    }
+
+    public int getTicks() {
+        return ticks;
+    }
+
+    public double getTicksPerSecond() {
+        return ticksPerSecond;
+    }
+
+    public double getP50Millis() {
+        return p50Millis;
+    }
+
+    public double getP99Millis() {
+        return p99Millis;
+    }
+
+    public double getAllocatedMBPerSecond() {
+        return allocatedMBPerSecond;
+    }
+
+    public double getPeakHeapMB() {
+        return peakHeapMB;
+    }
+
+    @Override
+    public String toString() {
+        return "ScalingResult{" +
+                getConfiguration() +
+                ", TicksPerSecond=" + ticksPerSecond +
+                ", P50Millis=" + p50Millis +
+                ", P99Millis=" + p99Millis +
+                ", AllocatedMBPerSecond=" + allocatedMBPerSecond +
+                ", PeakHeapMB=" + peakHeapMB +
+                '}';
+    }
+}
@@ -0,0 +1,50 @@
+package benchmark;
+
+import simulation.Simulator;
+import simulation.individual.Population;
+import simulation.random.CounterRandom;
+import simulation.random.RandomStream;
+
+/**
+ * Reproducible simulation setups shared by the benchmarks
+ */
+public final class Scenario {
+    /**
+     * Seed of every benchmark run
+     */
+    public static final long SEED = 443L;
+    public static final double SPREADING_FACTOR = 0.8;
+    public static final double MORTALITY_RATE = 0.3;
+
+    private Scenario() {
+    }
+
+    /**
+     * Create a simulator with the given population, then infect the given share of it
+     * and fill the hospital with the first infected ones, as in the middle of an outbreak
+     *
+     * @param population    Population of the society
+     * @param infectedShare Share of the population to infect, in [0, 1]
+     * @return Simulator ready to tick
+     */
+    public static Simulator create(int population, double infectedShare) {
+        Simulator simulator = new Simulator(population, SPREADING_FACTOR, MORTALITY_RATE, 1, SEED);
+        infect(simulator, infectedShare);
+        return simulator;
+    }
+
+    private static void infect(Simulator simulator, double infectedShare) {
+        Population individuals = simulator.getIndividuals();
+        CounterRandom random = new CounterRandom(SEED);
+        int iteration = simulator.getIteration();
+        for (int i = 0; i < individuals.size(); i++) {
+            if (individuals.isInfected(i) || random.nextDouble(iteration, individuals.getID(i), RandomStream.INFECTION) >= infectedShare)
+                continue;
+            individuals.setInfected(i, true);
+            individuals.setInfectedAt(i, iteration);
+            simulator.getTransitions().infected(i, iteration);
+            if (simulator.getHospital().isThereAnyFreeVentilator())
+                individuals.get(i).hospitalize(simulator.getHospital(), iteration);
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import simulation.Simulator;
+import simulation.Statistics;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of the Simulator statistics getters that the UI polls on every frame
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class StatisticsBenchmark {
+    @Param({"400", "10000", "100000", "1000000"})
+    public int population;
+
+    @Param({"0.1"})
+    public double infectedShare;
+
+    private Simulator simulator;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        simulator = Scenario.create(population, infectedShare);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        simulator.end();
+    }
+
+    @Benchmark
+    public double getHealthyCount() {
+        return simulator.getHealthyCount();
+    }
+
+    @Benchmark
+    public double getInfectedCount() {
+        return simulator.getInfectedCount();
+    }
+
+    @Benchmark
+    public double getHospitalizedCount() {
+        return simulator.getHospitalizedCount();
+    }
+
+    @Benchmark
+    public double getCasualtyCount() {
+        return simulator.getCasualtyCount();
+    }
+
+    @Benchmark
+    public double getCurrentAverageSocialDistance() {
+        return simulator.getCurrentAverageSocialDistance();
+    }
+
+    @Benchmark
+    public double getCurrentMaskUsagePercentage() {
+        return simulator.getCurrentMaskUsagePercentage();
+    }
+
+    @Benchmark
+    public Statistics getStatistics() {
+        return simulator.getStatistics();
+    }
+}
@@ -0,0 +1,77 @@
+package main;
+
+import simulation.BatchResult;
+import simulation.Common;
+import simulation.Simulator;
+import simulation.checkpoint.CheckpointFile;
+import simulation.checkpoint.CheckpointWriter;
+import simulation.log.Log;
+import simulation.metrics.BinaryMetricsSink;
+import simulation.metrics.CsvMetricsSink;
+import simulation.metrics.MetricsSink;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Command-line entry point to run the simulation headless, without JavaFX
+ * Usage: BatchLauncher [iterations] [population] [spreadingFactor] [mortalityRate] [threads] [seed]
+ * Checkpoints: -Dsimulation.checkpoint.interval=iterations -Dsimulation.checkpoint.directory=checkpoints writes them periodically,
+ * -Dsimulation.checkpoint.restore=file continues a run from a checkpoint, population and disease arguments are then ignored
+ * Metrics: -Dsimulation.metrics.csv=file and -Dsimulation.metrics.binary=file record the statistics of every iteration
+ * World: -Dsimulation.world.width=units -Dsimulation.world.height=units set the size of the world, the canvas size by default
+ * Pipeline: -Dsimulation.pipeline=true overlaps the phases of consecutive iterations that do not depend on each other
+ * Tick metrics are published over JMX as simulation:type=TickMetrics,name="batch", e.g. for jconsole
+ */
+public class BatchLauncher {
+    private static final int DEFAULT_ITERATIONS = 1000;
+    private static final double DEFAULT_SPREADING_FACTOR = 0.8;
+    private static final double DEFAULT_MORTALITY_RATE = 0.2;
+    private static final String DEFAULT_CHECKPOINT_DIRECTORY = "checkpoints";
+
+    public static void main(String[] args) throws IOException {
+        int iterations = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_ITERATIONS;
+        int population = args.length > 1 ? Integer.parseInt(args[1]) : Common.DEFAULT_POPULATION;
+        double spreadingFactor = args.length > 2 ? Double.parseDouble(args[2]) : DEFAULT_SPREADING_FACTOR;
+        double mortalityRate = args.length > 3 ? Double.parseDouble(args[3]) : DEFAULT_MORTALITY_RATE;
+        int threads = args.length > 4 ? Integer.parseInt(args[4]) : 1;
+        int worldWidth = Integer.getInteger("simulation.world.width", Common.CANVAS_X);
+        int worldHeight = Integer.getInteger("simulation.world.height", Common.CANVAS_Y);
+        String restore = System.getProperty("simulation.checkpoint.restore");
+        Simulator simulator;
+        if (restore != null)
+            simulator = Simulator.restore(CheckpointFile.read(Path.of(restore)), threads);
+        else
+            simulator = new Simulator(population, spreadingFactor, mortalityRate, threads,
+                    args.length > 5 ? Long.parseLong(args[5]) : ThreadLocalRandom.current().nextLong(), worldWidth, worldHeight);
+        simulator.getTickMetrics().register("batch");
+        CheckpointWriter checkpoints = null;
+        String interval = System.getProperty("simulation.checkpoint.interval");
+        if (interval != null) {
+            checkpoints = new CheckpointWriter(Path.of(System.getProperty("simulation.checkpoint.directory", DEFAULT_CHECKPOINT_DIRECTORY)),
+                    Integer.parseInt(interval));
+            simulator.addTickListener(checkpoints);
+        }
+        List<MetricsSink> sinks = new ArrayList<>();
+        if (System.getProperty("simulation.metrics.csv") != null)
+            sinks.add(new CsvMetricsSink(Path.of(System.getProperty("simulation.metrics.csv"))));
+        if (System.getProperty("simulation.metrics.binary") != null)
+            sinks.add(new BinaryMetricsSink(Path.of(System.getProperty("simulation.metrics.binary"))));
+        for (MetricsSink sink : sinks) {
+            sink.record(simulator.getStatistics());
+            simulator.addTickListener(sink);
+        }
+        BatchResult result = simulator.runBatch(iterations);
+        if (checkpoints != null)
+            checkpoints.close();
+        for (MetricsSink sink : sinks)
+            sink.close();
+        // Written after pending log messages so the result is not interleaved with them
+        Log.flush();
+        System.out.println(result);
+        simulator.end();
+    }
+}
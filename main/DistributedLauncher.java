@@ -0,0 +1,118 @@
+package main;
+
+import simulation.BatchResult;
+import simulation.Common;
+import simulation.distributed.ShardCoordinator;
+import simulation.distributed.ShardWorker;
+import simulation.log.Log;
+import simulation.metrics.BinaryMetricsSink;
+import simulation.metrics.CsvMetricsSink;
+import simulation.metrics.MetricsSink;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Command-line entry point to run the simulation distributed over multiple processes, without JavaFX
+ * Usage: DistributedLauncher coordinator [port] [shards] [iterations] [population] [spreadingFactor] [mortalityRate] [seed]
+ * DistributedLauncher worker [host] [port] [threads]
+ * DistributedLauncher local [shards] [iterations] [population] [spreadingFactor] [mortalityRate] [seed]
+ * local starts a coordinator on loopback and a worker process per shard on this machine
+ * World: -Dsimulation.world.width=units -Dsimulation.world.height=units, each shard needs a strip of at least twice SHARD_HALO_XY
+ * Metrics: -Dsimulation.metrics.csv=file and -Dsimulation.metrics.binary=file record the statistics of the whole society
+ * Threads of the local workers: -Dsimulation.distributed.threads=threads
+ */
+public class DistributedLauncher {
+    private static final int DEFAULT_PORT = 7400;
+    private static final int DEFAULT_SHARDS = 2;
+    private static final int DEFAULT_ITERATIONS = 1000;
+    private static final double DEFAULT_SPREADING_FACTOR = 0.8;
+    private static final double DEFAULT_MORTALITY_RATE = 0.2;
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        String mode = args.length > 0 ? args[0] : "local";
+        switch (mode) {
+            case "coordinator":
+                coordinate(null, args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_PORT, args, 2, List.of());
+                break;
+            case "worker":
+                try (ShardWorker worker = new ShardWorker(args.length > 1 ? args[1] : "localhost", args.length > 2 ? Integer.parseInt(args[2]) : DEFAULT_PORT,
+                        args.length > 3 ? Integer.parseInt(args[3]) : 1)) {
+                    worker.run();
+                }
+                Log.flush();
+                break;
+            case "local":
+                coordinate(InetAddress.getLoopbackAddress(), 0, args, 1, null);
+                break;
+            default:
+                throw new IllegalArgumentException("DistributedLauncher::main()::unknown mode: " + mode);
+        }
+    }
+
+    /**
+     * Run a coordinator with the arguments from the given position, starts the workers as child processes if they are not given
+     */
+    private static void coordinate(InetAddress bindAddress, int port, String[] args, int from, List<Process> workers) throws IOException, InterruptedException {
+        int shards = args.length > from ? Integer.parseInt(args[from]) : DEFAULT_SHARDS;
+        int iterations = args.length > from + 1 ? Integer.parseInt(args[from + 1]) : DEFAULT_ITERATIONS;
+        int population = args.length > from + 2 ? Integer.parseInt(args[from + 2]) : Common.DEFAULT_POPULATION;
+        double spreadingFactor = args.length > from + 3 ? Double.parseDouble(args[from + 3]) : DEFAULT_SPREADING_FACTOR;
+        double mortalityRate = args.length > from + 4 ? Double.parseDouble(args[from + 4]) : DEFAULT_MORTALITY_RATE;
+        long seed = args.length > from + 5 ? Long.parseLong(args[from + 5]) : ThreadLocalRandom.current().nextLong();
+        int worldWidth = Integer.getInteger("simulation.world.width", Common.CANVAS_X);
+        int worldHeight = Integer.getInteger("simulation.world.height", Common.CANVAS_Y);
+        BatchResult result;
+        List<MetricsSink> sinks = new ArrayList<>();
+        try (ShardCoordinator coordinator = new ShardCoordinator(bindAddress, port, shards)) {
+            if (workers == null)
+                workers = startWorkers(shards, coordinator.getPort());
+            coordinator.start(population, spreadingFactor, mortalityRate, seed, worldWidth, worldHeight);
+            if (System.getProperty("simulation.metrics.csv") != null)
+                sinks.add(new CsvMetricsSink(Path.of(System.getProperty("simulation.metrics.csv"))));
+            if (System.getProperty("simulation.metrics.binary") != null)
+                sinks.add(new BinaryMetricsSink(Path.of(System.getProperty("simulation.metrics.binary"))));
+            for (MetricsSink sink : sinks)
+                coordinator.addMetricsSink(sink);
+            result = coordinator.run(iterations);
+        } finally {
+            for (MetricsSink sink : sinks)
+                sink.close();
+        }
+        for (Process worker : workers)
+            worker.waitFor();
+        // Written after pending log messages so the result is not interleaved with them
+        Log.flush();
+        System.out.println(result);
+    }
+
+    /**
+     * Start a worker process per shard with the class path and the system properties of this process
+     */
+    private static List<Process> startWorkers(int shards, int port) throws IOException {
+        String java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+        String threads = System.getProperty("simulation.distributed.threads", "1");
+        List<Process> workers = new ArrayList<>();
+        for (int shard = 0; shard < shards; shard++) {
+            List<String> command = new ArrayList<>();
+            command.add(java);
+            command.add("-cp");
+            command.add(System.getProperty("java.class.path"));
+            for (String name : System.getProperties().stringPropertyNames()) {
+                if (name.startsWith("simulation.log"))
+                    command.add("-D" + name + "=" + System.getProperty(name));
+            }
+            command.add(DistributedLauncher.class.getName());
+            command.add("worker");
+            command.add(InetAddress.getLoopbackAddress().getHostAddress());
+            command.add(Integer.toString(port));
+            command.add(threads);
+            workers.add(new ProcessBuilder(command).inheritIO().start());
+        }
+        return workers;
+    }
+}
@@ -0,0 +1,95 @@
+package main;
+
+import simulation.ensemble.CurveAggregator;
+import simulation.ensemble.EnsembleParameters;
+import simulation.ensemble.EnsembleRunner;
+import simulation.ensemble.Welford;
+import simulation.log.Log;
+import simulation.util.QuantileSketch;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Command-line entry point to run Monte Carlo ensembles over a parameter sweep, without JavaFX
+ * Writes mean curves with 95% confidence intervals and quantiles of every parameter set as CSV
+ * Usage: EnsembleLauncher [--populations=400] [--spreadingFactors=0.8] [--mortalityRates=0.2] [--replicates=100]
+ * [--iterations=500] [--threads=cores] [--seed=443] [--out=ensemble.csv]
+ */
+public class EnsembleLauncher {
+    private static final String DEFAULT_POPULATIONS = "400";
+    private static final String DEFAULT_SPREADING_FACTORS = "0.8";
+    private static final String DEFAULT_MORTALITY_RATES = "0.2";
+    private static final int DEFAULT_REPLICATES = 100;
+    private static final int DEFAULT_ITERATIONS = 500;
+    private static final long DEFAULT_SEED = 443L;
+    private static final String DEFAULT_OUT = "ensemble.csv";
+
+    public static void main(String[] args) throws IOException {
+        Map<String, String> options = parseOptions(args);
+        int[] populations = Arrays.stream(options.getOrDefault("populations", DEFAULT_POPULATIONS).split(",")).mapToInt(Integer::parseInt).toArray();
+        double[] spreadingFactors = parseDoubles(options.getOrDefault("spreadingFactors", DEFAULT_SPREADING_FACTORS));
+        double[] mortalityRates = parseDoubles(options.getOrDefault("mortalityRates", DEFAULT_MORTALITY_RATES));
+        int replicates = Integer.parseInt(options.getOrDefault("replicates", Integer.toString(DEFAULT_REPLICATES)));
+        int iterations = Integer.parseInt(options.getOrDefault("iterations", Integer.toString(DEFAULT_ITERATIONS)));
+        int threads = Integer.parseInt(options.getOrDefault("threads", Integer.toString(Runtime.getRuntime().availableProcessors())));
+        long seed = Long.parseLong(options.getOrDefault("seed", Long.toString(DEFAULT_SEED)));
+        Path out = Path.of(options.getOrDefault("out", DEFAULT_OUT));
+
+        EnsembleRunner runner = new EnsembleRunner(threads, replicates, iterations, seed);
+        long startTime = System.nanoTime();
+        Map<EnsembleParameters, CurveAggregator> results;
+        try {
+            results = runner.sweep(EnsembleParameters.sweep(populations, spreadingFactors, mortalityRates));
+        } finally {
+            runner.shutdown();
+        }
+        write(out, results);
+        Log.flush();
+        System.out.println(results.size() + " parameter set(s) x " + replicates + " replicate(s) in "
+                + ((System.nanoTime() - startTime) / 1000000000.0) + " seconds, written to " + out.toAbsolutePath());
+    }
+
+    private static void write(Path path, Map<EnsembleParameters, CurveAggregator> results) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(path)) {
+            writer.write("population,spreadingFactor,mortalityRate,iteration,metric,runs,mean,stdDev,ci95Low,ci95High,p05,p50,p95");
+            writer.newLine();
+            for (var entry : results.entrySet()) {
+                EnsembleParameters parameters = entry.getKey();
+                CurveAggregator curves = entry.getValue();
+                for (int point = 0; point < curves.getLength(); point++) {
+                    for (CurveAggregator.Metric metric : CurveAggregator.Metric.values()) {
+                        Welford mean = curves.getMean(point, metric);
+                        QuantileSketch sketch = curves.getSketch(point, metric);
+                        writer.write(String.format(Locale.ROOT, "%d,%s,%s,%d,%s,%d,%.3f,%.3f,%.3f,%.3f,%.1f,%.1f,%.1f",
+                                parameters.getPopulation(), parameters.getSpreadingFactor(), parameters.getMortalityRate(), point, metric,
+                                mean.getCount(), mean.getMean(), mean.getStandardDeviation(),
+                                mean.getMean() - mean.getConfidenceInterval95(), mean.getMean() + mean.getConfidenceInterval95(),
+                                sketch.getQuantile(0.05), sketch.getQuantile(0.50), sketch.getQuantile(0.95)));
+                        writer.newLine();
+                    }
+                }
+            }
+        }
+    }
+
+    private static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("="))
+                throw new IllegalArgumentException("EnsembleLauncher::parseOptions()::expected --name=value: " + arg);
+            options.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+        }
+        return options;
+    }
+
+    private static double[] parseDoubles(String values) {
+        return Arrays.stream(values.split(",")).mapToDouble(Double::parseDouble).toArray();
+    }
+}
@@ -7,6 +7,7 @@ import javafx.scene.Parent;
 import javafx.scene.Scene;
 import javafx.scene.image.Image;
 import javafx.stage.Stage;
+import simulation.log.Log;
 
 import java.nio.file.Path;
 import java.nio.file.Paths;
@@ -30,16 +31,16 @@ public class Main extends Application {
         primaryStage.setScene(new Scene(root));
         primaryStage.show();
 
-        // AnimationTimer updates UI by using data from controller in every second
+        // AnimationTimer draws the latest frame of the simulation on every pulse, fields and chart are updated in every second
         final long[] lastCallTime = {System.nanoTime()};
         new AnimationTimer() {
             @Override
             public void handle(long currentTime) {
+                controller.updateCanvas();
                 double elapsedSeconds = (currentTime - lastCallTime[0]) / 1000000000.0;
                 if (elapsedSeconds > 1.0) {
                     lastCallTime[0] = currentTime;
-                    System.out.println("AnimationTimer()::handle()::elapsedSeconds:" + elapsedSeconds);
-                    controller.updateCanvas();
+                    Log.debug(() -> "AnimationTimer()::handle()::elapsedSeconds:" + elapsedSeconds);
                     controller.updateCountStatistics();
                     controller.updateChart();
                 }
@@ -1,25 +1,54 @@
 package main;
 
 import javafx.fxml.FXML;
-import javafx.scene.canvas.Canvas;
-import javafx.scene.canvas.GraphicsContext;
+import javafx.geometry.Rectangle2D;
 import javafx.scene.chart.LineChart;
 import javafx.scene.chart.XYChart;
 import javafx.scene.control.TextField;
-import javafx.scene.paint.Color;
+import javafx.scene.image.ImageView;
+import javafx.scene.image.PixelBuffer;
+import javafx.scene.image.PixelFormat;
+import javafx.scene.image.WritableImage;
+import javafx.scene.input.MouseEvent;
+import javafx.scene.input.ScrollEvent;
 import simulation.Common;
 import simulation.Simulator;
+import simulation.Statistics;
+import simulation.chart.ChartHistory;
+import simulation.chart.Lttb;
+import simulation.frame.Frame;
+import simulation.frame.FrameExchange;
+import simulation.frame.FrameRasterizer;
+import simulation.frame.Viewport;
 import simulation.fsm.PauseState;
-import simulation.individual.Individual;
+import simulation.log.Log;
 
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Random;
 
 /**
  * Controller class for the UI, handles UI with the simulation instance
  */
 public class MainController {
+    /**
+     * Iterations kept in the chart history at full resolution
+     */
+    private static final int HISTORY_CAPACITY = 1 << 16;
+    /**
+     * Points sent to the chart per horizontal pixel of it
+     */
+    private static final double POINTS_PER_PIXEL = 1.5;
+    /**
+     * Scale multiplier of a single scroll step on the canvas
+     */
+    private static final double ZOOM_STEP = 1.25;
+
     @FXML
-    private Canvas canvas;
+    private ImageView canvas;
     @FXML
     private LineChart<Integer, Double> chart;
     @FXML
@@ -29,6 +58,10 @@ public class MainController {
     @FXML
     private TextField mortalityRateField;
     @FXML
+    private TextField worldWidthField;
+    @FXML
+    private TextField worldHeightField;
+    @FXML
     private TextField insertIndividualsField;
     @FXML
     private TextField totalCountField;
@@ -52,9 +85,62 @@ public class MainController {
      * Simulator object, back-end of the program
      */
     private Simulator simulator;
+    /**
+     * Frames published by the simulation thread, the UI only reads the society through them
+     */
+    private FrameExchange frames;
+    /**
+     * Sequence of the frame that is drawn on the canvas
+     */
+    private long drawnSequence;
+    /**
+     * Pixels of the canvas, rasterized from the frames
+     */
+    private FrameRasterizer rasterizer;
+    /**
+     * Visible area of the world, replaced by panning and zooming the canvas
+     */
+    private Viewport viewport;
+    /**
+     * Viewport of the frame that is drawn on the canvas
+     */
+    private Viewport drawnViewport;
+    /**
+     * Last mouse position of a pan on the canvas
+     */
+    private double panX, panY;
+    /**
+     * Pixels shown by the canvas image, only the changed regions are copied in and uploaded
+     */
+    private PixelBuffer<IntBuffer> pixelBuffer;
+    /**
+     * Statistics of every iteration, recorded by the simulation thread
+     */
+    private ChartHistory history;
+    /**
+     * Copy of the history that is downsampled into the chart, reused by every update
+     */
+    private final ChartHistory.Window historyWindow = new ChartHistory.Window();
+    private int[] selectedPoints = new int[0];
 
     public MainController() {
         simulator = new Simulator(0, 0.0, 0.0);
+        frames = new FrameExchange();
+        history = new ChartHistory(HISTORY_CAPACITY);
+    }
+
+    /**
+     * Create the image of the canvas, called by the FXML loader after the fields are injected
+     */
+    @FXML
+    private void initialize() {
+        rasterizer = new FrameRasterizer(Common.CANVAS_X + Common.CANVAS_BOX_XY, Common.CANVAS_Y + Common.CANVAS_BOX_XY);
+        IntBuffer pixels = ByteBuffer.allocateDirect(rasterizer.getWidth() * rasterizer.getHeight() * Integer.BYTES)
+                .order(ByteOrder.nativeOrder()).asIntBuffer();
+        pixelBuffer = new PixelBuffer<>(rasterizer.getWidth(), rasterizer.getHeight(), pixels, PixelFormat.getIntArgbPreInstance());
+        canvas.setImage(new WritableImage(pixelBuffer));
+        viewport = Viewport.fit(Common.CANVAS_X, Common.CANVAS_Y, rasterizer.getWidth(), rasterizer.getHeight());
+        uploadDirtyRegion();
     }
 
     /**
@@ -63,6 +149,8 @@ public class MainController {
     private void initializeSimulation() {
         Random random = new Random();
         int population = Common.DEFAULT_POPULATION;
+        int worldWidth = Common.CANVAS_X;
+        int worldHeight = Common.CANVAS_Y;
         double spreadingFactor = (random.nextInt(5) + 6) / 10.0;
         double mortalityRate = (random.nextInt(9) + 1) / 10.0;
         if (!populationField.getText().isBlank() || !populationField.getText().isEmpty())
@@ -77,7 +165,24 @@ public class MainController {
             mortalityRate = Double.parseDouble(mortalityRateField.getText());
         else
             mortalityRateField.setText(Double.toString(mortalityRate));
-        this.simulator = new Simulator(population, spreadingFactor, mortalityRate);
+        if (!worldWidthField.getText().isBlank() || !worldWidthField.getText().isEmpty())
+            worldWidth = Integer.parseInt(worldWidthField.getText());
+        else
+            worldWidthField.setText(Integer.toString(worldWidth));
+        if (!worldHeightField.getText().isBlank() || !worldHeightField.getText().isEmpty())
+            worldHeight = Integer.parseInt(worldHeightField.getText());
+        else
+            worldHeightField.setText(Integer.toString(worldHeight));
+        this.simulator = new Simulator(population, spreadingFactor, mortalityRate, 1, random.nextLong(), worldWidth, worldHeight);
+        simulator.getTickMetrics().register("ui");
+        this.viewport = Viewport.fit(worldWidth, worldHeight, rasterizer.getWidth(), rasterizer.getHeight());
+        this.frames = new FrameExchange();
+        this.drawnSequence = 0;
+        simulator.addTickListener(frames);
+        frames.publish(simulator);
+        this.history = new ChartHistory(HISTORY_CAPACITY);
+        history.add(simulator.getStatistics());
+        simulator.addTickListener(history);
         initializeChart();
     }
 
@@ -86,11 +191,11 @@ public class MainController {
      */
     @FXML
     protected void startSimulation() {
-        System.out.println("iteration:" + simulator.getIteration() + ", MainController::startSimulation() called.");
+        Log.debug(() -> "iteration:" + simulator.getIteration() + ", MainController::startSimulation() called.");
         endSimulation();
         initializeSimulation();
         simulator.run();
-        System.out.println("iteration:" + simulator.getIteration() + ", MainController::startSimulation() finished.");
+        Log.debug(() -> "iteration:" + simulator.getIteration() + ", MainController::startSimulation() finished.");
     }
 
     /**
@@ -98,12 +203,12 @@ public class MainController {
      */
     @FXML
     protected void pauseSimulation() {
-        System.out.println("iteration:" + simulator.getIteration() + ", MainController::pauseSimulation() called.");
+        Log.debug(() -> "iteration:" + simulator.getIteration() + ", MainController::pauseSimulation() called.");
         if (simulator.getState().getClass().equals(PauseState.class))
             simulator.run();
         else
             simulator.pause();
-        System.out.println("iteration:" + simulator.getIteration() + ", MainController::pauseSimulation() finished.");
+        Log.debug(() -> "iteration:" + simulator.getIteration() + ", MainController::pauseSimulation() finished.");
     }
 
     /**
@@ -111,12 +216,12 @@ public class MainController {
      */
     @FXML
     protected void endSimulation() {
-        System.out.println("iteration:" + simulator.getIteration() + ", MainController::endSimulation() called.");
+        Log.debug(() -> "iteration:" + simulator.getIteration() + ", MainController::endSimulation() called.");
         simulator.end();
         clearCanvas();
         clearFields();
         clearChart();
-        System.out.println("iteration:" + simulator.getIteration() + ", MainController::endSimulation() finished.");
+        Log.debug(() -> "iteration:" + simulator.getIteration() + ", MainController::endSimulation() finished.");
     }
 
     /**
@@ -124,14 +229,18 @@ public class MainController {
      */
     @FXML
     protected void addBulkIndividuals() {
-        System.out.println("iteration:" + simulator.getIteration() + ", MainController::addBulkIndividuals() called.");
+        Log.debug(() -> "iteration:" + simulator.getIteration() + ", MainController::addBulkIndividuals() called.");
         int population;
         if (insertIndividualsField.getText().isBlank() || insertIndividualsField.getText().isBlank())
             population = 0;
         else
             population = Integer.parseInt(insertIndividualsField.getText());
-        simulator.addBulkIndividuals(population);
-        System.out.println("iteration:" + simulator.getIteration() + ", MainController::addBulkIndividuals() finished.");
+        // The society is changed between two ticks on the simulation thread
+        simulator.getScheduler().execute(() -> {
+            simulator.addBulkIndividuals(population);
+            frames.publish(simulator);
+        });
+        Log.debug(() -> "iteration:" + simulator.getIteration() + ", MainController::addBulkIndividuals() finished.");
     }
 
     /**
@@ -139,79 +248,89 @@ public class MainController {
      */
     @FXML
     protected void addIndividual() {
-        System.out.println("iteration:" + simulator.getIteration() + ", MainController::addIndividual() called.");
-        simulator.addIndividual();
-        System.out.println("iteration:" + simulator.getIteration() + ", MainController::addIndividual() finished.");
+        Log.debug(() -> "iteration:" + simulator.getIteration() + ", MainController::addIndividual() called.");
+        simulator.getScheduler().execute(() -> {
+            simulator.addIndividual();
+            frames.publish(simulator);
+        });
+        Log.debug(() -> "iteration:" + simulator.getIteration() + ", MainController::addIndividual() finished.");
     }
 
     /**
-     * Update canvas
+     * Update canvas with the latest frame, nothing is drawn if the frame is already on the canvas through the same viewport
      */
     public void updateCanvas() {
-        canvas.getGraphicsContext2D().clearRect(0, 0, canvas.getWidth(), canvas.getHeight());
-        drawCanvasBorders();
-        drawIndividuals();
+        Frame frame = frames.acquire();
+        if (frame.getSequence() == drawnSequence && viewport == drawnViewport)
+            return;
+        drawnSequence = frame.getSequence();
+        drawnViewport = viewport;
+        if (rasterizer.render(frame, viewport))
+            uploadDirtyRegion();
     }
 
     /**
-     * Draw a border around canvas
+     * Start panning the canvas from the pressed position
      */
-    private void drawCanvasBorders() {
-        GraphicsContext context = canvas.getGraphicsContext2D();
-        context.setStroke(Color.BLACK);
-        context.setLineWidth(1);
-        context.moveTo(0, 0);
-        context.lineTo(0, canvas.getHeight());
-        context.stroke();
-        context.moveTo(0, canvas.getHeight());
-        context.lineTo(canvas.getWidth(), canvas.getHeight());
-        context.stroke();
-        context.moveTo(0, 0);
-        context.lineTo(canvas.getWidth(), 0);
-        context.stroke();
-        context.moveTo(canvas.getWidth(), 0);
-        context.lineTo(canvas.getWidth(), canvas.getHeight());
-        context.stroke();
+    @FXML
+    protected void startPan(MouseEvent event) {
+        panX = event.getX();
+        panY = event.getY();
     }
 
     /**
-     * Draw each individual in the simulator to the canvas
+     * Pan the canvas with the mouse, the next pulse draws the new viewport
      */
-    private void drawIndividuals() {
-        var context = canvas.getGraphicsContext2D();
-        var individuals = simulator.getIndividuals();
-        for (Individual person : individuals) {
-            if (person.isAlive() && !person.isHospitalized()) {
-                if (person.isInfected())
-                    context.setFill(Color.RED);
-                else
-                    context.setFill(Color.GREEN);
-                context.fillRect(person.getCoordinateX(), person.getCoordinateY(), 5, 5);
-            }
-        }
+    @FXML
+    protected void pan(MouseEvent event) {
+        viewport = viewport.pan(event.getX() - panX, event.getY() - panY);
+        panX = event.getX();
+        panY = event.getY();
+    }
+
+    /**
+     * Zoom the canvas around the mouse position
+     */
+    @FXML
+    protected void zoom(ScrollEvent event) {
+        if (event.getDeltaY() != 0)
+            viewport = viewport.zoom(event.getDeltaY() > 0 ? ZOOM_STEP : 1 / ZOOM_STEP, event.getX(), event.getY());
+    }
+
+    /**
+     * Copy the pixels changed by the last render to the image, only that region is uploaded to the screen
+     */
+    private void uploadDirtyRegion() {
+        pixelBuffer.updateBuffer(buffer -> {
+            rasterizer.copyDirtyRegion(buffer.getBuffer());
+            return new Rectangle2D(rasterizer.getDirtyX(), rasterizer.getDirtyY(), rasterizer.getDirtyWidth(), rasterizer.getDirtyHeight());
+        });
     }
 
     /**
      * Clear canvas
      */
     public void clearCanvas() {
-        canvas.getGraphicsContext2D().clearRect(0, 0, canvas.getWidth(), canvas.getHeight());
+        rasterizer.clear();
+        uploadDirtyRegion();
     }
 
     /**
      * Update fields with simulator data
      */
     public void updateCountStatistics() {
-        if (simulator.getIndividuals().size() > 0) {
-            totalCountField.setText(Integer.toString((int) simulator.getTotalCount()));
-            healthyCountField.setText(Integer.toString((int) simulator.getHealthyCount()));
-            infectedCountField.setText(Integer.toString((int) simulator.getInfectedCount()));
-            hospitalizedCountField.setText(Integer.toString((int) simulator.getHospitalizedCount()));
-            casualtyCountField.setText(Integer.toString((int) simulator.getCasualtyCount()));
-            averageSocialDistanceField.setText(Double.toString(simulator.getAverageSocialDistance()));
-            maskUsagePercentageField.setText(Double.toString(simulator.getMaskUsagePercentage()));
-            currentAverageSocialDistanceField.setText(Double.toString(simulator.getCurrentAverageSocialDistance()));
-            currentMaskUsagePercentageField.setText(Double.toString(simulator.getCurrentMaskUsagePercentage()));
+        Frame frame = frames.acquire();
+        if (frame.size() > 0) {
+            Statistics statistics = frame.getStatistics();
+            totalCountField.setText(Integer.toString((int) statistics.getTotalCount()));
+            healthyCountField.setText(Integer.toString((int) statistics.getHealthyCount()));
+            infectedCountField.setText(Integer.toString((int) statistics.getInfectedCount()));
+            hospitalizedCountField.setText(Integer.toString((int) statistics.getHospitalizedCount()));
+            casualtyCountField.setText(Integer.toString((int) statistics.getCasualtyCount()));
+            averageSocialDistanceField.setText(Double.toString(statistics.getAverageSocialDistance()));
+            maskUsagePercentageField.setText(Double.toString(statistics.getMaskUsagePercentage()));
+            currentAverageSocialDistanceField.setText(Double.toString(statistics.getCurrentAverageSocialDistance()));
+            currentMaskUsagePercentageField.setText(Double.toString(statistics.getCurrentMaskUsagePercentage()));
         }
     }
 
@@ -235,6 +354,7 @@ public class MainController {
      */
     private void initializeChart() {
         chart.setCreateSymbols(false);
+        chart.setAnimated(false);
         XYChart.Series<Integer, Double> casualty = new XYChart.Series<>();
         casualty.setName("Casualty");
         chart.getData().add(casualty);
@@ -256,16 +376,24 @@ public class MainController {
     }
 
     /**
-     * Update chart data
+     * Update chart data from the history, each series is downsampled to the width of the chart and replaced in a single change
      */
     public void updateChart() {
-        if (chart.getData().size() == 6) {
-            chart.getData().get(0).getData().add(new XYChart.Data<>(simulator.getIteration(), simulator.getCasualtyCount()));
-            chart.getData().get(1).getData().add(new XYChart.Data<>(simulator.getIteration(), simulator.getInfectedCount()));
-            chart.getData().get(2).getData().add(new XYChart.Data<>(simulator.getIteration(), simulator.getHealthyCount()));
-            chart.getData().get(3).getData().add(new XYChart.Data<>(simulator.getIteration(), simulator.getHospitalizedCount()));
-            chart.getData().get(4).getData().add(new XYChart.Data<>(simulator.getIteration(), simulator.getCurrentAverageSocialDistance()));
-            chart.getData().get(5).getData().add(new XYChart.Data<>(simulator.getIteration(), simulator.getCurrentMaskUsagePercentage()));
+        ChartHistory.Metric[] metrics = ChartHistory.Metric.values();
+        if (chart.getData().size() != metrics.length)
+            return;
+        history.copyTo(historyWindow);
+        int threshold = Math.max(3, (int) (chart.getWidth() * POINTS_PER_PIXEL));
+        if (selectedPoints.length < threshold)
+            selectedPoints = new int[threshold];
+        int[] iterations = historyWindow.getIterations();
+        for (ChartHistory.Metric metric : metrics) {
+            double[] values = historyWindow.getValues(metric);
+            int count = Lttb.downsample(iterations, values, historyWindow.getLength(), threshold, selectedPoints);
+            List<XYChart.Data<Integer, Double>> points = new ArrayList<>(count);
+            for (int i = 0; i < count; i++)
+                points.add(new XYChart.Data<>(iterations[selectedPoints[i]], values[selectedPoints[i]]));
+            chart.getData().get(metric.ordinal()).getData().setAll(points);
         }
     }
 
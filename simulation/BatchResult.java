@@ -0,0 +1,78 @@
+package simulation;
+
+/**
+ * Summary of a headless batch run of the simulation
+ */
+public class BatchResult {
+    /**
+     * Number of iterations executed
+     */
+    private final int iterations;
+    /**
+     * Wall-clock time spent for the iterations, in nanoseconds
+     */
+    private final long elapsedNanos;
+    private final double totalCount;
+    private final double healthyCount;
+    private final double infectedCount;
+    private final double hospitalizedCount;
+    private final double casualtyCount;
+
+    // Constructors
+    public BatchResult(int iterations, long elapsedNanos, double totalCount, double healthyCount, double infectedCount, double hospitalizedCount, double casualtyCount) {
+        this.iterations = iterations;
+        this.elapsedNanos = elapsedNanos;
+        this.totalCount = totalCount;
+        this.healthyCount = healthyCount;
+        this.infectedCount = infectedCount;
+        this.hospitalizedCount = hospitalizedCount;
+        this.casualtyCount = casualtyCount;
+    }
+
+    // Getters
+    public int getIterations() {
+        return iterations;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    public double getTicksPerSecond() {
+        return elapsedNanos == 0 ? 0.0 : iterations / (elapsedNanos / 1000000000.0);
+    }
+
+    public double getTotalCount() {
+        return totalCount;
+    }
+
+    public double getHealthyCount() {
+        return healthyCount;
+    }
+
+    public double getInfectedCount() {
+        return infectedCount;
+    }
+
+    public double getHospitalizedCount() {
+        return hospitalizedCount;
+    }
+
+    public double getCasualtyCount() {
+        return casualtyCount;
+    }
+
+    @Override
+    public String toString() {
+        return "BatchResult{" +
+                "Iterations=" + iterations +
+                ", ElapsedSeconds=" + (elapsedNanos / 1000000000.0) +
+                ", TicksPerSecond=" + getTicksPerSecond() +
+                ", Total=" + (int) totalCount +
+                ", Healthy=" + (int) healthyCount +
+                ", Infected=" + (int) infectedCount +
+                ", Hospitalized=" + (int) hospitalizedCount +
+                ", Casualty=" + (int) casualtyCount +
+                '}';
+    }
+}
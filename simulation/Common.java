@@ -1,9 +1,7 @@
 package simulation;
 
-import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.List;
-import java.util.Random;
+import simulation.random.CounterRandom;
+import simulation.random.RandomStream;
 
 /**
  * Common definitions implemented in this class
@@ -29,15 +27,25 @@ public class Common {
     public static final int AT_HOSPITAL_SEC = 10;
 
     /**
-     * Canvas X axis length
+     * How many milliseconds pass between two iterations with speed multiplier 1.0
+     */
+    public static final int TICK_PERIOD_MILLIS = 1000;
+
+    /**
+     * Canvas X axis length, also the default world X axis length
      */
     public static final int CANVAS_X = 1000;
 
     /**
-     * Canvas Y axis length
+     * Canvas Y axis length, also the default world Y axis length
      */
     public static final int CANVAS_Y = 600;
 
+    /**
+     * Maximum world length on both axes, the world size of a simulation is independent of the canvas
+     */
+    public static final int MAX_WORLD_XY = 1 << 20;
+
     /**
      * Length of the single box that represents individual in canvas
      */
@@ -58,6 +66,21 @@ public class Common {
      */
     public static final int MAX_INTERACTION_TIME = 5;
 
+    /**
+     * Length of a single cell in the collision grid, wider than the farthest reach of a social distance check
+     */
+    public static final int COLLISION_CELL_XY = (CANVAS_BOX_XY * 2) + MAX_SOCIAL_DISTANCE;
+
+    /**
+     * Length of a world tile, worlds larger than a tile are simulated tile by tile when more than one thread is used
+     */
+    public static final int WORLD_TILE_XY = 4096;
+
+    /**
+     * Width of the band along the border of a shard that its neighbours see, farther than a move and a social distance check reach
+     */
+    public static final int SHARD_HALO_XY = MAX_SPEED + (CANVAS_BOX_XY * 3) + COLLISION_CELL_XY;
+
     /**
      * Movement directions for individual
      */
@@ -68,39 +91,94 @@ public class Common {
         LEFT
     }
 
-    private static final List<Direction> DIRECTIONS = List.of(Direction.values());
-    private static final int DIRECTION_COUNT = DIRECTIONS.size();
-    private static final Random RANDOM = new Random();
+    private static final Direction[] DIRECTIONS = Direction.values();
+    private static final int DIRECTION_COUNT = DIRECTIONS.length;
+
+    /**
+     * Direction mask with every direction, bit i of a mask is the direction with ordinal i
+     */
+    public static final int ALL_DIRECTIONS = (1 << DIRECTION_COUNT) - 1;
 
     /**
      * Get random direction from enum
      *
+     * @param random    Simulation random
+     * @param iteration Iteration of the simulation when method called
+     * @param id        ID of the individual
+     * @param stream    Decision that the direction is drawn for
      * @return Direction
      */
-    public static Direction getRandomDirection() {
-        return DIRECTIONS.get(RANDOM.nextInt(DIRECTION_COUNT));
+    public static Direction getRandomDirection(CounterRandom random, int iteration, int id, RandomStream stream) {
+        return DIRECTIONS[random.nextInt(iteration, id, stream, DIRECTION_COUNT)];
     }
 
     /**
-     * Get list of directions except given one
+     * Get mask of directions except given one
      *
      * @param currentDirection Direction
-     * @return List of directions except given one
+     * @return Direction mask without the given direction
      */
-    public static ArrayList<Direction> getRestOfDirections(Direction currentDirection) {
-        var result = new ArrayList<>(Arrays.asList(Direction.values()));
-        result.remove(currentDirection);
-        return result;
+    public static int getRestOfDirections(Direction currentDirection) {
+        return ALL_DIRECTIONS & ~getDirectionBit(currentDirection);
     }
 
     /**
      * Get random direction from rest of the directions
      *
      * @param currentDirection direction
+     * @param random           Simulation random
+     * @param iteration        Iteration of the simulation when method called
+     * @param id               ID of the individual
+     * @param stream           Decision that the direction is drawn for
      * @return random direction except given one
      */
-    public static Direction getRandomFromRestOfDirections(Direction currentDirection) {
-        var directions = getRestOfDirections(currentDirection);
-        return directions.get(RANDOM.nextInt(DIRECTION_COUNT - 1));
+    public static Direction getRandomFromRestOfDirections(Direction currentDirection, CounterRandom random, int iteration, int id, RandomStream stream) {
+        return getRandomDirection(getRestOfDirections(currentDirection), random, iteration, id, stream);
+    }
+
+    /**
+     * Get random direction from a direction mask, every direction of the mask is equally likely
+     *
+     * @param directions Non-empty direction mask
+     * @param random     Simulation random
+     * @param iteration  Iteration of the simulation when method called
+     * @param id         ID of the individual
+     * @param stream     Decision that the direction is drawn for
+     * @return Direction of the mask
+     */
+    public static Direction getRandomDirection(int directions, CounterRandom random, int iteration, int id, RandomStream stream) {
+        return getDirection(directions, random.nextInt(iteration, id, stream, Integer.bitCount(directions)));
+    }
+
+    /**
+     * Get the direction at the given position of a direction mask, directions are ordered by ordinal
+     *
+     * @param directions Direction mask
+     * @param position   Position of the direction, less than the number of directions in the mask
+     * @return Direction at the position
+     */
+    public static Direction getDirection(int directions, int position) {
+        for (; position > 0; position--)
+            directions &= directions - 1;
+        return DIRECTIONS[Integer.numberOfTrailingZeros(directions)];
+    }
+
+    public static int getDirectionBit(Direction direction) {
+        return 1 << direction.ordinal();
+    }
+
+    /**
+     * Get readable form of a direction mask
+     *
+     * @param directions Direction mask
+     * @return Directions of the mask, like [UP, LEFT]
+     */
+    public static String directionsToString(int directions) {
+        StringBuilder result = new StringBuilder("[");
+        for (Direction direction : DIRECTIONS) {
+            if ((directions & getDirectionBit(direction)) != 0)
+                result.append(result.length() > 1 ? ", " : "").append(direction);
+        }
+        return result.append(']').toString();
     }
 }
@@ -3,70 +3,146 @@ package simulation;
 import simulation.disease.Disease;
 import simulation.hospital.Hospital;
 import simulation.individual.Individual;
+import simulation.individual.Population;
+import simulation.log.Log;
+import simulation.random.CounterRandom;
+import simulation.random.RandomStream;
+import simulation.schedule.Transitions;
+import simulation.space.SpatialGrid;
+import simulation.util.IntList;
+import simulation.util.PairList;
 
-import java.util.ArrayList;
-import java.util.Random;
+import java.util.Arrays;
+import java.util.BitSet;
 
 /**
  * Mediator class to handle relations between different entities
  */
 public class Mediator {
-    private static final Random RANDOM = new Random();
-
     /**
      * Move given individual with the logic given in the project requirements
+     * A blocked individual turns to a random free direction and moves that way, it stays if every direction is blocked
      *
-     * @param individuals Current individual list of the society
-     * @param individual  Person to move
-     * @param iteration   Iteration of the simulation when method called
+     * @param population Current population of the society
+     * @param index      Index of the person to move
+     * @param iteration  Iteration of the simulation when method called
+     * @param random     Simulation random
      */
-    public static void move(ArrayList<Individual> individuals, Individual individual, int iteration) {
-        if (individual.isInInteraction()) {
-            if (iteration >= individual.getInteractedUntil()) {
-                individual.setInInteraction(false);
-                individual.setInteractedUntil(0);
-                individual.setDirection(Common.getRandomDirection());
-                move(individuals, individual, iteration);
-            }
-        } else {
-            if (canIndividualMoveInGivenDirection(individuals, individual, individual.getDirection()))
-                individual.makeMove();
-            else {
-                var directions = getAvailableDirectionsForIndividual(individuals, individual);
-                if (!directions.isEmpty()) {
-                    individual.setDirection(directions.get(RANDOM.nextInt(directions.size())));
-                    move(individuals, individual, iteration);
-                }
-            }
+    public static void move(Population population, int index, int iteration, CounterRandom random) {
+        int direction = proposeMove(population, index, iteration, random);
+        if (direction >= 0)
+            population.makeMove(index);
+    }
+
+    /**
+     * Move every individual in the given population
+     * Moves are proposed against the previous positions and committed in index order, the same moves that the parallel
+     * process states make on any number of threads
+     *
+     * @param population Current population of the society
+     * @param iteration  Iteration of the simulation when method called
+     * @param random     Simulation random
+     * @param proposals  Scratch array for the proposed direction of each individual
+     * @return Scratch array, grown if it was smaller than the population
+     */
+    public static byte[] moveForAll(Population population, int iteration, CounterRandom random, byte[] proposals) {
+        if (proposals.length < population.size())
+            proposals = Arrays.copyOf(proposals, population.size());
+        for (int i = 0; i < population.size(); i++)
+            proposals[i] = (byte) (population.isAlive(i) ? proposeMove(population, i, iteration, random) : -1);
+        for (int i = 0; i < population.size(); i++) {
+            if (proposals[i] >= 0)
+                commitMove(population, i);
         }
+        return proposals;
     }
 
     /**
-     * Move every individual in the given list
+     * End the interactions that are due at the given iteration, individuals leave in a random direction
+     * Must be called before the moves of the iteration
      *
-     * @param individuals Current individual list of the society
+     * @param population  Current population of the society
+     * @param transitions Scheduled transitions of the society
      * @param iteration   Iteration of the simulation when method called
+     * @param random      Simulation random
      */
-    public static void moveForAll(ArrayList<Individual> individuals, int iteration) {
-        for (Individual person : individuals) {
-            if (person.isAlive()) {
-                move(individuals, person, iteration);
+    public static void endInteractions(Population population, Transitions transitions, int iteration, CounterRandom random) {
+        IntList expired = transitions.expireInteractions(iteration);
+        for (int k = 0; k < expired.size(); k++) {
+            int i = expired.get(k);
+            if (population.isAlive(i) && population.isInInteraction(i) && iteration >= population.getInteractedUntil(i)) {
+                population.setInInteraction(i, false);
+                population.setInteractedUntil(i, 0);
+                population.setDirection(i, Common.getRandomDirection(random, iteration, population.getID(i), RandomStream.INTERACTION_END));
             }
         }
     }
 
     /**
-     * Generates a list of possible directions that individual can make a move
+     * Decide the move of the given individual by looking at the current positions only, without moving it
+     * Only writes the given individual, proposals of different individuals can be made in parallel
+     *
+     * @param population Current population of the society
+     * @param index      Index of the person to move
+     * @param iteration  Iteration of the simulation when method called
+     * @param random     Simulation random
+     * @return Ordinal of the direction to move, negative if the individual stays
+     */
+    public static int proposeMove(Population population, int index, int iteration, CounterRandom random) {
+        if (population.isInInteraction(index))
+            return -1;
+        Common.Direction current = population.getDirection(index);
+        if (canIndividualMoveInGivenDirection(population, index, current))
+            return current.ordinal();
+        // The current direction is known to be blocked, only the others are checked
+        int directions = getAvailableDirections(population, index, Common.getRestOfDirections(current));
+        if (directions == 0)
+            return -1;
+        Common.Direction direction = Common.getRandomDirection(directions, random, iteration, population.getID(index), RandomStream.MOVE);
+        population.setDirection(index, direction);
+        return direction.ordinal();
+    }
+
+    /**
+     * Apply a proposed move if the target is still free, moves committed before may have taken it
+     *
+     * @param population Current population of the society
+     * @param index      Index of the person to move
+     * @return True if the individual moved
+     */
+    public static boolean commitMove(Population population, int index) {
+        if (!canIndividualMoveInGivenDirection(population, index, population.getDirection(index)))
+            return false;
+        population.makeMove(index);
+        return true;
+    }
+
+    /**
+     * Generates a mask of possible directions that individual can make a move
+     *
+     * @param population Current population of the society
+     * @param index      Index of the person to check
+     * @return Direction mask of available directions
+     */
+    public static int getAvailableDirections(Population population, int index) {
+        return getAvailableDirections(population, index, Common.ALL_DIRECTIONS);
+    }
+
+    /**
+     * Generates a mask of possible directions among the given ones that individual can make a move
      *
-     * @param individuals Current individual list of the society
-     * @param individual  Person to check
-     * @return List of available directions
+     * @param population Current population of the society
+     * @param index      Index of the person to check
+     * @param directions Direction mask of directions to check
+     * @return Direction mask of available directions
      */
-    public static ArrayList<Common.Direction> getAvailableDirectionsForIndividual(ArrayList<Individual> individuals, Individual individual) {
-        ArrayList<Common.Direction> result = new ArrayList<>();
-        for (Common.Direction direction : Common.Direction.values()) {
-            if (canIndividualMoveInGivenDirection(individuals, individual, direction))
-                result.add(direction);
+    public static int getAvailableDirections(Population population, int index, int directions) {
+        int x = population.getCoordinateX(index), y = population.getCoordinateY(index), speed = population.getSpeed(index);
+        int result = 0;
+        for (int remaining = directions; remaining != 0; remaining &= remaining - 1) {
+            Common.Direction direction = Common.getDirection(remaining, 0);
+            if (canMove(population, index, x, y, speed, direction))
+                result |= Common.getDirectionBit(direction);
         }
         return result;
     }
@@ -74,58 +150,55 @@ public class Mediator {
     /**
      * Check individual movement in given direction is legal for the simulation rules
      *
-     * @param individuals Current individual list of the society
-     * @param individual  Person to check
-     * @param direction   Direction to check
+     * @param population Current population of the society
+     * @param index      Index of the person to check
+     * @param direction  Direction to check
      * @return True if individual can make the move
      */
-    public static boolean canIndividualMoveInGivenDirection(ArrayList<Individual> individuals, Individual individual, Common.Direction direction) {
+    public static boolean canIndividualMoveInGivenDirection(Population population, int index, Common.Direction direction) {
+        return canMove(population, index, population.getCoordinateX(index), population.getCoordinateY(index), population.getSpeed(index), direction);
+    }
+
+    private static boolean canMove(Population population, int index, int x, int y, int speed, Common.Direction direction) {
         int minX, maxX, minY, maxY;
         switch (direction) {
             case LEFT:
-                if (individual.getCoordinateX() - individual.getSpeed() < 0)
+                if (x - speed < 0)
                     return false;
-                minX = individual.getCoordinateX() - individual.getSpeed() - (Common.CANVAS_BOX_XY * 2);
-                minY = individual.getCoordinateY() - Common.CANVAS_BOX_XY;
-                maxX = individual.getCoordinateX() - individual.getSpeed() + Common.CANVAS_BOX_XY;
-                maxY = individual.getCoordinateY() + Common.CANVAS_BOX_XY;
+                minX = x - speed - (Common.CANVAS_BOX_XY * 2);
+                minY = y - Common.CANVAS_BOX_XY;
+                maxX = x - speed + Common.CANVAS_BOX_XY;
+                maxY = y + Common.CANVAS_BOX_XY;
                 break;
             case RIGHT:
-                if (individual.getCoordinateX() + individual.getSpeed() > Common.CANVAS_X)
+                if (x + speed > population.getWidth())
                     return false;
-                minX = individual.getCoordinateX() + individual.getSpeed() - Common.CANVAS_BOX_XY;
-                minY = individual.getCoordinateY() - Common.CANVAS_BOX_XY;
-                maxX = individual.getCoordinateX() + individual.getSpeed() + (Common.CANVAS_BOX_XY * 3);
-                maxY = individual.getCoordinateY() + Common.CANVAS_BOX_XY;
+                minX = x + speed - Common.CANVAS_BOX_XY;
+                minY = y - Common.CANVAS_BOX_XY;
+                maxX = x + speed + (Common.CANVAS_BOX_XY * 3);
+                maxY = y + Common.CANVAS_BOX_XY;
                 break;
             case UP:
-                if (individual.getCoordinateY() - individual.getSpeed() < 0)
+                if (y - speed < 0)
                     return false;
-                minX = individual.getCoordinateX() - Common.CANVAS_BOX_XY;
-                minY = individual.getCoordinateY() - individual.getSpeed() - (Common.CANVAS_BOX_XY * 2);
-                maxX = individual.getCoordinateX() + Common.CANVAS_BOX_XY;
-                maxY = individual.getCoordinateY() - individual.getSpeed() + Common.CANVAS_BOX_XY;
+                minX = x - Common.CANVAS_BOX_XY;
+                minY = y - speed - (Common.CANVAS_BOX_XY * 2);
+                maxX = x + Common.CANVAS_BOX_XY;
+                maxY = y - speed + Common.CANVAS_BOX_XY;
                 break;
             case DOWN:
-                if (individual.getCoordinateY() + individual.getSpeed() > Common.CANVAS_Y)
+                if (y + speed > population.getHeight())
                     return false;
-                minX = individual.getCoordinateX() - Common.CANVAS_BOX_XY;
-                minY = individual.getCoordinateY() + individual.getSpeed();
-                maxX = individual.getCoordinateX() + Common.CANVAS_BOX_XY;
-                maxY = individual.getCoordinateY() + individual.getSpeed() + (Common.CANVAS_BOX_XY * 3);
+                minX = x - Common.CANVAS_BOX_XY;
+                minY = y + speed;
+                maxX = x + Common.CANVAS_BOX_XY;
+                maxY = y + speed + (Common.CANVAS_BOX_XY * 3);
                 break;
             default:
-                throw new IllegalStateException("canIndividualMoveInCurrentDirection()::Unexpected value: " + individual.getDirection());
-        }
-        //System.out.println("DEBUG::canIndividualMoveInCurrentDirection()::[" + individual.getID() + "]:(" + individual.getCoordinateX() + "," + individual.getCoordinateY() + "): minX:" + minX + ", minY:" + minY + ", maxX:" + maxX + ", maxY:" + maxY);
-        for (Individual person : individuals) {
-            if (person.getID() != individual.getID()) {
-                if ((person.getCoordinateX() > minX && person.getCoordinateX() < maxX)
-                        && (person.getCoordinateY() > minY && person.getCoordinateY() < maxY))
-                    return false;
-            }
+                throw new IllegalStateException("canIndividualMoveInCurrentDirection()::Unexpected value: " + direction);
         }
-        return true;
+        //System.out.println("DEBUG::canIndividualMoveInCurrentDirection()::[" + population.getID(index) + "]:(" + x + "," + y + "): minX:" + minX + ", minY:" + minY + ", maxX:" + maxX + ", maxY:" + maxY);
+        return population.getOccupancyMap().isBoxFree(minX, minY, maxX, maxY, index);
     }
 
     /**
@@ -146,56 +219,137 @@ public class Mediator {
     }
 
     /**
-     * Collects list of collisions
+     * Checks individuals at the given indexes are in social distance or not
+     *
+     * @param population Current population of the society
+     * @param first      Index of one of the individuals to check
+     * @param second     Index of other individual to check
+     * @return True if they are in social distance of each other
+     */
+    public static boolean areGivenIndividualsInSocialDistance(Population population, int first, int second) {
+        int socialDistance = Math.min(population.getSocialDistance(first), population.getSocialDistance(second));
+        int firstX = population.getCoordinateX(first), firstY = population.getCoordinateY(first);
+        int secondX = population.getCoordinateX(second), secondY = population.getCoordinateY(second);
+        return (secondX > firstX - socialDistance - Common.CANVAS_BOX_XY && secondX < firstX + socialDistance + (Common.CANVAS_BOX_XY * 2))
+                && (secondY > firstY - socialDistance - Common.CANVAS_BOX_XY && secondY < firstY + socialDistance + (Common.CANVAS_BOX_XY * 2));
+    }
+
+    /**
+     * Collects collisions of the whole population, only individuals in the same or neighbouring cells of the grid are compared
+     * Each collision is reported once, in the order that it is first found when the individuals are visited in index order
+     *
+     * @param population Current population of the society
+     * @param candidates Scratch list for neighbour indexes
+     * @param collisions List to fill with the indexes of the colliding individuals, cleared first
+     */
+    public static void collectCollisions(Population population, IntList candidates, PairList collisions) {
+        collisions.clear();
+        for (int i = 0; i < population.size(); i++)
+            findCollisionPartners(population, i, candidates, collisions);
+    }
+
+    /**
+     * Collects individuals that collide with the given individual, in index order
+     * A partner with a lower index that found this individual itself is left out, so a collision is reported only once
+     * Only reads the population, safe to call from multiple threads with separate lists
      *
-     * @param individuals Current individual list of the society
-     * @return List of collisions, each collision is an array of individuals with the size of 2
+     * @param population Current population of the society
+     * @param index      Index of the individual
+     * @param candidates Scratch list for neighbour indexes
+     * @param collisions List to append the collisions of the individual, the individual is the first of each pair
      */
-    public static ArrayList<Individual[]> getListOfCollisions(ArrayList<Individual> individuals) {
-        ArrayList<Individual[]> result = new ArrayList<>();
-        for (Individual person : individuals) {
-            if (!person.isInInteraction()) {
-                for (Individual other : individuals) {
-                    if (!other.isInInteraction()) {
-                        if (areGivenIndividualsInSocialDistance(person, other) && person.getID() != other.getID()) {
-                            //System.out.println("DEBUG::getListOfCollisions()::[" + person.getID() + "," + other.getID() + "]");
-                            result.add(new Individual[]{person, other});
-                        }
-                    }
+    public static void findCollisionPartners(Population population, int index, IntList candidates, PairList collisions) {
+        if (population.isInInteraction(index))
+            return;
+        SpatialGrid grid = population.getCollisionGrid();
+        // Gather neighbours, sorted to keep the order of the population
+        candidates.clear();
+        int column = grid.columnOf(population.getCoordinateX(index));
+        int row = grid.rowOf(population.getCoordinateY(index));
+        for (int r = Math.max(row - 1, 0); r <= Math.min(row + 1, grid.getRows() - 1); r++) {
+            for (int c = Math.max(column - 1, 0); c <= Math.min(column + 1, grid.getColumns() - 1); c++) {
+                for (int j = grid.first(grid.cellAt(c, r)); j >= 0; j = grid.next(j))
+                    candidates.add(j);
+            }
+        }
+        candidates.sortFrom(0);
+        for (int k = 0; k < candidates.size(); k++) {
+            int j = candidates.get(k);
+            if (!population.isInInteraction(j)) {
+                if (areGivenIndividualsInSocialDistance(population, index, j) && population.getID(index) != population.getID(j)
+                        && !(j < index && areGivenIndividualsInSocialDistance(population, j, index))) {
+                    //System.out.println("DEBUG::getListOfCollisions()::[" + population.getID(index) + "," + population.getID(j) + "]");
+                    collisions.add(index, j);
                 }
             }
         }
-        return result;
+    }
+
+    /**
+     * Handles every collision of the list in order
+     *
+     * @param population  Current population of the society
+     * @param collisions  Indexes of the colliding individuals
+     * @param disease     Simulation disease
+     * @param transitions Scheduled transitions of the society
+     * @param iteration   Iteration of the simulation when method called
+     * @param random      Simulation random
+     */
+    public static void handleCollisions(Population population, PairList collisions, Disease disease, Transitions transitions, int iteration, CounterRandom random) {
+        for (int k = 0; k < collisions.size(); k++)
+            handleCollision(population, collisions.getFirst(k), collisions.getSecond(k), disease, transitions, iteration, random);
     }
 
     /**
      * Handles collision mechanism for the given individuals with given disease parameters
      *
-     * @param left      One of the individuals in collision
-     * @param right     Other individual in collision
-     * @param disease   Simulation disease
-     * @param iteration Iteration of the simulation when method called
+     * @param left        One of the individuals in collision
+     * @param right       Other individual in collision
+     * @param disease     Simulation disease
+     * @param transitions Scheduled transitions of the society
+     * @param iteration   Iteration of the simulation when method called
+     * @param random      Simulation random
+     */
+    public static void handleCollision(Individual left, Individual right, Disease disease, Transitions transitions, int iteration, CounterRandom random) {
+        handleCollision(left.getPopulation(), left.getIndex(), right.getIndex(), disease, transitions, iteration, random);
+    }
+
+    /**
+     * Handles collision mechanism for the individuals at the given indexes with given disease parameters
+     * Only writes the two given individuals, collisions of different individuals can be handled in parallel
+     *
+     * @param population  Current population of the society
+     * @param left        Index of one of the individuals in collision
+     * @param right       Index of other individual in collision
+     * @param disease     Simulation disease
+     * @param transitions Scheduled transitions of the society
+     * @param iteration   Iteration of the simulation when method called
+     * @param random      Simulation random
      */
-    public static void handleCollision(Individual left, Individual right, Disease disease, int iteration) {
-        if (!left.isInInteraction() && !right.isInInteraction()) {
-            int stayTogetherTime = Math.max(left.getInteractionTime(), right.getInteractionTime());
-            left.setInInteraction(true);
-            left.setInteractedUntil(stayTogetherTime + iteration);
-            right.setInInteraction(true);
-            right.setInteractedUntil(stayTogetherTime + iteration);
-            if ((left.isInfected() && !right.isInfected()) || (!left.isInfected() && right.isInfected())) {
-                Individual infected = right, healthy = left;
-                if (left.isInfected()) {
+    public static void handleCollision(Population population, int left, int right, Disease disease, Transitions transitions, int iteration, CounterRandom random) {
+        if (!population.isInInteraction(left) && !population.isInInteraction(right)) {
+            int stayTogetherTime = Math.max(population.getInteractionTime(left), population.getInteractionTime(right));
+            population.setInInteraction(left, true);
+            population.setInteractedUntil(left, stayTogetherTime + iteration);
+            population.setInInteraction(right, true);
+            population.setInteractedUntil(right, stayTogetherTime + iteration);
+            transitions.interacted(left, stayTogetherTime + iteration);
+            transitions.interacted(right, stayTogetherTime + iteration);
+            if (population.isInfected(left) != population.isInfected(right)) {
+                int infected = right, healthy = left;
+                if (population.isInfected(left)) {
                     infected = left;
                     healthy = right;
                 }
-                int socialDistance = Math.min(left.getSocialDistance(), right.getSocialDistance());
-                double infectionProbability = Math.min((disease.getSpreadingFactor() * (1.0 + (stayTogetherTime / 10.0)) * infected.getMaskFactor() * healthy.getMaskFactor() * (1.0 - (socialDistance / 10.0))), 1);
-                double randomChance = (RANDOM.nextInt(10) + 1) / 10.0;
-                //System.out.println("DEBUG::collision()::infectionProbability from " + infected.getID() + " to " + healthy.getID() + ": " + infectionProbability + ", randomChance:" + randomChance);
-                if (infectionProbability >= randomChance) {
-                    healthy.setInfected(true);
-                    healthy.setInfectedAt(iteration);
+                int socialDistance = Math.min(population.getSocialDistance(left), population.getSocialDistance(right));
+                double infectionProbability = Math.min((disease.getSpreadingFactor() * (1.0 + (stayTogetherTime / 10.0)) * population.getMaskFactor(infected) * population.getMaskFactor(healthy) * (1.0 - (socialDistance / 10.0))), 1);
+                double randomChance = (random.nextInt(iteration, population.getID(healthy), RandomStream.INFECTION, 10) + 1) / 10.0;
+                //System.out.println("DEBUG::collision()::infectionProbability from " + population.getID(infected) + " to " + population.getID(healthy) + ": " + infectionProbability + ", randomChance:" + randomChance);
+                // Patients are cured by the hospital in the same iteration, they do not get infected
+                if (infectionProbability >= randomChance && !population.isHospitalized(healthy)) {
+                    population.setInfected(healthy, true);
+                    population.setInfectedAt(healthy, iteration);
+                    transitions.infected(healthy, iteration);
                 }
             }
         }
@@ -215,18 +369,23 @@ public class Mediator {
     }
 
     /**
-     * Check infection time of all individuals in the society
+     * Check infection time of the individuals whose death is due at the given iteration
      *
-     * @param individuals Current individual list of the society
-     * @param disease     Simulation disease
+     * @param population  Current population of the society
+     * @param transitions Scheduled transitions of the society
      * @param iteration   Iteration of the simulation when method called
+     * @return Number of individuals checked
      */
-    public static void checkInfectionTimeForAll(ArrayList<Individual> individuals, Disease disease, int iteration) {
-        for (Individual person : individuals) {
-            if (person.isInfected()) {
-                checkInfectionTime(person, disease, iteration);
+    public static int checkInfectionTimeForAll(Population population, Transitions transitions, int iteration) {
+        int infectionMortalityTime = transitions.getMortalityTime();
+        IntList expired = transitions.expireDeaths(iteration);
+        for (int k = 0; k < expired.size(); k++) {
+            int i = expired.get(k);
+            if (population.isInfected(i) && iteration > infectionMortalityTime + population.getInfectedAt(i)) {
+                population.setAlive(i, false);
             }
         }
+        return expired.size();
     }
 
     /**
@@ -237,12 +396,12 @@ public class Mediator {
      * @param iteration  Iteration of the simulation when method called
      */
     public static void hospitalizeIndividual(Individual individual, Hospital hospital, int iteration) {
-        System.out.println("\tDEBUG::iteration:" + iteration + ", hospitalizeIndividual()::called.");
-        System.out.println("\tDEBUG::iteration:" + iteration + ", hospitalizeIndividual()::" + individual.toString());
+        Log.debug(() -> "iteration:" + iteration + ", hospitalizeIndividual()::called.");
+        Log.debug(() -> "iteration:" + iteration + ", hospitalizeIndividual()::" + individual.toString());
         individual.setHospitalized(true);
         individual.setHospitalizedAt(iteration);
         hospital.attach(individual);
-        System.out.println("\tDEBUG::iteration:" + iteration + ", hospitalize()::finished.");
+        Log.debug(() -> "iteration:" + iteration + ", hospitalize()::finished.");
 
     }
 
@@ -254,12 +413,12 @@ public class Mediator {
      * @param iteration  Iteration of the simulation when method called
      */
     public static void dischargeIndividual(Individual individual, Hospital hospital, int iteration) {
-        System.out.println("\tDEBUG::iteration:" + iteration + ", discharge()::called.");
-        System.out.println("\tDEBUG::iteration:" + iteration + ", discharge()::" + individual.toString());
+        Log.debug(() -> "iteration:" + iteration + ", discharge()::called.");
+        Log.debug(() -> "iteration:" + iteration + ", discharge()::" + individual.toString());
         individual.setHospitalized(false);
         individual.setHospitalizedAt(0);
         hospital.remove(individual);
-        System.out.println("\tDEBUG::iteration:" + iteration + ", discharge()::finished.");
+        Log.debug(() -> "iteration:" + iteration + ", discharge()::finished.");
     }
 
     /**
@@ -275,17 +434,43 @@ public class Mediator {
     }
 
     /**
-     * Check infection time of every individual in the given list
+     * Put the individuals whose admission is due to the waiting list, then hospitalize waiting individuals
+     * in index order while there are free ventilators
      *
-     * @param individuals Current individual list of the society
+     * @param population  Current population of the society
+     * @param transitions Scheduled transitions of the society
      * @param hospital    Simulation hospital
      * @param iteration   Iteration of the simulation when method called
+     * @return Number of individuals checked, due ones and waiting ones
      */
-    public static void checkHospitalTimeForAll(ArrayList<Individual> individuals, Hospital hospital, int iteration) {
-        for (Individual person : individuals) {
-            if (person.isAlive() && person.isInfected() && hospital.isThereAnyFreeVentilator()) {
-                checkHospitalTime(person, hospital, iteration);
-            }
+    public static int checkHospitalTimeForAll(Population population, Transitions transitions, Hospital hospital, int iteration) {
+        IntList expired = transitions.expireAdmissions(iteration);
+        BitSet waitingList = transitions.getWaitingList();
+        for (int k = 0; k < expired.size(); k++) {
+            int i = expired.get(k);
+            if (isWaitingForHospital(population, i, iteration))
+                waitingList.set(i);
+        }
+        int checked = expired.size();
+        for (int i = waitingList.nextSetBit(0); i >= 0 && hospital.isThereAnyFreeVentilator(); i = waitingList.nextSetBit(i + 1)) {
+            waitingList.clear(i);
+            checked++;
+            if (isWaitingForHospital(population, i, iteration))
+                population.get(i).hospitalize(hospital, iteration);
         }
+        return checked;
+    }
+
+    /**
+     * Is the individual at the given index infected long enough to be hospitalized
+     *
+     * @param population Current population of the society
+     * @param index      Index of the individual
+     * @param iteration  Iteration of the simulation when method called
+     * @return True if the individual needs a ventilator
+     */
+    public static boolean isWaitingForHospital(Population population, int index, int iteration) {
+        return population.isAlive(index) && population.isInfected(index) && !population.isHospitalized(index)
+                && iteration > population.getInfectedAt(index) + Common.TO_HOSPITAL_SEC;
     }
 }
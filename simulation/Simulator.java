@@ -1,19 +1,31 @@
 package simulation;
 
+import simulation.checkpoint.Snapshot;
 import simulation.disease.Disease;
 import simulation.fsm.*;
 import simulation.hospital.Hospital;
 import simulation.individual.Factory;
-import simulation.individual.Individual;
 import simulation.individual.IndividualFactory;
+import simulation.individual.Population;
 import simulation.individual.RandomIndividualBuilder;
+import simulation.log.Log;
+import simulation.metrics.TickMetrics;
+import simulation.random.CounterRandom;
+import simulation.schedule.Transitions;
 
-import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Predicate;
 
 /**
  * Main class for simulation, handles all the work in the back-end side, offers an API for GUI
  */
 public class Simulator {
+    /**
+     * Run the phases of an iteration with PipelinedProcessState, -Dsimulation.pipeline=true
+     */
+    private static final boolean PIPELINED = Boolean.getBoolean("simulation.pipeline");
     /**
      * Disease
      */
@@ -25,93 +37,221 @@ public class Simulator {
     /**
      * Iteration of the simulation when method called.
      */
-    private int iteration;
+    private volatile int iteration;
+    /**
+     * Scheduler that runs ProcessState ticks on its own thread
+     */
+    private final TickScheduler scheduler;
     /**
-     * Thread for ProcessState, to run infinite Game Loop inside
+     * State that is executed on each tick, TiledProcessState if the world is larger than a tile on any thread count,
+     * otherwise ParallelProcessState if more than one thread is used, wrapped in a PipelinedProcessState if the phases are pipelined
      */
-    private Thread simulationThread;
+    private final SimulationState processState;
     /**
      * Current State of the simulation
      */
-    private SimulationState state;
+    private volatile SimulationState state;
     /**
      * Population
      */
     private int population;
     /**
-     * Individual list of the society
+     * Individuals of the society
+     */
+    private final Population individuals;
+    /**
+     * Scheduled time-based transitions of the individuals
+     */
+    private final Transitions transitions;
+    /**
+     * Source of every random decision of the simulation, a run is reproduced with the same seed
      */
-    private ArrayList<Individual> individuals;
+    private final CounterRandom random;
+    /**
+     * Statistics published at the end of the last iteration
+     */
+    private volatile Statistics statistics;
+    /**
+     * Listeners called after each iteration
+     */
+    private final List<TickListener> tickListeners;
+    /**
+     * Cost of each phase of the iterations, recorded by the process state
+     */
+    private final TickMetrics tickMetrics;
 
     // Constructors
     public Simulator(int population, double spreadingFactor, double mortalityRate) {
-        this.population = population;
-        this.simulationThread = null;
-        this.disease = new Disease(spreadingFactor, mortalityRate);
-        this.hospital = new Hospital(population);
-        this.individuals = new ArrayList<>();
+        this(population, spreadingFactor, mortalityRate, 1);
+    }
+
+    public Simulator(int population, double spreadingFactor, double mortalityRate, int parallelism) {
+        this(population, spreadingFactor, mortalityRate, parallelism, ThreadLocalRandom.current().nextLong());
+    }
+
+    public Simulator(int population, double spreadingFactor, double mortalityRate, int parallelism, long seed) {
+        this(population, spreadingFactor, mortalityRate, parallelism, seed, Common.CANVAS_X, Common.CANVAS_Y);
+    }
+
+    /**
+     * Build a simulator with a world of the given size, the world is independent of the size of any canvas that shows it
+     *
+     * @param population      Number of individuals
+     * @param spreadingFactor Spreading factor of the disease
+     * @param mortalityRate   Mortality rate of the disease
+     * @param parallelism     Number of threads of the simulation
+     * @param seed            Seed of the simulation random
+     * @param worldWidth      World length on X axis, at most Common.MAX_WORLD_XY
+     * @param worldHeight     World length on Y axis, at most Common.MAX_WORLD_XY
+     */
+    public Simulator(int population, double spreadingFactor, double mortalityRate, int parallelism, long seed, int worldWidth, int worldHeight) {
+        this(population, new Disease(spreadingFactor, mortalityRate), parallelism, seed, worldWidth, worldHeight);
         this.state = new InitializationState();
         this.state.execute(this, 0);
+        publishStatistics();
     }
 
     /**
-     * Run process state of the simulation in a new thread
+     * Build an empty simulator, the society is filled by the caller
+     */
+    private Simulator(int population, Disease disease, int parallelism, long seed, int worldWidth, int worldHeight) {
+        Log.info(() -> "Simulator::Simulator()::seed:" + seed);
+        this.random = new CounterRandom(seed);
+        this.population = population;
+        IterationEngine engine;
+        if (TiledProcessState.isTiled(worldWidth, worldHeight))
+            engine = new TiledProcessState(Math.max(1, parallelism), worldWidth, worldHeight);
+        else if (parallelism <= 1)
+            engine = new ProcessState();
+        else
+            engine = new ParallelProcessState(parallelism);
+        this.processState = PIPELINED ? new PipelinedProcessState(engine, Math.max(2, parallelism)) : engine;
+        this.scheduler = new TickScheduler(this::simulationTick, Common.TICK_PERIOD_MILLIS * 1000000L);
+        this.disease = disease;
+        this.hospital = new Hospital(population);
+        this.individuals = new Population(worldWidth, worldHeight);
+        this.transitions = new Transitions(disease);
+        this.tickListeners = new CopyOnWriteArrayList<>();
+        this.tickMetrics = new TickMetrics();
+        this.state = new PauseState();
+    }
+
+    /**
+     * Build a paused simulator with an empty society, the individuals are added to its population by the caller
+     * Used for a region of a larger world, the hospital is sized by the given population
+     *
+     * @param population      Number of individuals that the simulator is responsible for
+     * @param spreadingFactor Spreading factor of the disease
+     * @param mortalityRate   Mortality rate of the disease
+     * @param parallelism     Number of threads of the simulation
+     * @param seed            Seed of the simulation random
+     * @param worldWidth      World length on X axis
+     * @param worldHeight     World length on Y axis
+     * @return Empty simulator
+     */
+    public static Simulator empty(int population, double spreadingFactor, double mortalityRate, int parallelism, long seed, int worldWidth, int worldHeight) {
+        return new Simulator(population, new Disease(spreadingFactor, mortalityRate), parallelism, seed, worldWidth, worldHeight);
+    }
+
+    /**
+     * Restore a simulator from a checkpoint snapshot, the simulation is paused at the iteration of the snapshot
+     * Scheduled transitions are rebuilt from the restored society, the run continues as if it was never interrupted
+     *
+     * @param snapshot    Snapshot of the simulation
+     * @param parallelism Number of threads of the restored simulation
+     * @return Restored simulator
+     */
+    public static Simulator restore(Snapshot snapshot, int parallelism) {
+        Simulator simulator = new Simulator(snapshot.getPopulation(), new Disease(snapshot.getSpreadingFactor(), snapshot.getMortalityRate()),
+                parallelism, snapshot.getSeed(), snapshot.getWorldWidth(), snapshot.getWorldHeight());
+        snapshot.restore(simulator.individuals, simulator.hospital);
+        simulator.transitions.added(simulator.individuals, 0);
+        simulator.iteration = snapshot.getIteration();
+        simulator.publishStatistics();
+        return simulator;
+    }
+
+    /**
+     * Run process state of the simulation on the scheduler thread, resumes the simulation if it is paused
      */
     public void run() {
-        System.out.println("iteration:" + iteration + ", Simulator::run() called.");
-        this.setState(new ProcessState());
-        simulationThread = new Thread(this::simulationProcessLoop);
-        simulationThread.start();
-        System.out.println("iteration:" + iteration + ", Simulator::run() finished.");
+        Log.debug(() -> "iteration:" + iteration + ", Simulator::run() called.");
+        this.setState(processState);
+        scheduler.start();
+        Log.debug(() -> "iteration:" + iteration + ", Simulator::run() finished.");
+    }
+
+    /**
+     * Run given number of iterations right away while the scheduler is not producing ticks, returns when they are finished
+     *
+     * @param count Number of iterations
+     */
+    public void step(int count) {
+        Log.debug(() -> "iteration:" + iteration + ", Simulator::step() called.");
+        if (!scheduler.isRunning()) {
+            scheduler.step(count);
+            scheduler.execute(this::awaitIterations);
+        }
+        Log.debug(() -> "iteration:" + iteration + ", Simulator::step() finished.");
     }
 
     /**
      * Pause simulation by updating state
      */
     public void pause() {
-        System.out.println("iteration:" + iteration + ", Simulator::pause() called.");
+        Log.debug(() -> "iteration:" + iteration + ", Simulator::pause() called.");
         this.setState(new PauseState());
         this.state.execute(this, iteration);
-        iteration++;
-        System.out.println("iteration:" + iteration + ", Simulator::pause() finished.");
+        Log.debug(() -> "iteration:" + iteration + ", Simulator::pause() finished.");
     }
 
     /**
      * End simulation by updating state
      */
     public void end() {
-        System.out.println("iteration:" + iteration + ", Simulator::end() called.");
+        Log.debug(() -> "iteration:" + iteration + ", Simulator::end() called.");
         this.setState(new EndState());
         this.state.execute(this, iteration);
-        iteration++;
-        System.out.println("iteration:" + iteration + ", Simulator::end() finished.");
+        Log.debug(() -> "iteration:" + iteration + ", Simulator::end() finished.");
     }
 
     /**
-     * ProcessState infinite loop, each step updates simulation for 1 iteration
+     * Single tick of the scheduler, updates simulation for 1 iteration
+     * A pipelined iteration is left running, the next tick starts while it is finished
      */
-    protected void simulationProcessLoop() {
-        System.out.println("iteration:" + iteration + ", Simulator::simulationProcessLoop() called.");
-        final long[] lastCallTime = {System.nanoTime()};
-        while (isSimulationRunning()) {
-            double elapsedTime = (System.nanoTime() - lastCallTime[0]) / 1000000000.0;
-            if (elapsedTime > 1.0) {
-                this.state.execute(this, iteration);
-                iteration++;
-                System.out.println("DEBUG::simulationProcessLoop()::iteration_" + iteration + ", took " + (((System.nanoTime() - lastCallTime[0]) / 1000000000.0) - 1.0) + " seconds");
-                lastCallTime[0] = System.nanoTime();
-            }
-        }
-        System.out.println("iteration:" + iteration + ", Simulator::simulationProcessLoop() finished.");
+    protected void simulationTick() {
+        long startTime = System.nanoTime();
+        executeIteration();
+        Log.debug(() -> "simulationTick()::iteration_" + iteration + ", took " + ((System.nanoTime() - startTime) / 1000000000.0) + " seconds");
+    }
+
+    /**
+     * Run process state of the simulation in the calling thread for the given number of iterations,
+     * iterations are executed back-to-back without waiting, no UI is needed
+     * A pipelined process state overlaps the end of an iteration with the start of the next one
+     *
+     * @param iterations Number of iterations to run
+     * @return Summary of the run with ticks per second and the final counts
+     */
+    public BatchResult runBatch(int iterations) {
+        Log.debug(() -> "iteration:" + iteration + ", Simulator::runBatch() called.");
+        this.setState(processState);
+        long startTime = System.nanoTime();
+        for (int i = 0; i < iterations; i++)
+            executeIteration();
+        awaitIterations();
+        long elapsedTime = System.nanoTime() - startTime;
+        Log.debug(() -> "iteration:" + iteration + ", Simulator::runBatch() finished.");
+        return new BatchResult(iterations, elapsedTime, getTotalCount(), getHealthyCount(), getInfectedCount(), getHospitalizedCount(), getCasualtyCount());
     }
 
     /**
      * Check simulation state, is it on one of the running states
      *
-     * @return true if current state is InitializationState or ProcessState
+     * @return true if current state is InitializationState or the process state of the simulator
      */
     public boolean isSimulationRunning() {
-        return this.state.getClass().equals(InitializationState.class) || this.state.getClass().equals(ProcessState.class);
+        return this.state instanceof InitializationState || this.state == processState;
     }
 
     /**
@@ -120,22 +260,117 @@ public class Simulator {
      * @param count Number of individuals to add
      */
     public void addBulkIndividuals(int count) {
-        System.out.println("iteration:" + iteration + ", Simulator::addBulkIndividuals() started.");
-        Factory factory = new IndividualFactory(new RandomIndividualBuilder());
-        this.individuals.addAll(factory.getIndividualInstances(getIteration(), getPopulation(), count));
+        Log.debug(() -> "iteration:" + iteration + ", Simulator::addBulkIndividuals() started.");
+        awaitIterations();
+        Factory factory = new IndividualFactory(new RandomIndividualBuilder(random, individuals.getWidth(), individuals.getHeight()));
+        int from = individuals.size();
+        factory.addIndividualInstances(this.individuals, getIteration(), getPopulation(), count);
+        transitions.added(individuals, from);
         this.population += count;
-        System.out.println("iteration:" + iteration + ", Simulator::addBulkIndividuals() finished.");
+        publishStatistics();
+        Log.debug(() -> "iteration:" + iteration + ", Simulator::addBulkIndividuals() finished.");
     }
 
     /**
      * Add an individual to the society with random parameters
      */
     public void addIndividual() {
-        System.out.println("iteration:" + iteration + ", Simulator::addIndividual() started.");
-        Factory factory = new IndividualFactory(new RandomIndividualBuilder());
-        this.individuals.add(factory.getIndividualInstance(getIteration(), getPopulation()));
+        Log.debug(() -> "iteration:" + iteration + ", Simulator::addIndividual() started.");
+        awaitIterations();
+        Factory factory = new IndividualFactory(new RandomIndividualBuilder(random, individuals.getWidth(), individuals.getHeight()));
+        int from = individuals.size();
+        factory.addIndividualInstance(this.individuals, getIteration(), getPopulation());
+        transitions.added(individuals, from);
         this.population++;
-        System.out.println("iteration:" + iteration + ", Simulator::addIndividual() finished.");
+        publishStatistics();
+        Log.debug(() -> "iteration:" + iteration + ", Simulator::addIndividual() finished.");
+    }
+
+    /**
+     * Run the process state for the current iteration, a pipelined state returns before the iteration is finished
+     * and completes it itself
+     */
+    private void executeIteration() {
+        if (processState instanceof PipelinedProcessState) {
+            ((PipelinedProcessState) processState).submit(this);
+            return;
+        }
+        long startTime = System.nanoTime();
+        processState.execute(this, iteration);
+        tickMetrics.recordTick(startTime, individuals.size());
+        iteration++;
+        publishStatistics();
+        notifyTickListeners();
+    }
+
+    /**
+     * Wait until every iteration started by executeIteration() is finished, the society may be changed afterwards
+     */
+    public void awaitIterations() {
+        if (processState instanceof PipelinedProcessState)
+            ((PipelinedProcessState) processState).await();
+    }
+
+    /**
+     * Finish an iteration that the process state ran itself, advances the iteration and publishes its statistics
+     * Used by process states that complete iterations out of the calling thread
+     *
+     * @param iteration Finished iteration
+     */
+    public void completeIteration(int iteration) {
+        this.iteration = iteration + 1;
+        publishStatistics();
+    }
+
+    /**
+     * Publish statistics of the current iteration, readers get a consistent snapshot without scanning the population
+     */
+    private void publishStatistics() {
+        statistics = Statistics.of(iteration, getTotalCount(), individuals.size(), individuals.getCounters());
+    }
+
+    private void notifyTickListeners() {
+        for (TickListener listener : tickListeners)
+            listener.onTick(this, statistics);
+    }
+
+    /**
+     * Call the listeners that match the filter, used by process states that call the listeners in groups
+     *
+     * @param filter Listeners to call
+     */
+    public void notifyTickListeners(Predicate<TickListener> filter) {
+        for (TickListener listener : tickListeners) {
+            if (filter.test(listener))
+                listener.onTick(this, statistics);
+        }
+    }
+
+    /**
+     * Is there a listener that matches the filter
+     *
+     * @param filter Listeners to look for
+     * @return True if such a listener is added
+     */
+    public boolean hasTickListeners(Predicate<TickListener> filter) {
+        for (TickListener listener : tickListeners) {
+            if (filter.test(listener))
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * Add a listener that is called after each iteration, on the thread that executes the iterations or on a phase thread if pipelined
+     *
+     * @param listener Listener to add
+     */
+    public void addTickListener(TickListener listener) {
+        tickListeners.add(listener);
+    }
+
+    public void removeTickListener(TickListener listener) {
+        tickListeners.remove(listener);
     }
 
     // Getters and Setters
@@ -143,8 +378,24 @@ public class Simulator {
         return iteration;
     }
 
-    public Thread getSimulationThread() {
-        return simulationThread;
+    public SimulationState getProcessState() {
+        return processState;
+    }
+
+    public TickMetrics getTickMetrics() {
+        return tickMetrics;
+    }
+
+    public TickScheduler getScheduler() {
+        return scheduler;
+    }
+
+    public double getSpeedMultiplier() {
+        return scheduler.getSpeedMultiplier();
+    }
+
+    public void setSpeedMultiplier(double speedMultiplier) {
+        scheduler.setSpeedMultiplier(speedMultiplier);
     }
 
     public int getPopulation() {
@@ -159,12 +410,20 @@ public class Simulator {
         return hospital;
     }
 
-    public ArrayList<Individual> getIndividuals() {
+    public Population getIndividuals() {
         return individuals;
     }
 
-    public void setIndividuals(ArrayList<Individual> individuals) {
-        this.individuals = individuals;
+    public Transitions getTransitions() {
+        return transitions;
+    }
+
+    public CounterRandom getRandom() {
+        return random;
+    }
+
+    public long getSeed() {
+        return random.getSeed();
     }
 
     public SimulationState getState() {
@@ -179,75 +438,39 @@ public class Simulator {
         return population;
     }
 
+    public Statistics getStatistics() {
+        return statistics;
+    }
+
     public double getHealthyCount() {
-        double count = 0;
-        for (Individual person : individuals) {
-            if (person.isAlive() && !person.isInfected() && !person.isHospitalized())
-                count++;
-        }
-        return count;
+        return individuals.getCounters().getHealthyCount();
     }
 
     public double getInfectedCount() {
-        double count = 0;
-        for (Individual person : individuals) {
-            if (person.isAlive() && person.isInfected() && !person.isHospitalized())
-                count++;
-        }
-        return count;
+        return individuals.getCounters().getInfectedCount();
     }
 
     public double getHospitalizedCount() {
-        double count = 0.0;
-        for (Individual person : individuals) {
-            if (person.isAlive() && person.isHospitalized())
-                count++;
-        }
-        return count;
+        return individuals.getCounters().getHospitalizedCount();
     }
 
     public double getCasualtyCount() {
-        double count = 0.0;
-        for (Individual person : individuals) {
-            if (!person.isAlive())
-                count++;
-        }
-        return count;
+        return individuals.getCounters().getCasualtyCount();
     }
 
     public double getAverageSocialDistance() {
-        int average = 0;
-        for (Individual person : individuals) {
-            average += person.getSocialDistance();
-        }
-        return (double) average / individuals.size();
+        return (double) individuals.getCounters().getSocialDistanceSum() / individuals.size();
     }
 
     public double getMaskUsagePercentage() {
-        int count = 0;
-        for (Individual person : individuals) {
-            if (person.isMasked())
-                count++;
-        }
-        return (double) count / individuals.size() * 100;
+        return (double) individuals.getCounters().getMaskedCount() / individuals.size() * 100;
     }
 
     public double getCurrentAverageSocialDistance() {
-        int average = 0;
-        for (Individual person : individuals) {
-            if (person.isAlive())
-                average += person.getSocialDistance();
-        }
-        return (double) average / (getHealthyCount() + getInfectedCount());
+        return (double) individuals.getCounters().getAliveSocialDistanceSum() / (getHealthyCount() + getInfectedCount());
     }
 
     public double getCurrentMaskUsagePercentage() {
-        int count = 0;
-        for (Individual person : individuals) {
-            if (person.isAlive())
-                if (person.isMasked())
-                    count++;
-        }
-        return (double) count / (getHealthyCount() + getInfectedCount()) * 100;
+        return (double) individuals.getCounters().getAliveMaskedCount() / (getHealthyCount() + getInfectedCount()) * 100;
     }
 }
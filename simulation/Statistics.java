@@ -0,0 +1,118 @@
+package simulation;
+
+import simulation.individual.PopulationCounters;
+
+/**
+ * Immutable statistics of the society at the end of an iteration
+ */
+public final class Statistics {
+    private final int iteration;
+    private final double totalCount;
+    private final double healthyCount;
+    private final double infectedCount;
+    private final double hospitalizedCount;
+    private final double casualtyCount;
+    private final double averageSocialDistance;
+    private final double maskUsagePercentage;
+    private final double currentAverageSocialDistance;
+    private final double currentMaskUsagePercentage;
+
+    // Constructors
+    public Statistics(int iteration, double totalCount, double healthyCount, double infectedCount, double hospitalizedCount, double casualtyCount,
+                      double averageSocialDistance, double maskUsagePercentage, double currentAverageSocialDistance, double currentMaskUsagePercentage) {
+        this.iteration = iteration;
+        this.totalCount = totalCount;
+        this.healthyCount = healthyCount;
+        this.infectedCount = infectedCount;
+        this.hospitalizedCount = hospitalizedCount;
+        this.casualtyCount = casualtyCount;
+        this.averageSocialDistance = averageSocialDistance;
+        this.maskUsagePercentage = maskUsagePercentage;
+        this.currentAverageSocialDistance = currentAverageSocialDistance;
+        this.currentMaskUsagePercentage = currentMaskUsagePercentage;
+    }
+
+    /**
+     * Build statistics from the running counters of a population
+     *
+     * @param iteration  Iteration of the simulation
+     * @param totalCount Total population of the society
+     * @param size       Number of individuals in the population store
+     * @param counters   Running counters of the population
+     * @return Statistics
+     */
+    public static Statistics of(int iteration, double totalCount, int size, PopulationCounters counters) {
+        double healthy = counters.getHealthyCount();
+        double infected = counters.getInfectedCount();
+        double current = healthy + infected;
+        return new Statistics(
+                iteration,
+                totalCount,
+                healthy,
+                infected,
+                counters.getHospitalizedCount(),
+                counters.getCasualtyCount(),
+                (double) counters.getSocialDistanceSum() / size,
+                (double) counters.getMaskedCount() / size * 100,
+                counters.getAliveSocialDistanceSum() / current,
+                counters.getAliveMaskedCount() / current * 100
+        );
+    }
+
+    // Getters
+    public int getIteration() {
+        return iteration;
+    }
+
+    public double getTotalCount() {
+        return totalCount;
+    }
+
+    public double getHealthyCount() {
+        return healthyCount;
+    }
+
+    public double getInfectedCount() {
+        return infectedCount;
+    }
+
+    public double getHospitalizedCount() {
+        return hospitalizedCount;
+    }
+
+    public double getCasualtyCount() {
+        return casualtyCount;
+    }
+
+    public double getAverageSocialDistance() {
+        return averageSocialDistance;
+    }
+
+    public double getMaskUsagePercentage() {
+        return maskUsagePercentage;
+    }
+
+    public double getCurrentAverageSocialDistance() {
+        return currentAverageSocialDistance;
+    }
+
+    public double getCurrentMaskUsagePercentage() {
+        return currentMaskUsagePercentage;
+    }
+
+    @Override
+    public String toString() {
+        return "Statistics{" +
+                "Iteration=" + iteration +
+                ", Total=" + (int) totalCount +
+                ", Healthy=" + (int) healthyCount +
+                ", Infected=" + (int) infectedCount +
+                ", Hospitalized=" + (int) hospitalizedCount +
+                ", Casualty=" + (int) casualtyCount +
+                ", AverageSocialDistance=" + averageSocialDistance +
+                ", MaskUsagePercentage=" + maskUsagePercentage +
+                ", CurrentAverageSocialDistance=" + currentAverageSocialDistance +
+                ", CurrentMaskUsagePercentage=" + currentMaskUsagePercentage +
+                '}';
+    }
+}
@@ -0,0 +1,30 @@
+package simulation;
+
+import simulation.phase.AgentState;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Listener of finished iterations, called on the thread that executes the iterations right after each one
+ * Listeners run inside the tick, expensive work should be handed to another thread
+ */
+public interface TickListener {
+    /**
+     * Called after an iteration is finished and its statistics are published
+     *
+     * @param simulator  Simulator that finished the iteration
+     * @param statistics Statistics published at the end of the iteration
+     */
+    void onTick(Simulator simulator, Statistics statistics);
+
+    /**
+     * Parts of the simulation state that the listener reads, a pipelined simulation runs the phases of the next iteration
+     * that do not write them while the listener runs
+     *
+     * @return Read parts, every part by default
+     */
+    default Set<AgentState> getReads() {
+        return EnumSet.allOf(AgentState.class);
+    }
+}
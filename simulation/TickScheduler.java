@@ -0,0 +1,256 @@
+package simulation;
+
+import simulation.log.Log;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runs simulation ticks on a dedicated thread with a fixed cadence
+ * Thread sleeps between ticks, supports pause, resume, single step and speed multiplier
+ */
+public class TickScheduler {
+    /**
+     * Single thread that executes every tick
+     */
+    private final ScheduledExecutorService executor;
+    /**
+     * Thread of the executor, calls from it must not wait for the executor
+     */
+    private volatile Thread thread;
+    /**
+     * Work of a single tick
+     */
+    private final Runnable tick;
+    /**
+     * Time between two ticks with speed multiplier 1.0, in nanoseconds
+     */
+    private volatile long periodNanos;
+    /**
+     * Speed multiplier, 2.0 runs ticks twice as often
+     */
+    private volatile double speedMultiplier;
+    /**
+     * Is the scheduler producing ticks right now
+     */
+    private boolean running;
+    /**
+     * Next scheduled tick, null if there is none
+     */
+    private ScheduledFuture<?> pending;
+    /**
+     * Deadline of the next tick, in System.nanoTime() units
+     */
+    private long nextDeadline;
+    private final AtomicLong tickCount;
+    private final AtomicLong overrunCount;
+    private volatile long lastTickNanos;
+
+    // Constructors
+    public TickScheduler(Runnable tick, long periodNanos) {
+        this.tick = tick;
+        this.periodNanos = periodNanos;
+        this.speedMultiplier = 1.0;
+        this.tickCount = new AtomicLong();
+        this.overrunCount = new AtomicLong();
+        this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "simulation");
+            thread.setDaemon(true);
+            this.thread = thread;
+            return thread;
+        });
+    }
+
+    /**
+     * Start producing ticks, first tick runs after one period
+     */
+    public synchronized void start() {
+        if (executor.isShutdown())
+            throw new IllegalStateException("TickScheduler::start()::scheduler is shut down");
+        if (running)
+            return;
+        running = true;
+        long period = getEffectivePeriodNanos();
+        nextDeadline = System.nanoTime() + period;
+        pending = executor.schedule(this::runTick, period, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Stop producing ticks, returns after the tick in progress is finished
+     * Called from the tick thread, e.g. by a tick listener, it returns right away and the current tick runs to its end
+     */
+    public void pause() {
+        cancel();
+        awaitIdle();
+    }
+
+    /**
+     * Stop producing ticks without waiting for the tick in progress
+     */
+    public synchronized void cancel() {
+        running = false;
+        if (pending != null) {
+            pending.cancel(false);
+            pending = null;
+        }
+    }
+
+    /**
+     * Run given number of ticks right away, only while paused
+     * Called from the tick thread, the ticks run on the calling thread
+     *
+     * @param count number of ticks
+     */
+    public void step(int count) {
+        synchronized (this) {
+            if (running || executor.isShutdown())
+                return;
+        }
+        if (isTickThread()) {
+            for (int i = 0; i < count; i++)
+                executeTick();
+            return;
+        }
+        try {
+            executor.submit(() -> {
+                for (int i = 0; i < count; i++)
+                    executeTick();
+            }).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            Log.error(() -> "TickScheduler::step()::tick failed", e.getCause());
+        }
+    }
+
+    /**
+     * Run the task on the tick thread between two ticks and wait for it, the task may change the society
+     * Runs the task on the calling thread when called from the tick thread or once the scheduler is shut down, no tick runs then
+     *
+     * @param task work to run
+     */
+    public void execute(Runnable task) {
+        if (isTickThread()) {
+            task.run();
+            return;
+        }
+        try {
+            executor.submit(task).get();
+        } catch (RejectedExecutionException e) {
+            task.run();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            Log.error(() -> "TickScheduler::execute()::task failed", e.getCause());
+        }
+    }
+
+    /**
+     * Stop producing ticks and terminate the thread
+     * Called from the tick thread, it does not wait for the termination, the thread ends after the current tick
+     */
+    public void shutdown() {
+        cancel();
+        executor.shutdown();
+        if (isTickThread())
+            return;
+        try {
+            executor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public synchronized boolean isRunning() {
+        return running;
+    }
+
+    public long getPeriodNanos() {
+        return periodNanos;
+    }
+
+    public void setPeriodNanos(long periodNanos) {
+        this.periodNanos = periodNanos;
+    }
+
+    public double getSpeedMultiplier() {
+        return speedMultiplier;
+    }
+
+    public void setSpeedMultiplier(double speedMultiplier) {
+        if (speedMultiplier <= 0.0)
+            throw new IllegalArgumentException("TickScheduler::setSpeedMultiplier()::speed multiplier must be positive: " + speedMultiplier);
+        this.speedMultiplier = speedMultiplier;
+    }
+
+    public long getTickCount() {
+        return tickCount.get();
+    }
+
+    /**
+     * Number of ticks that took longer than their period, the schedule is shifted after each one
+     *
+     * @return overrun count
+     */
+    public long getOverrunCount() {
+        return overrunCount.get();
+    }
+
+    public long getLastTickNanos() {
+        return lastTickNanos;
+    }
+
+    private boolean isTickThread() {
+        return Thread.currentThread() == thread;
+    }
+
+    private long getEffectivePeriodNanos() {
+        return Math.max(1L, (long) (periodNanos / speedMultiplier));
+    }
+
+    private void runTick() {
+        executeTick();
+        synchronized (this) {
+            if (!running)
+                return;
+            long now = System.nanoTime();
+            nextDeadline += getEffectivePeriodNanos();
+            if (now > nextDeadline) {
+                // Missed ticks are dropped instead of running in a burst
+                overrunCount.incrementAndGet();
+                Log.warn(() -> "TickScheduler::runTick()::tick overrun, took " + (lastTickNanos / 1000000000.0) + " seconds");
+                nextDeadline = now;
+            }
+            pending = executor.schedule(this::runTick, nextDeadline - now, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private void executeTick() {
+        long startTime = System.nanoTime();
+        try {
+            tick.run();
+        } catch (RuntimeException e) {
+            Log.error(() -> "TickScheduler::executeTick()::tick failed", e);
+        }
+        lastTickNanos = System.nanoTime() - startTime;
+        tickCount.incrementAndGet();
+    }
+
+    private void awaitIdle() {
+        if (executor.isShutdown() || isTickThread())
+            return;
+        try {
+            executor.submit(() -> {
+            }).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            Log.error(() -> "TickScheduler::awaitIdle()::task failed", e.getCause());
+        }
+    }
+}
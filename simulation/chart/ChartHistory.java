@@ -0,0 +1,144 @@
+package simulation.chart;
+
+import simulation.Simulator;
+import simulation.Statistics;
+import simulation.TickListener;
+import simulation.phase.AgentState;
+
+import java.lang.invoke.VarHandle;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Full-resolution history of the charted statistics in a fixed-size ring buffer of primitive columns
+ * Written by the simulation thread after each iteration, read by a single reader without locks
+ * The reader copies a window that the writer cannot reach during the copy, and retries if the writer got too far meanwhile
+ */
+public class ChartHistory implements TickListener {
+    /**
+     * Statistics of the chart, in the order of its series
+     */
+    public enum Metric {
+        CASUALTY, INFECTED, HEALTHY, HOSPITALIZED, CURRENT_AVERAGE_SOCIAL_DISTANCE, CURRENT_MASK_USAGE_PERCENTAGE
+    }
+
+    private static final Metric[] METRICS = Metric.values();
+
+    private final int capacity;
+    private final int mask;
+    /**
+     * Rows the writer may add while the reader copies, the oldest rows of a full buffer are left out of the copy
+     */
+    private final int slack;
+    private final int[] iterations;
+    private final double[][] values;
+    /**
+     * Number of rows written so far, published after the row
+     */
+    private volatile long written;
+    private int lastIteration;
+
+    // Constructors
+    public ChartHistory(int capacity) {
+        if (Integer.bitCount(capacity) != 1 || capacity < 16)
+            throw new IllegalArgumentException("ChartHistory::ChartHistory()::capacity must be a power of two of at least 16: " + capacity);
+        this.capacity = capacity;
+        this.mask = capacity - 1;
+        this.slack = capacity / 16;
+        this.iterations = new int[capacity];
+        this.values = new double[METRICS.length][capacity];
+        this.lastIteration = -1;
+    }
+
+    @Override
+    public void onTick(Simulator simulator, Statistics statistics) {
+        add(statistics);
+    }
+
+    @Override
+    public Set<AgentState> getReads() {
+        return EnumSet.of(AgentState.STATISTICS);
+    }
+
+    /**
+     * Add the statistics of an iteration, ignored if the iteration is already in the history
+     * Must be called from a single writer thread
+     *
+     * @param statistics Statistics of the iteration
+     */
+    public void add(Statistics statistics) {
+        if (statistics.getIteration() <= lastIteration)
+            return;
+        lastIteration = statistics.getIteration();
+        long row = written;
+        int slot = (int) (row & mask);
+        iterations[slot] = statistics.getIteration();
+        values[Metric.CASUALTY.ordinal()][slot] = statistics.getCasualtyCount();
+        values[Metric.INFECTED.ordinal()][slot] = statistics.getInfectedCount();
+        values[Metric.HEALTHY.ordinal()][slot] = statistics.getHealthyCount();
+        values[Metric.HOSPITALIZED.ordinal()][slot] = statistics.getHospitalizedCount();
+        values[Metric.CURRENT_AVERAGE_SOCIAL_DISTANCE.ordinal()][slot] = statistics.getCurrentAverageSocialDistance();
+        values[Metric.CURRENT_MASK_USAGE_PERCENTAGE.ordinal()][slot] = statistics.getCurrentMaskUsagePercentage();
+        written = row + 1;
+    }
+
+    /**
+     * Copy the history into a window in iteration order, must be called from a single reader thread
+     *
+     * @param window Window to fill, its arrays are reused
+     */
+    public void copyTo(Window window) {
+        window.allocate(capacity);
+        while (true) {
+            long end = written;
+            long start = Math.max(0, end - (capacity - slack));
+            int length = (int) (end - start);
+            for (int i = 0; i < length; i++) {
+                int slot = (int) ((start + i) & mask);
+                window.iterations[i] = iterations[slot];
+                for (int m = 0; m < METRICS.length; m++)
+                    window.values[m][i] = values[m][slot];
+            }
+            // The copied rows are intact if the writer did not wrap around into them during the copy
+            // The fence keeps the plain reads of the copy from moving after the volatile read below, as in StampedLock.validate()
+            VarHandle.acquireFence();
+            if (written - end < slack) {
+                window.length = length;
+                return;
+            }
+        }
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Copy of the history, owned by the reader
+     */
+    public static final class Window {
+        private int[] iterations = new int[0];
+        private double[][] values = new double[METRICS.length][0];
+        private int length;
+
+        private void allocate(int capacity) {
+            if (iterations.length < capacity) {
+                iterations = new int[capacity];
+                values = new double[METRICS.length][capacity];
+            }
+        }
+
+        // Getters
+        public int getLength() {
+            return length;
+        }
+
+        public int[] getIterations() {
+            return iterations;
+        }
+
+        public double[] getValues(Metric metric) {
+            return values[metric.ordinal()];
+        }
+    }
+}
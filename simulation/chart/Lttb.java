@@ -0,0 +1,64 @@
+package simulation.chart;
+
+/**
+ * Largest-Triangle-Three-Buckets downsampling, keeps the visual shape of a series with a given number of points
+ * The first and last points are kept, every bucket in between keeps the point forming the largest triangle
+ * with the point kept from the previous bucket and the average of the next bucket
+ */
+public final class Lttb {
+    private Lttb() {
+    }
+
+    /**
+     * Select the points of a series to draw
+     *
+     * @param x         x values of the series, increasing
+     * @param y         y values of the series
+     * @param length    Number of points of the series
+     * @param threshold Number of points to keep, at least 3, every point is kept if the series is not longer
+     * @param selected  Array to fill with the indexes of the kept points, at least threshold long
+     * @return Number of kept points
+     */
+    public static int downsample(int[] x, double[] y, int length, int threshold, int[] selected) {
+        if (threshold < 3)
+            throw new IllegalArgumentException("Lttb::downsample()::threshold must be at least 3: " + threshold);
+        if (threshold >= length) {
+            for (int i = 0; i < length; i++)
+                selected[i] = i;
+            return length;
+        }
+        double bucketSize = (double) (length - 2) / (threshold - 2);
+        int kept = 0;
+        selected[kept++] = 0;
+        int previous = 0;
+        for (int bucket = 0; bucket < threshold - 2; bucket++) {
+            int from = (int) (bucket * bucketSize) + 1;
+            int to = Math.min((int) ((bucket + 1) * bucketSize) + 1, length - 1);
+            // Average of the next bucket, the last point for the last bucket
+            int nextFrom = to;
+            int nextTo = Math.min((int) ((bucket + 2) * bucketSize) + 1, length);
+            double averageX = 0, averageY = 0;
+            for (int i = nextFrom; i < nextTo; i++) {
+                averageX += x[i];
+                averageY += y[i];
+            }
+            averageX /= nextTo - nextFrom;
+            averageY /= nextTo - nextFrom;
+
+            double previousX = x[previous], previousY = y[previous];
+            double largestArea = -1;
+            int largest = from;
+            for (int i = from; i < to; i++) {
+                double area = Math.abs((previousX - averageX) * (y[i] - previousY) - (previousX - x[i]) * (averageY - previousY));
+                if (area > largestArea) {
+                    largestArea = area;
+                    largest = i;
+                }
+            }
+            selected[kept++] = largest;
+            previous = largest;
+        }
+        selected[kept++] = length - 1;
+        return kept;
+    }
+}
@@ -0,0 +1,163 @@
+package simulation.checkpoint;
+
+import simulation.Common;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Versioned binary checkpoint file, written and read through memory-mapped regions of the file
+ * Layout, little-endian: a fixed header, then one column per field of the individuals, then the hospital patients
+ * Header: magic, version, seed, iteration, population, spreading factor, mortality rate, ventilator count, size, patient count,
+ * world width and world height, version 1 files have no world size and are read with the default world
+ */
+public final class CheckpointFile {
+    /**
+     * "ESCP", first bytes of every checkpoint file
+     */
+    public static final int MAGIC = 0x45534350;
+    public static final int VERSION = 2;
+    private static final int HEADER_BYTES = 64;
+
+    private CheckpointFile() {
+    }
+
+    /**
+     * Write a snapshot to the given path, the file is replaced only after it is completely written
+     *
+     * @param snapshot Snapshot to write
+     * @param path     Path of the checkpoint file
+     * @throws IOException if the file cannot be written
+     */
+    public static void write(Snapshot snapshot, Path path) throws IOException {
+        Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+        int size = snapshot.size;
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer header = map(channel, FileChannel.MapMode.READ_WRITE, 0, HEADER_BYTES);
+            header.putInt(MAGIC).putInt(VERSION).putLong(snapshot.seed).putInt(snapshot.iteration).putInt(snapshot.population)
+                    .putDouble(snapshot.spreadingFactor).putDouble(snapshot.mortalityRate).putInt(snapshot.ventilatorCount)
+                    .putInt(size).putInt(snapshot.patientCount).putInt(snapshot.worldWidth).putInt(snapshot.worldHeight);
+            header.force();
+            long position = HEADER_BYTES;
+            position = writeInts(channel, position, snapshot.id, size);
+            position = writeInts(channel, position, snapshot.coordinateX, size);
+            position = writeInts(channel, position, snapshot.coordinateY, size);
+            MappedByteBuffer speed = map(channel, FileChannel.MapMode.READ_WRITE, position, 2L * size);
+            speed.asShortBuffer().put(snapshot.speed, 0, size);
+            speed.force();
+            position += 2L * size;
+            position = writeBytes(channel, position, snapshot.direction, size);
+            position = writeBytes(channel, position, snapshot.socialDistance, size);
+            position = writeBytes(channel, position, snapshot.interactionTime, size);
+            position = writeBytes(channel, position, snapshot.flags, size);
+            position = writeInts(channel, position, snapshot.interactedUntil, size);
+            position = writeInts(channel, position, snapshot.infectedAt, size);
+            position = writeInts(channel, position, snapshot.hospitalizedAt, size);
+            writeInts(channel, position, snapshot.patients, snapshot.patientCount);
+        }
+        Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Read a checkpoint file
+     *
+     * @param path Path of the checkpoint file
+     * @return Snapshot stored in the file
+     * @throws IOException if the file cannot be read, or it is not a checkpoint of a supported version
+     */
+    public static Snapshot read(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_BYTES)
+                throw new IOException("CheckpointFile::read()::file is too short: " + path);
+            MappedByteBuffer header = map(channel, FileChannel.MapMode.READ_ONLY, 0, HEADER_BYTES);
+            if (header.getInt() != MAGIC)
+                throw new IOException("CheckpointFile::read()::not a checkpoint file: " + path);
+            int version = header.getInt();
+            if (version < 1 || version > VERSION)
+                throw new IOException("CheckpointFile::read()::unsupported version " + version + ": " + path);
+            Snapshot snapshot = new Snapshot();
+            snapshot.seed = header.getLong();
+            snapshot.iteration = header.getInt();
+            snapshot.population = header.getInt();
+            snapshot.spreadingFactor = header.getDouble();
+            snapshot.mortalityRate = header.getDouble();
+            snapshot.ventilatorCount = header.getInt();
+            int size = header.getInt();
+            int patientCount = header.getInt();
+            snapshot.worldWidth = version >= 2 ? header.getInt() : Common.CANVAS_X;
+            snapshot.worldHeight = version >= 2 ? header.getInt() : Common.CANVAS_Y;
+            if (size < 0 || patientCount < 0 || channel.size() != getFileSize(size, patientCount))
+                throw new IOException("CheckpointFile::read()::file size does not match its header: " + path);
+            snapshot.allocate(size, patientCount);
+            snapshot.size = size;
+            snapshot.patientCount = patientCount;
+            long position = HEADER_BYTES;
+            position = readInts(channel, position, snapshot.id, size);
+            position = readInts(channel, position, snapshot.coordinateX, size);
+            position = readInts(channel, position, snapshot.coordinateY, size);
+            map(channel, FileChannel.MapMode.READ_ONLY, position, 2L * size).asShortBuffer().get(snapshot.speed, 0, size);
+            position += 2L * size;
+            position = readBytes(channel, position, snapshot.direction, size);
+            position = readBytes(channel, position, snapshot.socialDistance, size);
+            position = readBytes(channel, position, snapshot.interactionTime, size);
+            position = readBytes(channel, position, snapshot.flags, size);
+            position = readInts(channel, position, snapshot.interactedUntil, size);
+            position = readInts(channel, position, snapshot.infectedAt, size);
+            position = readInts(channel, position, snapshot.hospitalizedAt, size);
+            readInts(channel, position, snapshot.patients, patientCount);
+            return snapshot;
+        }
+    }
+
+    /**
+     * Size of a checkpoint file in bytes
+     *
+     * @param size         Number of individuals
+     * @param patientCount Number of hospital patients
+     * @return File size
+     */
+    public static long getFileSize(int size, int patientCount) {
+        // 6 int columns, 1 short column and 4 byte columns
+        return HEADER_BYTES + 30L * size + 4L * patientCount;
+    }
+
+    private static long writeInts(FileChannel channel, long position, int[] values, int length) throws IOException {
+        MappedByteBuffer buffer = map(channel, FileChannel.MapMode.READ_WRITE, position, 4L * length);
+        buffer.asIntBuffer().put(values, 0, length);
+        buffer.force();
+        return position + 4L * length;
+    }
+
+    private static long writeBytes(FileChannel channel, long position, byte[] values, int length) throws IOException {
+        MappedByteBuffer buffer = map(channel, FileChannel.MapMode.READ_WRITE, position, length);
+        buffer.put(values, 0, length);
+        buffer.force();
+        return position + length;
+    }
+
+    private static long readInts(FileChannel channel, long position, int[] values, int length) throws IOException {
+        map(channel, FileChannel.MapMode.READ_ONLY, position, 4L * length).asIntBuffer().get(values, 0, length);
+        return position + 4L * length;
+    }
+
+    private static long readBytes(FileChannel channel, long position, byte[] values, int length) throws IOException {
+        map(channel, FileChannel.MapMode.READ_ONLY, position, length).get(values, 0, length);
+        return position + length;
+    }
+
+    /**
+     * Map a region of the file, a single column is at most 2 GB so every column fits in one region
+     */
+    private static MappedByteBuffer map(FileChannel channel, FileChannel.MapMode mode, long position, long length) throws IOException {
+        MappedByteBuffer buffer = channel.map(mode, position, length);
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        return buffer;
+    }
+}
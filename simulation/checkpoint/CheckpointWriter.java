@@ -0,0 +1,88 @@
+package simulation.checkpoint;
+
+import simulation.Simulator;
+import simulation.Statistics;
+import simulation.TickListener;
+import simulation.log.Log;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes a checkpoint every given number of iterations without stalling the tick
+ * The state is copied to a reused snapshot on the simulation thread, the file is written on a background thread
+ * A checkpoint is skipped if the previous one is still being written
+ */
+public class CheckpointWriter implements TickListener {
+    private final Path directory;
+    private final int interval;
+    private final ExecutorService writer;
+    /**
+     * Snapshot of the last checkpoint, reused once its file is written
+     */
+    private Snapshot snapshot;
+    private Future<?> pending;
+
+    // Constructors
+    public CheckpointWriter(Path directory, int interval) throws IOException {
+        if (interval <= 0)
+            throw new IllegalArgumentException("CheckpointWriter::CheckpointWriter()::interval must be positive: " + interval);
+        this.directory = Files.createDirectories(directory);
+        this.interval = interval;
+        this.writer = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "checkpoint");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public void onTick(Simulator simulator, Statistics statistics) {
+        int iteration = simulator.getIteration();
+        if (iteration % interval != 0)
+            return;
+        if (pending != null && !pending.isDone()) {
+            Log.warn(() -> "CheckpointWriter::onTick()::previous checkpoint is still being written, skipped iteration " + iteration);
+            return;
+        }
+        snapshot = Snapshot.capture(simulator, snapshot);
+        Snapshot captured = snapshot;
+        Path path = getPath(iteration);
+        pending = writer.submit(() -> {
+            long startTime = System.nanoTime();
+            try {
+                CheckpointFile.write(captured, path);
+                Log.info(() -> "CheckpointWriter::write()::" + path + ", took " + ((System.nanoTime() - startTime) / 1000000000.0) + " seconds");
+            } catch (IOException e) {
+                Log.error(() -> "CheckpointWriter::write()::cannot write " + path, e);
+            }
+        });
+    }
+
+    /**
+     * Path of the checkpoint of the given iteration
+     *
+     * @param iteration Iteration of the checkpoint
+     * @return Path in the checkpoint directory
+     */
+    public Path getPath(int iteration) {
+        return directory.resolve(String.format("checkpoint-%08d.bin", iteration));
+    }
+
+    /**
+     * Wait for the checkpoint being written and stop the background thread
+     */
+    public void close() {
+        writer.shutdown();
+        try {
+            writer.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
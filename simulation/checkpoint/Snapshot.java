@@ -0,0 +1,179 @@
+package simulation.checkpoint;
+
+import simulation.Common;
+import simulation.Simulator;
+import simulation.hospital.Hospital;
+import simulation.individual.Individual;
+import simulation.individual.Population;
+
+/**
+ * Copy of the full state of a simulation at the end of an iteration, column per field of the individuals
+ * A snapshot is captured on the simulation thread and can be written to a checkpoint file from any other thread
+ * The random generator is counter-based, so the seed is its whole state
+ */
+public final class Snapshot {
+    static final byte MASKED = 1;
+    static final byte INFECTED = 1 << 1;
+    static final byte HOSPITALIZED = 1 << 2;
+    static final byte ALIVE = 1 << 3;
+    static final byte IN_INTERACTION = 1 << 4;
+
+    long seed;
+    int iteration;
+    int population;
+    double spreadingFactor;
+    double mortalityRate;
+    int ventilatorCount;
+    int worldWidth;
+    int worldHeight;
+    /**
+     * Number of individuals in the population store
+     */
+    int size;
+    int[] id;
+    int[] coordinateX;
+    int[] coordinateY;
+    short[] speed;
+    byte[] direction;
+    byte[] socialDistance;
+    byte[] interactionTime;
+    /**
+     * Flags of the individuals with the bits above, independent of the in-memory layout of the population
+     */
+    byte[] flags;
+    int[] interactedUntil;
+    int[] infectedAt;
+    int[] hospitalizedAt;
+    /**
+     * Indexes of the hospital patients in admission order
+     */
+    int patientCount;
+    int[] patients;
+
+    // Constructors
+    Snapshot() {
+        allocate(0, 0);
+    }
+
+    /**
+     * Capture the state of a simulator, must be called on the simulation thread between iterations or while paused
+     *
+     * @param simulator Simulator to capture
+     * @param reuse     Earlier snapshot whose arrays are reused if they are large enough, may be null
+     * @return Captured snapshot
+     */
+    public static Snapshot capture(Simulator simulator, Snapshot reuse) {
+        Population individuals = simulator.getIndividuals();
+        Hospital hospital = simulator.getHospital();
+        Snapshot snapshot = reuse != null ? reuse : new Snapshot();
+        snapshot.allocate(individuals.size(), hospital.getPatientCount());
+        snapshot.seed = simulator.getSeed();
+        snapshot.iteration = simulator.getIteration();
+        snapshot.population = simulator.getPopulation();
+        snapshot.spreadingFactor = simulator.getDisease().getSpreadingFactor();
+        snapshot.mortalityRate = simulator.getDisease().getMortalityRate();
+        snapshot.ventilatorCount = hospital.getVentilatorCount();
+        snapshot.worldWidth = individuals.getWidth();
+        snapshot.worldHeight = individuals.getHeight();
+        snapshot.size = individuals.size();
+        for (int i = 0; i < snapshot.size; i++) {
+            snapshot.id[i] = individuals.getID(i);
+            snapshot.coordinateX[i] = individuals.getCoordinateX(i);
+            snapshot.coordinateY[i] = individuals.getCoordinateY(i);
+            snapshot.speed[i] = (short) individuals.getSpeed(i);
+            snapshot.direction[i] = (byte) individuals.getDirection(i).ordinal();
+            snapshot.socialDistance[i] = (byte) individuals.getSocialDistance(i);
+            snapshot.interactionTime[i] = (byte) individuals.getInteractionTime(i);
+            snapshot.flags[i] = (byte) ((individuals.isMasked(i) ? MASKED : 0) | (individuals.isInfected(i) ? INFECTED : 0)
+                    | (individuals.isHospitalized(i) ? HOSPITALIZED : 0) | (individuals.isAlive(i) ? ALIVE : 0)
+                    | (individuals.isInInteraction(i) ? IN_INTERACTION : 0));
+            snapshot.interactedUntil[i] = individuals.getInteractedUntil(i);
+            snapshot.infectedAt[i] = individuals.getInfectedAt(i);
+            snapshot.hospitalizedAt[i] = individuals.getHospitalizedAt(i);
+        }
+        snapshot.patientCount = 0;
+        for (Individual patient : hospital.getPatients())
+            snapshot.patients[snapshot.patientCount++] = patient.getIndex();
+        return snapshot;
+    }
+
+    /**
+     * Fill an empty population and hospital with the state of this snapshot
+     *
+     * @param individuals Empty population store
+     * @param hospital    Empty hospital
+     */
+    public void restore(Population individuals, Hospital hospital) {
+        if (!individuals.isEmpty() || hospital.getPatientCount() > 0)
+            throw new IllegalStateException("Snapshot::restore()::population and hospital must be empty");
+        if (individuals.getWidth() != worldWidth || individuals.getHeight() != worldHeight)
+            throw new IllegalStateException("Snapshot::restore()::world size does not match: " + individuals.getWidth() + "x" + individuals.getHeight());
+        Common.Direction[] directions = Common.Direction.values();
+        for (int i = 0; i < size; i++)
+            individuals.add(id[i], coordinateX[i], coordinateY[i], speed[i], directions[direction[i]], socialDistance[i], interactionTime[i],
+                    (flags[i] & MASKED) != 0, (flags[i] & INFECTED) != 0, infectedAt[i], (flags[i] & ALIVE) != 0, (flags[i] & HOSPITALIZED) != 0,
+                    (flags[i] & IN_INTERACTION) != 0, interactedUntil[i], hospitalizedAt[i]);
+        hospital.setVentilatorCount(ventilatorCount);
+        for (int i = 0; i < patientCount; i++)
+            hospital.attach(individuals.get(patients[i]));
+    }
+
+    void allocate(int size, int patientCount) {
+        if (id == null || id.length < size) {
+            id = new int[size];
+            coordinateX = new int[size];
+            coordinateY = new int[size];
+            speed = new short[size];
+            direction = new byte[size];
+            socialDistance = new byte[size];
+            interactionTime = new byte[size];
+            flags = new byte[size];
+            interactedUntil = new int[size];
+            infectedAt = new int[size];
+            hospitalizedAt = new int[size];
+        }
+        if (patients == null || patients.length < patientCount)
+            patients = new int[patientCount];
+    }
+
+    // Getters
+    public long getSeed() {
+        return seed;
+    }
+
+    public int getIteration() {
+        return iteration;
+    }
+
+    public int getPopulation() {
+        return population;
+    }
+
+    public double getSpreadingFactor() {
+        return spreadingFactor;
+    }
+
+    public double getMortalityRate() {
+        return mortalityRate;
+    }
+
+    public int getVentilatorCount() {
+        return ventilatorCount;
+    }
+
+    public int getWorldWidth() {
+        return worldWidth;
+    }
+
+    public int getWorldHeight() {
+        return worldHeight;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public int getPatientCount() {
+        return patientCount;
+    }
+}
@@ -0,0 +1,179 @@
+package simulation.distributed;
+
+import simulation.Common;
+import simulation.individual.Population;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Reusable list of individuals with every field, coordinates are in the world coordinates of the whole simulation
+ * Used to hand individuals between shards, a batch is written as a count followed by fixed size records
+ */
+public class IndividualBatch {
+    /**
+     * Bytes of a single individual on the wire
+     */
+    public static final int RECORD_BYTES = 30;
+
+    private static final Common.Direction[] DIRECTIONS = Common.Direction.values();
+
+    // Flag bits on the wire, independent of the in-memory layout of the population
+    private static final byte MASKED = 1;
+    private static final byte INFECTED = 1 << 1;
+    private static final byte HOSPITALIZED = 1 << 2;
+    private static final byte ALIVE = 1 << 3;
+    private static final byte IN_INTERACTION = 1 << 4;
+
+    private int size;
+    private int[] id;
+    private int[] coordinateX;
+    private int[] coordinateY;
+    private short[] speed;
+    private byte[] direction;
+    private byte[] socialDistance;
+    private byte[] interactionTime;
+    private byte[] flags;
+    private int[] interactedUntil;
+    private int[] infectedAt;
+    private int[] hospitalizedAt;
+
+    // Constructors
+    public IndividualBatch() {
+        allocate(16);
+    }
+
+    /**
+     * Copy an individual of a population to the end of the batch
+     *
+     * @param population Population of the individual
+     * @param index      Index of the individual
+     * @param offsetX    World X of the origin of the population
+     */
+    public void add(Population population, int index, int offsetX) {
+        if (size == id.length)
+            allocate(size * 2);
+        int k = size++;
+        id[k] = population.getID(index);
+        coordinateX[k] = population.getCoordinateX(index) + offsetX;
+        coordinateY[k] = population.getCoordinateY(index);
+        speed[k] = (short) population.getSpeed(index);
+        direction[k] = (byte) population.getDirection(index).ordinal();
+        socialDistance[k] = (byte) population.getSocialDistance(index);
+        interactionTime[k] = (byte) population.getInteractionTime(index);
+        flags[k] = (byte) ((population.isMasked(index) ? MASKED : 0) | (population.isInfected(index) ? INFECTED : 0)
+                | (population.isHospitalized(index) ? HOSPITALIZED : 0) | (population.isAlive(index) ? ALIVE : 0)
+                | (population.isInInteraction(index) ? IN_INTERACTION : 0));
+        interactedUntil[k] = population.getInteractedUntil(index);
+        infectedAt[k] = population.getInfectedAt(index);
+        hospitalizedAt[k] = population.getHospitalizedAt(index);
+    }
+
+    /**
+     * Add an individual of the batch to a population
+     *
+     * @param population Population to add to
+     * @param k          Position of the individual in the batch
+     * @param offsetX    World X of the origin of the population
+     * @param ghost      Add a copy that stays in place, the individual is moved by its own shard
+     * @return index of the added individual
+     */
+    public int addTo(Population population, int k, int offsetX, boolean ghost) {
+        return population.add(id[k], coordinateX[k] - offsetX, coordinateY[k], ghost ? 0 : speed[k], DIRECTIONS[direction[k]], socialDistance[k], interactionTime[k],
+                (flags[k] & MASKED) != 0, (flags[k] & INFECTED) != 0, infectedAt[k], (flags[k] & ALIVE) != 0, (flags[k] & HOSPITALIZED) != 0,
+                (flags[k] & IN_INTERACTION) != 0, interactedUntil[k], hospitalizedAt[k]);
+    }
+
+    /**
+     * Write the batch as a count and the records of the individuals
+     *
+     * @param out Output to write
+     * @throws IOException if the output could not be written
+     */
+    public void write(DataOutput out) throws IOException {
+        out.writeInt(size);
+        for (int k = 0; k < size; k++) {
+            out.writeInt(id[k]);
+            out.writeInt(coordinateX[k]);
+            out.writeInt(coordinateY[k]);
+            out.writeShort(speed[k]);
+            out.writeByte(direction[k]);
+            out.writeByte(socialDistance[k]);
+            out.writeByte(interactionTime[k]);
+            out.writeByte(flags[k]);
+            out.writeInt(interactedUntil[k]);
+            out.writeInt(infectedAt[k]);
+            out.writeInt(hospitalizedAt[k]);
+        }
+    }
+
+    /**
+     * Read a written batch and append its individuals to this batch
+     *
+     * @param in Input to read
+     * @throws IOException if the input could not be read
+     */
+    public void read(DataInput in) throws IOException {
+        int count = in.readInt();
+        if (count < 0)
+            throw new IOException("IndividualBatch::read()::negative count: " + count);
+        for (int i = 0; i < count; i++) {
+            if (size == id.length)
+                allocate(size * 2);
+            int k = size++;
+            id[k] = in.readInt();
+            coordinateX[k] = in.readInt();
+            coordinateY[k] = in.readInt();
+            speed[k] = in.readShort();
+            direction[k] = in.readByte();
+            socialDistance[k] = in.readByte();
+            interactionTime[k] = in.readByte();
+            flags[k] = in.readByte();
+            interactedUntil[k] = in.readInt();
+            infectedAt[k] = in.readInt();
+            hospitalizedAt[k] = in.readInt();
+        }
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int getCoordinateX(int k) {
+        return coordinateX[k];
+    }
+
+    private void allocate(int capacity) {
+        if (id == null) {
+            id = new int[capacity];
+            coordinateX = new int[capacity];
+            coordinateY = new int[capacity];
+            speed = new short[capacity];
+            direction = new byte[capacity];
+            socialDistance = new byte[capacity];
+            interactionTime = new byte[capacity];
+            flags = new byte[capacity];
+            interactedUntil = new int[capacity];
+            infectedAt = new int[capacity];
+            hospitalizedAt = new int[capacity];
+        } else {
+            id = Arrays.copyOf(id, capacity);
+            coordinateX = Arrays.copyOf(coordinateX, capacity);
+            coordinateY = Arrays.copyOf(coordinateY, capacity);
+            speed = Arrays.copyOf(speed, capacity);
+            direction = Arrays.copyOf(direction, capacity);
+            socialDistance = Arrays.copyOf(socialDistance, capacity);
+            interactionTime = Arrays.copyOf(interactionTime, capacity);
+            flags = Arrays.copyOf(flags, capacity);
+            interactedUntil = Arrays.copyOf(interactedUntil, capacity);
+            infectedAt = Arrays.copyOf(infectedAt, capacity);
+            hospitalizedAt = Arrays.copyOf(hospitalizedAt, capacity);
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package simulation.distributed;
+
+import simulation.Statistics;
+import simulation.individual.Population;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Counts and sums of the individuals of a shard, the sums of every shard give the statistics of the whole society
+ * Ratios are not additive, so shards send the sums and the coordinator divides once
+ */
+public class PartialStatistics {
+    private long size;
+    private long healthy;
+    private long infected;
+    private long hospitalized;
+    private long casualty;
+    private long socialDistanceSum;
+    private long maskedCount;
+    private long aliveSocialDistanceSum;
+    private long aliveMaskedCount;
+
+    /**
+     * Account an individual of a population, the same way the population counters do
+     *
+     * @param population Population of the individual
+     * @param index      Index of the individual
+     */
+    public void add(Population population, int index) {
+        size++;
+        socialDistanceSum += population.getSocialDistance(index);
+        if (population.isMasked(index))
+            maskedCount++;
+        if (!population.isAlive(index)) {
+            casualty++;
+            return;
+        }
+        if (population.isHospitalized(index))
+            hospitalized++;
+        else if (population.isInfected(index))
+            infected++;
+        else
+            healthy++;
+        aliveSocialDistanceSum += population.getSocialDistance(index);
+        if (population.isMasked(index))
+            aliveMaskedCount++;
+    }
+
+    /**
+     * Add the counts of another shard
+     *
+     * @param other Counts to add
+     */
+    public void add(PartialStatistics other) {
+        size += other.size;
+        healthy += other.healthy;
+        infected += other.infected;
+        hospitalized += other.hospitalized;
+        casualty += other.casualty;
+        socialDistanceSum += other.socialDistanceSum;
+        maskedCount += other.maskedCount;
+        aliveSocialDistanceSum += other.aliveSocialDistanceSum;
+        aliveMaskedCount += other.aliveMaskedCount;
+    }
+
+    /**
+     * Statistics of the accounted individuals, computed like Statistics.of() computes them from population counters
+     *
+     * @param iteration  Iteration of the simulation
+     * @param totalCount Total population of the society
+     * @return Statistics
+     */
+    public Statistics toStatistics(int iteration, double totalCount) {
+        double current = healthy + infected;
+        return new Statistics(iteration, totalCount, healthy, infected, hospitalized, casualty,
+                (double) socialDistanceSum / size, (double) maskedCount / size * 100,
+                aliveSocialDistanceSum / current, aliveMaskedCount / current * 100);
+    }
+
+    public void write(DataOutput out) throws IOException {
+        out.writeLong(size);
+        out.writeLong(healthy);
+        out.writeLong(infected);
+        out.writeLong(hospitalized);
+        out.writeLong(casualty);
+        out.writeLong(socialDistanceSum);
+        out.writeLong(maskedCount);
+        out.writeLong(aliveSocialDistanceSum);
+        out.writeLong(aliveMaskedCount);
+    }
+
+    /**
+     * Replace the counts with the written ones
+     *
+     * @param in Input to read
+     * @throws IOException if the input could not be read
+     */
+    public void read(DataInput in) throws IOException {
+        size = in.readLong();
+        healthy = in.readLong();
+        infected = in.readLong();
+        hospitalized = in.readLong();
+        casualty = in.readLong();
+        socialDistanceSum = in.readLong();
+        maskedCount = in.readLong();
+        aliveSocialDistanceSum = in.readLong();
+        aliveMaskedCount = in.readLong();
+    }
+
+    public void clear() {
+        size = 0;
+        healthy = 0;
+        infected = 0;
+        hospitalized = 0;
+        casualty = 0;
+        socialDistanceSum = 0;
+        maskedCount = 0;
+        aliveSocialDistanceSum = 0;
+        aliveMaskedCount = 0;
+    }
+
+    // Getters
+    public long getSize() {
+        return size;
+    }
+}
@@ -0,0 +1,39 @@
+package simulation.distributed;
+
+import java.io.IOException;
+
+/**
+ * Messages between the coordinator and the shards, every value is big-endian as written by DataOutputStream
+ * HELLO      shard to coordinator: magic, version
+ * CONFIGURE  coordinator to shard: shard, shard count, from X, to X, world width, world height, population, spreading factor, mortality rate, seed
+ * TICK       coordinator to shard: iteration to run, immigrants, ghosts
+ * EXCHANGE   shard to coordinator: iteration reached, partial statistics, emigrants to left and right, ghosts for left and right
+ * STOP       coordinator to shard
+ * Individuals are written as batches, a count followed by records of IndividualBatch.RECORD_BYTES
+ */
+final class Protocol {
+    static final int MAGIC = 0x53494D53;
+    static final int VERSION = 1;
+
+    // Message types
+    static final byte CONFIGURE = 1;
+    static final byte TICK = 2;
+    static final byte EXCHANGE = 3;
+    static final byte STOP = 4;
+
+    private Protocol() {
+    }
+
+    /**
+     * Fail if a message is not of the expected type
+     *
+     * @param expected Expected message type
+     * @param actual   Read message type
+     * @param caller   Class::method() of the reader
+     * @throws IOException if the types differ
+     */
+    static void expect(byte expected, byte actual, String caller) throws IOException {
+        if (expected != actual)
+            throw new IOException(caller + "::unexpected message " + actual + ", expected " + expected);
+    }
+}
@@ -0,0 +1,251 @@
+package simulation.distributed;
+
+import simulation.BatchResult;
+import simulation.Common;
+import simulation.Statistics;
+import simulation.log.Log;
+import simulation.metrics.MetricsSink;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Coordinator of a distributed simulation, the world is split into vertical strips that are run by shard processes
+ * Iterations are barrier-synchronized, every shard runs an iteration and reports before the next one starts
+ * Emigrants and ghosts of a shard are relayed to its neighbours without decoding, partial statistics are summed into the statistics of the society
+ */
+public class ShardCoordinator implements Closeable {
+    private static final int BUFFER_BYTES = 1 << 16;
+    private static final int ACCEPT_TIMEOUT_MILLIS = 60000;
+    // Sides of a strip
+    private static final int LEFT = 0;
+    private static final int RIGHT = 1;
+
+    private final ServerSocket server;
+    private final int shardCount;
+    private final Socket[] sockets;
+    private final DataInputStream[] inputs;
+    private final DataOutputStream[] outputs;
+    /**
+     * Individuals that each shard hands to its neighbour on each side, and ghosts that it shows to them
+     */
+    private final Records[][] emigrants;
+    private final Records[][] ghosts;
+    private final PartialStatistics partial;
+    private final PartialStatistics total;
+    private final List<MetricsSink> sinks;
+    private int population;
+    private int iteration;
+    private Statistics statistics;
+
+    // Constructors
+    /**
+     * Listen for shards, nothing is sent before start()
+     *
+     * @param bindAddress Address to listen on, null for every address
+     * @param port        Port to listen on, 0 for any free port
+     * @param shardCount  Number of shards
+     * @throws IOException if the port could not be bound
+     */
+    public ShardCoordinator(InetAddress bindAddress, int port, int shardCount) throws IOException {
+        if (shardCount < 1)
+            throw new IllegalArgumentException("ShardCoordinator::ShardCoordinator()::shard count must be positive: " + shardCount);
+        this.server = new ServerSocket(port, shardCount, bindAddress);
+        this.shardCount = shardCount;
+        this.sockets = new Socket[shardCount];
+        this.inputs = new DataInputStream[shardCount];
+        this.outputs = new DataOutputStream[shardCount];
+        this.emigrants = new Records[shardCount][2];
+        this.ghosts = new Records[shardCount][2];
+        for (int shard = 0; shard < shardCount; shard++) {
+            for (int side = LEFT; side <= RIGHT; side++) {
+                emigrants[shard][side] = new Records();
+                ghosts[shard][side] = new Records();
+            }
+        }
+        this.partial = new PartialStatistics();
+        this.total = new PartialStatistics();
+        this.sinks = new ArrayList<>();
+    }
+
+    /**
+     * Accept every shard in the order they connect, assign them their strips and collect the initial statistics
+     *
+     * @param population      Number of individuals
+     * @param spreadingFactor Spreading factor of the disease
+     * @param mortalityRate   Mortality rate of the disease
+     * @param seed            Seed of the simulation random
+     * @param worldWidth      World length on X axis, a strip must be at least twice SHARD_HALO_XY wide
+     * @param worldHeight     World length on Y axis
+     * @throws IOException if a shard could not be accepted
+     */
+    public void start(int population, double spreadingFactor, double mortalityRate, long seed, int worldWidth, int worldHeight) throws IOException {
+        if (shardCount > 1 && worldWidth / shardCount < Common.SHARD_HALO_XY * 2)
+            throw new IllegalArgumentException("ShardCoordinator::start()::world width " + worldWidth + " is too narrow for " + shardCount
+                    + " shards, at least " + (Common.SHARD_HALO_XY * 2 * shardCount) + " is needed");
+        this.population = population;
+        server.setSoTimeout(ACCEPT_TIMEOUT_MILLIS);
+        for (int shard = 0; shard < shardCount; shard++) {
+            Socket socket = server.accept();
+            socket.setTcpNoDelay(true);
+            sockets[shard] = socket;
+            inputs[shard] = new DataInputStream(new BufferedInputStream(socket.getInputStream(), BUFFER_BYTES));
+            outputs[shard] = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream(), BUFFER_BYTES));
+            if (inputs[shard].readInt() != Protocol.MAGIC || inputs[shard].readInt() != Protocol.VERSION)
+                throw new IOException("ShardCoordinator::start()::unknown shard protocol from " + socket.getRemoteSocketAddress());
+            DataOutputStream out = outputs[shard];
+            out.writeByte(Protocol.CONFIGURE);
+            out.writeInt(shard);
+            out.writeInt(shardCount);
+            out.writeInt((int) ((long) worldWidth * shard / shardCount));
+            out.writeInt((int) ((long) worldWidth * (shard + 1) / shardCount));
+            out.writeInt(worldWidth);
+            out.writeInt(worldHeight);
+            out.writeInt(population);
+            out.writeDouble(spreadingFactor);
+            out.writeDouble(mortalityRate);
+            out.writeLong(seed);
+            out.flush();
+            int accepted = shard;
+            Log.info(() -> "ShardCoordinator::start()::shard " + accepted + " is " + socket.getRemoteSocketAddress());
+        }
+        collect();
+    }
+
+    /**
+     * Run the given number of iterations on every shard
+     *
+     * @param iterations Number of iterations to run
+     * @return Summary of the run with the statistics of the whole society
+     * @throws IOException if a shard fails
+     */
+    public BatchResult run(int iterations) throws IOException {
+        long startTime = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            for (int shard = 0; shard < shardCount; shard++) {
+                DataOutputStream out = outputs[shard];
+                out.writeByte(Protocol.TICK);
+                out.writeInt(iteration);
+                writeFromNeighbours(out, emigrants, shard);
+                writeFromNeighbours(out, ghosts, shard);
+                out.flush();
+            }
+            collect();
+        }
+        long elapsedTime = System.nanoTime() - startTime;
+        return new BatchResult(iterations, elapsedTime, statistics.getTotalCount(), statistics.getHealthyCount(), statistics.getInfectedCount(),
+                statistics.getHospitalizedCount(), statistics.getCasualtyCount());
+    }
+
+    /**
+     * Stop every shard and release the connections
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            for (DataOutputStream out : outputs) {
+                if (out != null) {
+                    out.writeByte(Protocol.STOP);
+                    out.flush();
+                }
+            }
+        } finally {
+            for (Socket socket : sockets) {
+                if (socket != null)
+                    socket.close();
+            }
+            server.close();
+        }
+    }
+
+    /**
+     * Record the statistics of every iteration, starting with the current one
+     *
+     * @param sink Sink to add
+     */
+    public void addMetricsSink(MetricsSink sink) {
+        sinks.add(sink);
+        if (statistics != null)
+            sink.record(statistics);
+    }
+
+    /**
+     * Wait for the exchange of every shard, the barrier of an iteration
+     */
+    private void collect() throws IOException {
+        total.clear();
+        // The first exchange reports the initial society, every later one the next iteration
+        int expected = statistics == null ? iteration : iteration + 1;
+        for (int shard = 0; shard < shardCount; shard++) {
+            DataInputStream in = inputs[shard];
+            Protocol.expect(Protocol.EXCHANGE, in.readByte(), "ShardCoordinator::collect()");
+            int reached = in.readInt();
+            if (reached != expected)
+                throw new IOException("ShardCoordinator::collect()::shard " + shard + " reached iteration " + reached + ", expected " + expected);
+            partial.read(in);
+            total.add(partial);
+            emigrants[shard][LEFT].read(in);
+            emigrants[shard][RIGHT].read(in);
+            ghosts[shard][LEFT].read(in);
+            ghosts[shard][RIGHT].read(in);
+        }
+        iteration = expected;
+        statistics = total.toStatistics(iteration, population);
+        for (MetricsSink sink : sinks)
+            sink.record(statistics);
+        Log.debug(() -> "ShardCoordinator::collect()::" + statistics);
+    }
+
+    /**
+     * Write what the left neighbour sends to the right and the right neighbour sends to the left as a single batch
+     */
+    private void writeFromNeighbours(DataOutputStream out, Records[][] records, int shard) throws IOException {
+        Records fromLeft = shard > 0 ? records[shard - 1][RIGHT] : null;
+        Records fromRight = shard < shardCount - 1 ? records[shard + 1][LEFT] : null;
+        out.writeInt((fromLeft == null ? 0 : fromLeft.count) + (fromRight == null ? 0 : fromRight.count));
+        if (fromLeft != null)
+            out.write(fromLeft.bytes, 0, fromLeft.count * IndividualBatch.RECORD_BYTES);
+        if (fromRight != null)
+            out.write(fromRight.bytes, 0, fromRight.count * IndividualBatch.RECORD_BYTES);
+    }
+
+    // Getters
+    public int getPort() {
+        return server.getLocalPort();
+    }
+
+    public int getIteration() {
+        return iteration;
+    }
+
+    public Statistics getStatistics() {
+        return statistics;
+    }
+
+    /**
+     * Encoded records of a batch, relayed as they are
+     */
+    private static class Records {
+        private byte[] bytes = new byte[IndividualBatch.RECORD_BYTES * 16];
+        private int count;
+
+        void read(DataInputStream in) throws IOException {
+            count = in.readInt();
+            if (count < 0)
+                throw new IOException("ShardCoordinator::read()::negative count: " + count);
+            int length = count * IndividualBatch.RECORD_BYTES;
+            if (bytes.length < length)
+                bytes = new byte[Math.max(length, bytes.length * 2)];
+            in.readFully(bytes, 0, length);
+        }
+    }
+}
@@ -0,0 +1,217 @@
+package simulation.distributed;
+
+import simulation.Common;
+import simulation.Simulator;
+import simulation.individual.Population;
+import simulation.individual.RandomIndividualBuilder;
+import simulation.log.Log;
+import simulation.random.CounterRandom;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.Socket;
+
+/**
+ * Shard of a distributed simulation, runs the strip of the world [fromX, toX) in its own process
+ * The local world reaches SHARD_HALO_XY into the neighbouring strips, individuals that moved there are handed to the neighbour
+ * after the iteration, and the neighbours' individuals in the halo are added as ghosts that stay in place and are dropped after the iteration
+ * The population is rebuilt from owned individuals, immigrants and ghosts before every iteration, so schedules and patients
+ * are rebuilt the same way a checkpoint is restored
+ */
+public class ShardWorker implements Closeable {
+    private static final int BUFFER_BYTES = 1 << 16;
+
+    private final Socket socket;
+    private final DataInputStream in;
+    private final DataOutputStream out;
+    private final int parallelism;
+    private int shard;
+    private int shardCount;
+    private int fromX;
+    private int toX;
+    /**
+     * World X of the origin of the local population
+     */
+    private int originX;
+    private Simulator simulator;
+    /**
+     * Owned individuals are at the start of the population, ghosts follow them
+     */
+    private int ownedCount;
+    // Batches reused by every iteration
+    private final IndividualBatch kept;
+    private final IndividualBatch immigrants;
+    private final IndividualBatch ghosts;
+    private final IndividualBatch leftEmigrants;
+    private final IndividualBatch rightEmigrants;
+    private final IndividualBatch leftGhosts;
+    private final IndividualBatch rightGhosts;
+    private final PartialStatistics statistics;
+
+    // Constructors
+    public ShardWorker(String host, int port, int parallelism) throws IOException {
+        this.socket = new Socket(host, port);
+        socket.setTcpNoDelay(true);
+        this.in = new DataInputStream(new BufferedInputStream(socket.getInputStream(), BUFFER_BYTES));
+        this.out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream(), BUFFER_BYTES));
+        this.parallelism = parallelism;
+        this.kept = new IndividualBatch();
+        this.immigrants = new IndividualBatch();
+        this.ghosts = new IndividualBatch();
+        this.leftEmigrants = new IndividualBatch();
+        this.rightEmigrants = new IndividualBatch();
+        this.leftGhosts = new IndividualBatch();
+        this.rightGhosts = new IndividualBatch();
+        this.statistics = new PartialStatistics();
+        out.writeInt(Protocol.MAGIC);
+        out.writeInt(Protocol.VERSION);
+        out.flush();
+    }
+
+    /**
+     * Run iterations as the coordinator asks until it stops the simulation
+     *
+     * @throws IOException if the connection fails
+     */
+    public void run() throws IOException {
+        configure();
+        exchange();
+        while (true) {
+            byte type = in.readByte();
+            if (type == Protocol.STOP)
+                break;
+            Protocol.expect(Protocol.TICK, type, "ShardWorker::run()");
+            tick();
+        }
+        int iteration = simulator.getIteration();
+        simulator.end();
+        Log.info(() -> "ShardWorker::run()::shard " + shard + " stopped at iteration " + iteration);
+    }
+
+    @Override
+    public void close() throws IOException {
+        socket.close();
+    }
+
+    /**
+     * Read the region of the shard and create the owned individuals, the same individuals that a single process creates in the region
+     */
+    private void configure() throws IOException {
+        Protocol.expect(Protocol.CONFIGURE, in.readByte(), "ShardWorker::configure()");
+        shard = in.readInt();
+        shardCount = in.readInt();
+        fromX = in.readInt();
+        toX = in.readInt();
+        int worldWidth = in.readInt();
+        int worldHeight = in.readInt();
+        int population = in.readInt();
+        double spreadingFactor = in.readDouble();
+        double mortalityRate = in.readDouble();
+        long seed = in.readLong();
+        originX = shard == 0 ? 0 : fromX - Common.SHARD_HALO_XY;
+        int endX = shard == shardCount - 1 ? worldWidth : toX + Common.SHARD_HALO_XY;
+        // Coordinates are drawn per individual, so the individuals outside of the region are skipped without drawing the rest
+        RandomIndividualBuilder builder = new RandomIndividualBuilder(new CounterRandom(seed), worldWidth, worldHeight);
+        int owned = 0;
+        for (int id = 0; id < population; id++) {
+            builder.startIndividual(0, id);
+            if (isOwned(builder.generateCoordinateX()))
+                owned++;
+        }
+        simulator = Simulator.empty(owned, spreadingFactor, mortalityRate, parallelism, seed, endX - originX, worldHeight);
+        Population individuals = simulator.getIndividuals();
+        for (int id = 0; id < population; id++) {
+            builder.startIndividual(0, id);
+            int x = builder.generateCoordinateX();
+            if (isOwned(x))
+                individuals.add(id, x - originX, builder.generateCoordinateY(), builder.generateSpeed(), builder.generateRandomDirection(),
+                        builder.generateSocialDistance(), builder.generateInteractionTime(), builder.generateIsMaskedFlag(), id == 0, 0);
+        }
+        ownedCount = individuals.size();
+        simulator.getTransitions().added(individuals, 0);
+        simulator.getTickMetrics().register("shard-" + shard);
+        Log.info(() -> "ShardWorker::configure()::shard " + shard + " of " + shardCount + ", x in [" + fromX + "," + toX + "), " + ownedCount + " individuals");
+    }
+
+    /**
+     * Receive the individuals of the neighbours and run an iteration
+     */
+    private void tick() throws IOException {
+        int iteration = in.readInt();
+        if (iteration != simulator.getIteration())
+            throw new IOException("ShardWorker::tick()::iteration " + iteration + " does not match the shard iteration " + simulator.getIteration());
+        immigrants.clear();
+        immigrants.read(in);
+        ghosts.clear();
+        ghosts.read(in);
+        rebuild();
+        simulator.runBatch(1);
+        exchange();
+    }
+
+    /**
+     * Fill the population with the kept individuals, the immigrants and then the ghosts
+     * Scheduled transitions and patients refer to indexes, they are rebuilt from the owned individuals
+     */
+    private void rebuild() {
+        Population population = simulator.getIndividuals();
+        population.clear();
+        for (int k = 0; k < kept.size(); k++)
+            kept.addTo(population, k, originX, false);
+        for (int k = 0; k < immigrants.size(); k++)
+            immigrants.addTo(population, k, originX, false);
+        ownedCount = population.size();
+        simulator.getTransitions().clear();
+        simulator.getTransitions().added(population, 0);
+        simulator.getHospital().reattach(population);
+        for (int k = 0; k < ghosts.size(); k++)
+            ghosts.addTo(population, k, originX, true);
+    }
+
+    /**
+     * Split the owned individuals into kept ones and emigrants, collect ghosts for the neighbours and send them with the partial statistics
+     */
+    private void exchange() throws IOException {
+        Population population = simulator.getIndividuals();
+        kept.clear();
+        leftEmigrants.clear();
+        rightEmigrants.clear();
+        leftGhosts.clear();
+        rightGhosts.clear();
+        statistics.clear();
+        for (int i = 0; i < ownedCount; i++) {
+            int x = population.getCoordinateX(i) + originX;
+            statistics.add(population, i);
+            if (shard > 0 && x < fromX) {
+                leftEmigrants.add(population, i, originX);
+            } else if (shard < shardCount - 1 && x >= toX) {
+                rightEmigrants.add(population, i, originX);
+            } else {
+                kept.add(population, i, originX);
+                if (shard > 0 && x < fromX + Common.SHARD_HALO_XY)
+                    leftGhosts.add(population, i, originX);
+                if (shard < shardCount - 1 && x >= toX - Common.SHARD_HALO_XY)
+                    rightGhosts.add(population, i, originX);
+            }
+        }
+        out.writeByte(Protocol.EXCHANGE);
+        out.writeInt(simulator.getIteration());
+        statistics.write(out);
+        leftEmigrants.write(out);
+        rightEmigrants.write(out);
+        leftGhosts.write(out);
+        rightGhosts.write(out);
+        out.flush();
+    }
+
+    /**
+     * Is the world X in the strip of the shard, the first and the last strips also own the world edges
+     */
+    private boolean isOwned(int x) {
+        return (shard == 0 || x >= fromX) && (shard == shardCount - 1 || x < toX);
+    }
+}
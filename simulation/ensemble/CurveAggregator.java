@@ -0,0 +1,108 @@
+package simulation.ensemble;
+
+import simulation.Statistics;
+import simulation.util.QuantileSketch;
+
+/**
+ * Per-iteration aggregate of the epidemic curves of many runs
+ * Counts of each run are streamed in as they are produced, only the running aggregates are kept
+ */
+public class CurveAggregator {
+    /**
+     * Curves that are aggregated
+     */
+    public enum Metric {
+        HEALTHY,
+        INFECTED,
+        HOSPITALIZED,
+        CASUALTY
+    }
+
+    private static final Metric[] METRICS = Metric.values();
+
+    /**
+     * Number of points of each curve
+     */
+    private final int length;
+    private final Welford[] means;
+    private final QuantileSketch[] sketches;
+    /**
+     * Number of runs added
+     */
+    private long runs;
+
+    // Constructors
+    public CurveAggregator(int length) {
+        this.length = length;
+        this.means = new Welford[length * METRICS.length];
+        this.sketches = new QuantileSketch[length * METRICS.length];
+        for (int i = 0; i < means.length; i++) {
+            means[i] = new Welford();
+            sketches[i] = new QuantileSketch();
+        }
+    }
+
+    /**
+     * Add the counts of a run at the given point of the curves
+     *
+     * @param point      Point of the curve, iterations since the start of the run
+     * @param statistics Counts of the run at that point
+     */
+    public void add(int point, Statistics statistics) {
+        add(point, Metric.HEALTHY, statistics.getHealthyCount());
+        add(point, Metric.INFECTED, statistics.getInfectedCount());
+        add(point, Metric.HOSPITALIZED, statistics.getHospitalizedCount());
+        add(point, Metric.CASUALTY, statistics.getCasualtyCount());
+    }
+
+    /**
+     * Count a finished run
+     */
+    public void addRun() {
+        runs++;
+    }
+
+    /**
+     * Add the runs of the other aggregator into this one
+     *
+     * @param other Aggregator with the same length
+     */
+    public void merge(CurveAggregator other) {
+        if (other.length != length)
+            throw new IllegalArgumentException("CurveAggregator::merge()::length mismatch: " + length + " != " + other.length);
+        for (int i = 0; i < means.length; i++) {
+            means[i].merge(other.means[i]);
+            sketches[i].merge(other.sketches[i]);
+        }
+        runs += other.runs;
+    }
+
+    // Getters
+    public int getLength() {
+        return length;
+    }
+
+    public long getRuns() {
+        return runs;
+    }
+
+    public Welford getMean(int point, Metric metric) {
+        return means[slot(point, metric)];
+    }
+
+    public QuantileSketch getSketch(int point, Metric metric) {
+        return sketches[slot(point, metric)];
+    }
+
+    private void add(int point, Metric metric, double count) {
+        int slot = slot(point, metric);
+        means[slot].add(count);
+        sketches[slot].add(Math.round(count));
+    }
+
+    private int slot(int point, Metric metric) {
+        if (point < 0 || point >= length)
+            throw new IndexOutOfBoundsException("CurveAggregator::slot()::point " + point + " out of bounds for length " + length);
+        return point * METRICS.length + metric.ordinal();
+    }
+}
@@ -0,0 +1,76 @@
+package simulation.ensemble;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Population and disease parameters of the runs of an ensemble
+ */
+public final class EnsembleParameters {
+    private final int population;
+    private final double spreadingFactor;
+    private final double mortalityRate;
+
+    // Constructors
+    public EnsembleParameters(int population, double spreadingFactor, double mortalityRate) {
+        this.population = population;
+        this.spreadingFactor = spreadingFactor;
+        this.mortalityRate = mortalityRate;
+    }
+
+    /**
+     * Every combination of the given values, populations vary slowest
+     *
+     * @param populations      Population sizes
+     * @param spreadingFactors Spreading factors of the disease
+     * @param mortalityRates   Mortality rates of the disease
+     * @return Parameter sets of the sweep
+     */
+    public static List<EnsembleParameters> sweep(int[] populations, double[] spreadingFactors, double[] mortalityRates) {
+        List<EnsembleParameters> result = new ArrayList<>();
+        for (int population : populations)
+            for (double spreadingFactor : spreadingFactors)
+                for (double mortalityRate : mortalityRates)
+                    result.add(new EnsembleParameters(population, spreadingFactor, mortalityRate));
+        return result;
+    }
+
+    // Getters
+    public int getPopulation() {
+        return population;
+    }
+
+    public double getSpreadingFactor() {
+        return spreadingFactor;
+    }
+
+    public double getMortalityRate() {
+        return mortalityRate;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o)
+            return true;
+        if (!(o instanceof EnsembleParameters))
+            return false;
+        EnsembleParameters other = (EnsembleParameters) o;
+        return population == other.population && Double.compare(spreadingFactor, other.spreadingFactor) == 0
+                && Double.compare(mortalityRate, other.mortalityRate) == 0;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(population, spreadingFactor, mortalityRate);
+    }
+
+    @Override
+    public String toString() {
+        return "EnsembleParameters{" +
+                "Population=" + population +
+                ", SpreadingFactor=" + spreadingFactor +
+                ", MortalityRate=" + mortalityRate +
+                '}';
+    }
+}
@@ -0,0 +1,126 @@
+package simulation.ensemble;
+
+import simulation.Simulator;
+import simulation.log.Log;
+import simulation.random.CounterRandom;
+import simulation.random.RandomStream;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Runs many independent single-threaded simulators on a bounded worker pool and aggregates their curves
+ * Each worker streams its runs into its own aggregator, aggregators are merged once all runs are finished
+ */
+public class EnsembleRunner {
+    private final ExecutorService workers;
+    private final int threads;
+    /**
+     * Runs of each parameter set
+     */
+    private final int replicates;
+    /**
+     * Iterations of each run
+     */
+    private final int iterations;
+    /**
+     * Seed that the seed of every run is derived from
+     */
+    private final CounterRandom seeds;
+
+    // Constructors
+    public EnsembleRunner(int threads, int replicates, int iterations, long seed) {
+        this.threads = threads;
+        this.replicates = replicates;
+        this.iterations = iterations;
+        this.seeds = new CounterRandom(seed);
+        this.workers = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "ensemble");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Run the ensemble of every parameter set, one set after the other
+     *
+     * @param parameterSets Parameter sets of the sweep
+     * @return Aggregated curves of each parameter set, in the given order
+     */
+    public Map<EnsembleParameters, CurveAggregator> sweep(List<EnsembleParameters> parameterSets) {
+        Map<EnsembleParameters, CurveAggregator> result = new LinkedHashMap<>();
+        for (int set = 0; set < parameterSets.size(); set++)
+            result.put(parameterSets.get(set), run(parameterSets.get(set), set));
+        return result;
+    }
+
+    /**
+     * Run the replicates of a single parameter set
+     *
+     * @param parameters Parameters of the runs
+     * @param set        Index of the parameter set, runs of different sets get different seeds
+     * @return Aggregated curves, point 0 is the initial state and point i the state after i iterations
+     */
+    public CurveAggregator run(EnsembleParameters parameters, int set) {
+        Log.info(() -> "EnsembleRunner::run()::" + parameters + ", replicates:" + replicates);
+        BlockingQueue<CurveAggregator> aggregators = new ArrayBlockingQueue<>(threads);
+        for (int i = 0; i < threads; i++)
+            aggregators.add(new CurveAggregator(iterations + 1));
+        List<Future<?>> runs = new ArrayList<>();
+        for (int replicate = 0; replicate < replicates; replicate++) {
+            long seed = seeds.nextLong(set, replicate, RandomStream.REPLICATE);
+            runs.add(workers.submit(() -> {
+                CurveAggregator aggregator = aggregators.take();
+                try {
+                    runReplicate(parameters, seed, aggregator);
+                } finally {
+                    aggregators.add(aggregator);
+                }
+                return null;
+            }));
+        }
+        for (Future<?> run : runs) {
+            try {
+                run.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("EnsembleRunner::run()::interrupted", e);
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("EnsembleRunner::run()::replicate failed", e.getCause());
+            }
+        }
+        CurveAggregator result = new CurveAggregator(iterations + 1);
+        for (CurveAggregator aggregator : aggregators)
+            result.merge(aggregator);
+        return result;
+    }
+
+    /**
+     * Terminate worker threads
+     */
+    public void shutdown() {
+        workers.shutdown();
+    }
+
+    private void runReplicate(EnsembleParameters parameters, long seed, CurveAggregator aggregator) {
+        Simulator simulator = new Simulator(parameters.getPopulation(), parameters.getSpreadingFactor(), parameters.getMortalityRate(), 1, seed);
+        try {
+            aggregator.add(0, simulator.getStatistics());
+            for (int point = 1; point <= iterations; point++) {
+                simulator.runBatch(1);
+                aggregator.add(point, simulator.getStatistics());
+            }
+            aggregator.addRun();
+        } finally {
+            simulator.end();
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package simulation.ensemble;
+
+/**
+ * Running mean and variance with Welford's algorithm, two instances are merged with Chan's formula
+ * so partial results of different workers can be combined without keeping the samples
+ */
+public class Welford {
+    private long count;
+    private double mean;
+    /**
+     * Sum of squared differences from the mean
+     */
+    private double m2;
+
+    public void add(double value) {
+        count++;
+        double delta = value - mean;
+        mean += delta / count;
+        m2 += delta * (value - mean);
+    }
+
+    /**
+     * Add samples of the other instance into this one
+     *
+     * @param other Partial result to merge
+     */
+    public void merge(Welford other) {
+        if (other.count == 0)
+            return;
+        long total = count + other.count;
+        double delta = other.mean - mean;
+        mean += delta * other.count / total;
+        m2 += other.m2 + delta * delta * ((double) count * other.count / total);
+        count = total;
+    }
+
+    // Getters
+    public long getCount() {
+        return count;
+    }
+
+    public double getMean() {
+        return mean;
+    }
+
+    /**
+     * Sample variance, zero for less than two samples
+     *
+     * @return Variance
+     */
+    public double getVariance() {
+        return count < 2 ? 0.0 : m2 / (count - 1);
+    }
+
+    public double getStandardDeviation() {
+        return Math.sqrt(getVariance());
+    }
+
+    /**
+     * Half width of the 95% confidence interval of the mean, normal approximation
+     *
+     * @return Half width of the interval
+     */
+    public double getConfidenceInterval95() {
+        return count == 0 ? 0.0 : 1.96 * getStandardDeviation() / Math.sqrt(count);
+    }
+}
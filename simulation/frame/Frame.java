@@ -0,0 +1,206 @@
+package simulation.frame;
+
+import simulation.Common;
+import simulation.Statistics;
+import simulation.individual.Population;
+import simulation.util.IntList;
+
+import java.util.Arrays;
+
+/**
+ * Compact copy of the society at the end of an iteration, everything a renderer needs
+ * Visible individuals are indexed by a coarse grid, so a renderer finds the individuals of its viewport without scanning the population
+ * A frame is filled by the simulation thread and is not changed while a reader holds it
+ */
+public final class Frame {
+    /**
+     * State of an individual that is not drawn, dead individuals
+     */
+    public static final byte DEAD = 0;
+    public static final byte HEALTHY = 1;
+    public static final byte INFECTED = 2;
+    /**
+     * State of an individual that is in the hospital, not on the canvas
+     */
+    public static final byte HOSPITALIZED = 3;
+
+    /**
+     * Number of cells of the visible index at most, the cells grow with the world
+     */
+    private static final int MAX_CELLS = 1 << 14;
+    private static final int MIN_CELL_SIZE = 64;
+
+    /**
+     * Number of the publish that filled the frame, increases with every published frame
+     */
+    private long sequence;
+    private Statistics statistics;
+    private int size;
+    private int worldWidth;
+    private int worldHeight;
+    private int[] coordinateX;
+    private int[] coordinateY;
+    private byte[] states;
+    /**
+     * Uniform grid over the world that indexes the visible individuals, the individuals of cell c are
+     * cellIndexes[cellStart[c]] to cellIndexes[cellStart[c + 1] - 1] in index order
+     */
+    private int cellSize;
+    private int columns;
+    private int rows;
+    private int[] cellStart;
+    private int[] cellIndexes;
+
+    // Constructors
+    Frame() {
+        this.coordinateX = new int[0];
+        this.coordinateY = new int[0];
+        this.states = new byte[0];
+        this.cellIndexes = new int[0];
+        this.cellStart = new int[2];
+        this.columns = 1;
+        this.rows = 1;
+        this.cellSize = MIN_CELL_SIZE;
+    }
+
+    /**
+     * Fill the frame with the current state of a population, arrays are reused if they are large enough
+     */
+    void fill(long sequence, Statistics statistics, Population individuals) {
+        int count = individuals.size();
+        if (coordinateX.length < count) {
+            int length = Math.max(count, coordinateX.length * 2);
+            coordinateX = new int[length];
+            coordinateY = new int[length];
+            states = new byte[length];
+            cellIndexes = new int[length];
+        }
+        resizeGrid(individuals.getWidth(), individuals.getHeight());
+        int cells = columns * rows;
+        Arrays.fill(cellStart, 0, cells + 1, 0);
+        for (int i = 0; i < count; i++) {
+            coordinateX[i] = individuals.getCoordinateX(i);
+            coordinateY[i] = individuals.getCoordinateY(i);
+            if (!individuals.isAlive(i))
+                states[i] = DEAD;
+            else if (individuals.isHospitalized(i))
+                states[i] = HOSPITALIZED;
+            else if (individuals.isInfected(i))
+                states[i] = INFECTED;
+            else
+                states[i] = HEALTHY;
+            if (isVisible(i))
+                cellStart[cellOf(i) + 1]++;
+        }
+        // Counting sort of the visible individuals by cell, individuals of a cell stay in index order
+        for (int cell = 0; cell < cells; cell++)
+            cellStart[cell + 1] += cellStart[cell];
+        for (int i = 0; i < count; i++) {
+            if (isVisible(i)) {
+                int cell = cellOf(i);
+                cellIndexes[cellStart[cell]++] = i;
+            }
+        }
+        for (int cell = cells; cell > 0; cell--)
+            cellStart[cell] = cellStart[cell - 1];
+        cellStart[0] = 0;
+        this.size = count;
+        this.statistics = statistics;
+        this.sequence = sequence;
+    }
+
+    /**
+     * Collect the visible individuals whose box overlaps the given area of the world
+     * Only the cells of the index under the area are visited, the cost depends on the area and not on the population
+     *
+     * @param minX   Left of the area, inclusive
+     * @param minY   Top of the area, inclusive
+     * @param maxX   Right of the area, inclusive
+     * @param maxY   Bottom of the area, inclusive
+     * @param result List to append the indexes of the individuals, in no particular order
+     */
+    public void collectVisible(int minX, int minY, int maxX, int maxY, IntList result) {
+        int firstColumn = columnOf(minX - Common.CANVAS_BOX_XY), lastColumn = columnOf(maxX);
+        int firstRow = rowOf(minY - Common.CANVAS_BOX_XY), lastRow = rowOf(maxY);
+        for (int row = firstRow; row <= lastRow; row++) {
+            for (int column = firstColumn; column <= lastColumn; column++) {
+                int cell = row * columns + column;
+                for (int k = cellStart[cell]; k < cellStart[cell + 1]; k++) {
+                    int i = cellIndexes[k];
+                    if (coordinateX[i] + Common.CANVAS_BOX_XY > minX && coordinateX[i] <= maxX
+                            && coordinateY[i] + Common.CANVAS_BOX_XY > minY && coordinateY[i] <= maxY)
+                        result.add(i);
+                }
+            }
+        }
+    }
+
+    private void resizeGrid(int width, int height) {
+        if (width == worldWidth && height == worldHeight)
+            return;
+        worldWidth = width;
+        worldHeight = height;
+        cellSize = MIN_CELL_SIZE;
+        while ((long) (width / cellSize + 1) * (height / cellSize + 1) > MAX_CELLS)
+            cellSize *= 2;
+        columns = width / cellSize + 1;
+        rows = height / cellSize + 1;
+        if (cellStart.length < columns * rows + 1)
+            cellStart = new int[columns * rows + 1];
+    }
+
+    private int cellOf(int index) {
+        return rowOf(coordinateY[index]) * columns + columnOf(coordinateX[index]);
+    }
+
+    private int columnOf(int x) {
+        return Math.min(Math.max(x / cellSize, 0), columns - 1);
+    }
+
+    private int rowOf(int y) {
+        return Math.min(Math.max(y / cellSize, 0), rows - 1);
+    }
+
+    // Getters
+    public long getSequence() {
+        return sequence;
+    }
+
+    public Statistics getStatistics() {
+        return statistics;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int getWorldWidth() {
+        return worldWidth;
+    }
+
+    public int getWorldHeight() {
+        return worldHeight;
+    }
+
+    public int getCoordinateX(int index) {
+        return coordinateX[index];
+    }
+
+    public int getCoordinateY(int index) {
+        return coordinateY[index];
+    }
+
+    public byte getState(int index) {
+        return states[index];
+    }
+
+    /**
+     * Is the individual drawn on the canvas, alive and not in the hospital
+     *
+     * @param index index of the individual
+     * @return true if the individual is visible
+     */
+    public boolean isVisible(int index) {
+        return states[index] == HEALTHY || states[index] == INFECTED;
+    }
+}
@@ -0,0 +1,83 @@
+package simulation.frame;
+
+import simulation.Simulator;
+import simulation.Statistics;
+import simulation.TickListener;
+import simulation.phase.AgentState;
+
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Triple buffer of frames between the simulation thread and a renderer
+ * The writer fills its back frame and swaps it with the middle one, the reader swaps its front frame with the middle one if it is newer
+ * Neither side waits for the other, the reader always gets the latest complete frame
+ */
+public class FrameExchange implements TickListener {
+    /**
+     * Bit of the middle index that is set when the middle frame is newer than the front frame of the reader
+     */
+    private static final int FRESH = 1 << 2;
+    private static final int INDEX = FRESH - 1;
+
+    private final Frame[] frames;
+    /**
+     * Index of the frame between the writer and the reader, with the FRESH bit
+     */
+    private final AtomicInteger middle;
+    /**
+     * Index of the frame that the writer fills, only used by writers
+     */
+    private int back;
+    /**
+     * Index of the frame that the reader holds, only used by the reader
+     */
+    private int front;
+    private long sequence;
+
+    // Constructors
+    public FrameExchange() {
+        this.frames = new Frame[]{new Frame(), new Frame(), new Frame()};
+        this.front = 0;
+        this.middle = new AtomicInteger(1);
+        this.back = 2;
+    }
+
+    @Override
+    public void onTick(Simulator simulator, Statistics statistics) {
+        publish(simulator);
+    }
+
+    /**
+     * A frame copies the positions and the health states with the statistics, nothing else of the society
+     */
+    @Override
+    public Set<AgentState> getReads() {
+        return EnumSet.of(AgentState.POSITION, AgentState.INFECTION, AgentState.HOSPITALIZATION, AgentState.LIFE, AgentState.STATISTICS);
+    }
+
+    /**
+     * Publish the current state of a simulator as the latest frame
+     * Called by the simulation thread after each iteration, and by the thread that changed the society while the simulation is paused
+     * Writers are serialized with each other, readers are never blocked
+     *
+     * @param simulator Simulator to publish
+     */
+    public synchronized void publish(Simulator simulator) {
+        frames[back].fill(++sequence, simulator.getStatistics(), simulator.getIndividuals());
+        back = middle.getAndSet(back | FRESH) & INDEX;
+    }
+
+    /**
+     * Latest published frame, must be called from a single reader thread
+     * The returned frame stays unchanged until the next call
+     *
+     * @return Latest frame, an empty frame if nothing is published yet
+     */
+    public Frame acquire() {
+        if ((middle.get() & FRESH) != 0)
+            front = middle.getAndSet(front) & INDEX;
+        return frames[front];
+    }
+}
@@ -0,0 +1,306 @@
+package simulation.frame;
+
+import simulation.Common;
+import simulation.util.IntList;
+
+import java.nio.IntBuffer;
+import java.util.Arrays;
+
+/**
+ * Rasterizes frames through a viewport into a premultiplied ARGB pixel array, only the tiles that changed since the previous frame are redrawn
+ * Only the individuals inside the viewport are read from the frame, through its visible index
+ * A tile is dirty if an individual entered, left or changed color inside it, dirty tiles are cleared and every individual
+ * overlapping them is drawn again, so individuals that overlap each other are kept intact
+ * Work depends on how much of the canvas changed and how many individuals are on it, not on the population
+ */
+public class FrameRasterizer {
+    public static final int TILE_SIZE = 16;
+    private static final int BACKGROUND = 0x00000000;
+    private static final int BORDER = 0xFF000000;
+    private static final int HEALTHY = 0xFF008000;
+    private static final int INFECTED = 0xFFFF0000;
+
+    private final int width;
+    private final int height;
+    private final int[] pixels;
+    private final int tileColumns;
+    private final int tileRows;
+    private final boolean[] dirtyTiles;
+    /**
+     * Individuals on the pixels in index order, with their pixel coordinates and states
+     */
+    private int[] drawnIndexes;
+    private int[] drawnX;
+    private int[] drawnY;
+    private byte[] drawnStates;
+    private int drawnCount;
+    /**
+     * Individuals of the frame being rendered, same layout as the drawn ones, swapped with them after the render
+     */
+    private int[] nextIndexes;
+    private int[] nextX;
+    private int[] nextY;
+    private byte[] nextStates;
+    private final IntList visible;
+    /**
+     * Viewport of the pixels, every pixel is redrawn when it changes
+     */
+    private Viewport drawnViewport;
+    private int boxSize;
+    /**
+     * Bounds of the pixels changed by the last render, in tiles, empty if minimum is greater than maximum
+     */
+    private int dirtyMinColumn, dirtyMinRow, dirtyMaxColumn, dirtyMaxRow;
+
+    // Constructors
+    public FrameRasterizer(int width, int height) {
+        this.width = width;
+        this.height = height;
+        this.pixels = new int[width * height];
+        this.tileColumns = (width + TILE_SIZE - 1) / TILE_SIZE;
+        this.tileRows = (height + TILE_SIZE - 1) / TILE_SIZE;
+        this.dirtyTiles = new boolean[tileColumns * tileRows];
+        this.drawnIndexes = new int[0];
+        this.drawnX = new int[0];
+        this.drawnY = new int[0];
+        this.drawnStates = new byte[0];
+        this.nextIndexes = new int[0];
+        this.nextX = new int[0];
+        this.nextY = new int[0];
+        this.nextStates = new byte[0];
+        this.visible = new IntList();
+        this.boxSize = Common.CANVAS_BOX_XY;
+        clear();
+    }
+
+    /**
+     * Clear every individual from the pixels, the whole canvas is dirty afterwards
+     */
+    public void clear() {
+        for (int y = 0; y < height; y++)
+            clearRow(y, 0, width);
+        drawnCount = 0;
+        Arrays.fill(dirtyTiles, false);
+        dirtyMinColumn = 0;
+        dirtyMinRow = 0;
+        dirtyMaxColumn = tileColumns - 1;
+        dirtyMaxRow = tileRows - 1;
+    }
+
+    /**
+     * Bring the pixels up to date with a frame, as seen through a viewport
+     *
+     * @param frame    Frame to draw
+     * @param viewport Visible area of the world, its screen size is the size of the pixels
+     * @return true if any pixel changed
+     */
+    public boolean render(Frame frame, Viewport viewport) {
+        resetDirtyRegion();
+        if (viewport != drawnViewport) {
+            drawnViewport = viewport;
+            boxSize = viewport.getBoxSize();
+            drawnCount = 0;
+            markAll();
+        }
+        int count = collect(frame, viewport);
+        // Both lists are in index order, walk them together to find the individuals that appeared, disappeared or changed
+        int drawn = 0, next = 0;
+        while (drawn < drawnCount || next < count) {
+            int drawnIndex = drawn < drawnCount ? drawnIndexes[drawn] : Integer.MAX_VALUE;
+            int nextIndex = next < count ? nextIndexes[next] : Integer.MAX_VALUE;
+            if (drawnIndex == nextIndex) {
+                if (drawnX[drawn] != nextX[next] || drawnY[drawn] != nextY[next] || drawnStates[drawn] != nextStates[next]) {
+                    markBox(drawnX[drawn], drawnY[drawn]);
+                    markBox(nextX[next], nextY[next]);
+                }
+                drawn++;
+                next++;
+            } else if (drawnIndex < nextIndex) {
+                markBox(drawnX[drawn], drawnY[drawn]);
+                drawn++;
+            } else {
+                markBox(nextX[next], nextY[next]);
+                next++;
+            }
+        }
+        swap(count);
+        if (dirtyMinColumn > dirtyMaxColumn)
+            return false;
+        for (int row = dirtyMinRow; row <= dirtyMaxRow; row++)
+            for (int column = dirtyMinColumn; column <= dirtyMaxColumn; column++)
+                if (dirtyTiles[row * tileColumns + column])
+                    clearTile(column, row);
+        for (int k = 0; k < drawnCount; k++) {
+            if (overlapsDirtyTile(drawnX[k], drawnY[k]))
+                drawBox(drawnX[k], drawnY[k], drawnStates[k] == Frame.INFECTED ? INFECTED : HEALTHY);
+        }
+        Arrays.fill(dirtyTiles, false);
+        return true;
+    }
+
+    /**
+     * Copy the pixels changed by the last render into a buffer of the same dimensions
+     *
+     * @param target Buffer of width * height pixels
+     */
+    public void copyDirtyRegion(IntBuffer target) {
+        if (dirtyMinColumn > dirtyMaxColumn)
+            return;
+        int x = getDirtyX(), w = getDirtyWidth();
+        for (int y = getDirtyY(); y < getDirtyY() + getDirtyHeight(); y++)
+            target.put(y * width + x, pixels, y * width + x, w);
+    }
+
+    private void resetDirtyRegion() {
+        dirtyMinColumn = tileColumns;
+        dirtyMinRow = tileRows;
+        dirtyMaxColumn = -1;
+        dirtyMaxRow = -1;
+    }
+
+    private void markAll() {
+        Arrays.fill(dirtyTiles, true);
+        dirtyMinColumn = 0;
+        dirtyMinRow = 0;
+        dirtyMaxColumn = tileColumns - 1;
+        dirtyMaxRow = tileRows - 1;
+    }
+
+    /**
+     * Mark the tiles under the box of an individual, a box spans at most 2 x 2 tiles
+     */
+    private void markBox(int x, int y) {
+        if (x + boxSize <= 0 || y + boxSize <= 0 || x >= width || y >= height)
+            return;
+        int minColumn = Math.max(x, 0) / TILE_SIZE, maxColumn = Math.min(x + boxSize - 1, width - 1) / TILE_SIZE;
+        int minRow = Math.max(y, 0) / TILE_SIZE, maxRow = Math.min(y + boxSize - 1, height - 1) / TILE_SIZE;
+        for (int row = minRow; row <= maxRow; row++)
+            for (int column = minColumn; column <= maxColumn; column++)
+                dirtyTiles[row * tileColumns + column] = true;
+        dirtyMinColumn = Math.min(dirtyMinColumn, minColumn);
+        dirtyMinRow = Math.min(dirtyMinRow, minRow);
+        dirtyMaxColumn = Math.max(dirtyMaxColumn, maxColumn);
+        dirtyMaxRow = Math.max(dirtyMaxRow, maxRow);
+    }
+
+    private boolean overlapsDirtyTile(int x, int y) {
+        if (x + boxSize <= 0 || y + boxSize <= 0 || x >= width || y >= height)
+            return false;
+        int minColumn = Math.max(x, 0) / TILE_SIZE, maxColumn = Math.min(x + boxSize - 1, width - 1) / TILE_SIZE;
+        int minRow = Math.max(y, 0) / TILE_SIZE, maxRow = Math.min(y + boxSize - 1, height - 1) / TILE_SIZE;
+        return dirtyTiles[minRow * tileColumns + minColumn] || dirtyTiles[minRow * tileColumns + maxColumn]
+                || dirtyTiles[maxRow * tileColumns + minColumn] || dirtyTiles[maxRow * tileColumns + maxColumn];
+    }
+
+    private void clearTile(int column, int row) {
+        int minX = column * TILE_SIZE, maxX = Math.min(minX + TILE_SIZE, width);
+        int minY = row * TILE_SIZE, maxY = Math.min(minY + TILE_SIZE, height);
+        for (int y = minY; y < maxY; y++)
+            clearRow(y, minX, maxX);
+    }
+
+    /**
+     * Clear pixels of a row to the background, keeping the border of the canvas
+     */
+    private void clearRow(int y, int fromX, int toX) {
+        int offset = y * width;
+        if (y == 0 || y == height - 1) {
+            Arrays.fill(pixels, offset + fromX, offset + toX, BORDER);
+            return;
+        }
+        Arrays.fill(pixels, offset + fromX, offset + toX, BACKGROUND);
+        if (fromX == 0)
+            pixels[offset] = BORDER;
+        if (toX == width)
+            pixels[offset + width - 1] = BORDER;
+    }
+
+    /**
+     * Draw the box of an individual, only inside the dirty tiles so clean tiles keep their pixels
+     */
+    private void drawBox(int x, int y, int color) {
+        int maxX = Math.min(x + boxSize, width), maxY = Math.min(y + boxSize, height);
+        for (int py = Math.max(y, 0); py < maxY; py++) {
+            int rowTiles = (py / TILE_SIZE) * tileColumns;
+            for (int px = Math.max(x, 0); px < maxX; px++)
+                if (dirtyTiles[rowTiles + px / TILE_SIZE])
+                    pixels[py * width + px] = color;
+        }
+    }
+
+    /**
+     * Collect the individuals of the frame inside the viewport into the next lists, in index order
+     *
+     * @return Number of individuals
+     */
+    private int collect(Frame frame, Viewport viewport) {
+        visible.clear();
+        frame.collectVisible(viewport.getMinX(), viewport.getMinY(), viewport.getMaxX(), viewport.getMaxY(), visible);
+        visible.sortFrom(0);
+        int count = visible.size();
+        if (nextIndexes.length < count) {
+            int length = Math.max(count, nextIndexes.length * 2);
+            nextIndexes = new int[length];
+            nextX = new int[length];
+            nextY = new int[length];
+            nextStates = new byte[length];
+        }
+        for (int k = 0; k < count; k++) {
+            int i = visible.get(k);
+            nextIndexes[k] = i;
+            nextX[k] = viewport.toScreenX(frame.getCoordinateX(i));
+            nextY[k] = viewport.toScreenY(frame.getCoordinateY(i));
+            nextStates[k] = frame.getState(i);
+        }
+        return count;
+    }
+
+    /**
+     * Make the next lists the drawn ones, the old drawn arrays are reused for the next render
+     */
+    private void swap(int count) {
+        int[] indexes = drawnIndexes, xs = drawnX, ys = drawnY;
+        byte[] states = drawnStates;
+        drawnIndexes = nextIndexes;
+        drawnX = nextX;
+        drawnY = nextY;
+        drawnStates = nextStates;
+        nextIndexes = indexes;
+        nextX = xs;
+        nextY = ys;
+        nextStates = states;
+        drawnCount = count;
+    }
+
+    // Getters
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public int[] getPixels() {
+        return pixels;
+    }
+
+    /**
+     * Left of the rectangle of pixels changed by the last render, empty rectangle if nothing changed
+     */
+    public int getDirtyX() {
+        return dirtyMinColumn * TILE_SIZE;
+    }
+
+    public int getDirtyY() {
+        return dirtyMinRow * TILE_SIZE;
+    }
+
+    public int getDirtyWidth() {
+        return dirtyMinColumn > dirtyMaxColumn ? 0 : Math.min((dirtyMaxColumn + 1) * TILE_SIZE, width) - getDirtyX();
+    }
+
+    public int getDirtyHeight() {
+        return dirtyMinRow > dirtyMaxRow ? 0 : Math.min((dirtyMaxRow + 1) * TILE_SIZE, height) - getDirtyY();
+    }
+}
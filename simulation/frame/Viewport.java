@@ -0,0 +1,159 @@
+package simulation.frame;
+
+import simulation.Common;
+
+/**
+ * Visible area of the world on a canvas, an origin in world coordinates and a scale in pixels per world unit
+ * A viewport is immutable, panning and zooming return a new one, so a renderer notices a change by reference
+ */
+public final class Viewport {
+    /**
+     * Largest zoom, an individual is at most one tile of the rasterizer
+     */
+    public static final double MAX_SCALE = (double) FrameRasterizer.TILE_SIZE / Common.CANVAS_BOX_XY;
+
+    private final int worldWidth;
+    private final int worldHeight;
+    private final int screenWidth;
+    private final int screenHeight;
+    /**
+     * World coordinates shown at the top left pixel
+     */
+    private final double originX;
+    private final double originY;
+    private final double scale;
+
+    // Constructors
+    public Viewport(int worldWidth, int worldHeight, int screenWidth, int screenHeight, double originX, double originY, double scale) {
+        this.worldWidth = worldWidth;
+        this.worldHeight = worldHeight;
+        this.screenWidth = screenWidth;
+        this.screenHeight = screenHeight;
+        this.scale = Math.min(Math.max(scale, getMinScale(worldWidth, worldHeight, screenWidth, screenHeight)), MAX_SCALE);
+        this.originX = clampOrigin(originX, worldWidth, screenWidth / this.scale);
+        this.originY = clampOrigin(originY, worldHeight, screenHeight / this.scale);
+    }
+
+    /**
+     * Viewport that shows the whole world, not enlarged if the world is smaller than the screen
+     *
+     * @param worldWidth   World length on X axis
+     * @param worldHeight  World length on Y axis
+     * @param screenWidth  Canvas width in pixels
+     * @param screenHeight Canvas height in pixels
+     * @return Viewport at the top left of the world
+     */
+    public static Viewport fit(int worldWidth, int worldHeight, int screenWidth, int screenHeight) {
+        return new Viewport(worldWidth, worldHeight, screenWidth, screenHeight, 0, 0, getMinScale(worldWidth, worldHeight, screenWidth, screenHeight));
+    }
+
+    /**
+     * Move the viewport with the content, dragging right shows the world on the left
+     *
+     * @param deltaX Pixels moved on X axis
+     * @param deltaY Pixels moved on Y axis
+     * @return Moved viewport
+     */
+    public Viewport pan(double deltaX, double deltaY) {
+        return new Viewport(worldWidth, worldHeight, screenWidth, screenHeight, originX - deltaX / scale, originY - deltaY / scale, scale);
+    }
+
+    /**
+     * Zoom the viewport, the world point under the given pixel stays under it
+     *
+     * @param factor  Scale multiplier, greater than 1 zooms in
+     * @param screenX X of the fixed pixel
+     * @param screenY Y of the fixed pixel
+     * @return Zoomed viewport
+     */
+    public Viewport zoom(double factor, double screenX, double screenY) {
+        double newScale = Math.min(Math.max(scale * factor, getMinScale(worldWidth, worldHeight, screenWidth, screenHeight)), MAX_SCALE);
+        double worldX = originX + screenX / scale, worldY = originY + screenY / scale;
+        return new Viewport(worldWidth, worldHeight, screenWidth, screenHeight, worldX - screenX / newScale, worldY - screenY / newScale, newScale);
+    }
+
+    /**
+     * X of the pixel that shows the given world coordinate, may be outside of the canvas
+     *
+     * @param x World X coordinate
+     * @return Pixel X
+     */
+    public int toScreenX(int x) {
+        return (int) Math.floor((x - originX) * scale);
+    }
+
+    public int toScreenY(int y) {
+        return (int) Math.floor((y - originY) * scale);
+    }
+
+    /**
+     * Side of the box of an individual in pixels, never less than a pixel
+     *
+     * @return Box size
+     */
+    public int getBoxSize() {
+        return Math.max(1, (int) Math.round(Common.CANVAS_BOX_XY * scale));
+    }
+
+    /**
+     * Smallest world X that is visible
+     */
+    public int getMinX() {
+        return (int) Math.floor(originX);
+    }
+
+    public int getMinY() {
+        return (int) Math.floor(originY);
+    }
+
+    /**
+     * Largest world X that is visible
+     */
+    public int getMaxX() {
+        return (int) Math.ceil(originX + screenWidth / scale);
+    }
+
+    public int getMaxY() {
+        return (int) Math.ceil(originY + screenHeight / scale);
+    }
+
+    private static double getMinScale(int worldWidth, int worldHeight, int screenWidth, int screenHeight) {
+        return Math.min(1.0, Math.min((double) screenWidth / (worldWidth + Common.CANVAS_BOX_XY), (double) screenHeight / (worldHeight + Common.CANVAS_BOX_XY)));
+    }
+
+    /**
+     * Keep the visible length of an axis inside the world, the origin is 0 if the whole axis is visible
+     */
+    private static double clampOrigin(double origin, int worldLength, double visibleLength) {
+        return Math.max(0, Math.min(origin, worldLength + Common.CANVAS_BOX_XY - visibleLength));
+    }
+
+    // Getters
+    public int getWorldWidth() {
+        return worldWidth;
+    }
+
+    public int getWorldHeight() {
+        return worldHeight;
+    }
+
+    public int getScreenWidth() {
+        return screenWidth;
+    }
+
+    public int getScreenHeight() {
+        return screenHeight;
+    }
+
+    public double getOriginX() {
+        return originX;
+    }
+
+    public double getOriginY() {
+        return originY;
+    }
+
+    public double getScale() {
+        return scale;
+    }
+}
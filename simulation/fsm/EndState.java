@@ -1,8 +1,7 @@
 package simulation.fsm;
 
 import simulation.Simulator;
-
-import java.util.ArrayList;
+import simulation.log.Log;
 
 /**
  * End state of the simulation
@@ -10,15 +9,18 @@ import java.util.ArrayList;
 public class EndState implements SimulationState {
     @Override
     public void execute(Simulator context, int iteration) {
-        System.out.println("iteration:" + iteration + ", EndState::execute() called.");
-        context.setIndividuals(new ArrayList<>());
-        try {
-            var simulationThread = context.getSimulationThread();
-            if (simulationThread != null)
-                simulationThread.join();
-        } catch (InterruptedException e) {
-            e.printStackTrace();
-        }
-        System.out.println("iteration:" + iteration + ", EndState::execute() finished.");
+        Log.debug(() -> "iteration:" + iteration + ", EndState::execute() called.");
+        if (context.getProcessState() instanceof PipelinedProcessState && ((PipelinedProcessState) context.getProcessState()).isPhaseThread())
+            throw new IllegalStateException("EndState::execute()::simulation cannot be ended from inside an iteration");
+        context.getScheduler().shutdown();
+        context.awaitIterations();
+        if (context.getProcessState() instanceof IterationEngine)
+            ((IterationEngine) context.getProcessState()).shutdown();
+        else if (context.getProcessState() instanceof PipelinedProcessState)
+            ((PipelinedProcessState) context.getProcessState()).shutdown();
+        context.getTickMetrics().unregister();
+        context.getIndividuals().clear();
+        context.getTransitions().clear();
+        Log.debug(() -> "iteration:" + iteration + ", EndState::execute() finished.");
     }
 }
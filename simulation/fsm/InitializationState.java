@@ -4,6 +4,7 @@ import simulation.Simulator;
 import simulation.individual.Factory;
 import simulation.individual.IndividualFactory;
 import simulation.individual.RandomIndividualBuilder;
+import simulation.log.Log;
 
 /**
  * Initialize state of the simulation
@@ -11,9 +12,10 @@ import simulation.individual.RandomIndividualBuilder;
 public class InitializationState implements SimulationState {
     @Override
     public void execute(Simulator context, int iteration) {
-        System.out.println("iteration:" + iteration + ", InitializationState::execute() called.");
-        Factory factory = new IndividualFactory(new RandomIndividualBuilder());
-        context.setIndividuals(factory.getIndividualInstancesForInitialization(context.getPopulation()));
-        System.out.println("iteration:" + iteration + ", InitializationState::execute() finished.");
+        Log.debug(() -> "iteration:" + iteration + ", InitializationState::execute() called.");
+        Factory factory = new IndividualFactory(new RandomIndividualBuilder(context.getRandom(), context.getIndividuals().getWidth(), context.getIndividuals().getHeight()));
+        factory.addIndividualInstancesForInitialization(context.getIndividuals(), context.getPopulation());
+        context.getTransitions().added(context.getIndividuals(), 0);
+        Log.debug(() -> "iteration:" + iteration + ", InitializationState::execute() finished.");
     }
 }
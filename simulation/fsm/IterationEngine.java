@@ -0,0 +1,57 @@
+package simulation.fsm;
+
+import simulation.Simulator;
+
+/**
+ * Process state whose movement and collision steps can also be run one by one, as the phases of a pipelined iteration
+ * The steps of an iteration are called in order, each one after the previous one is finished
+ */
+public interface IterationEngine extends SimulationState {
+    /**
+     * Move every alive individual
+     *
+     * @param context   Simulation
+     * @param iteration Iteration of the simulation when method called
+     */
+    void move(Simulator context, int iteration);
+
+    /**
+     * Find the pairs of individuals that start an interaction, they are kept for handleCollisions()
+     *
+     * @param context Simulation
+     * @return Number of pairs
+     */
+    int detectCollisions(Simulator context);
+
+    /**
+     * Handle the pairs found by the last detectCollisions()
+     *
+     * @param context   Simulation
+     * @param iteration Iteration of the simulation when method called
+     */
+    void handleCollisions(Simulator context, int iteration);
+
+    /**
+     * Does the engine keep the population in its own order, migrate() must run before every iteration then
+     *
+     * @return True if the engine migrates individuals
+     */
+    default boolean isMigrating() {
+        return false;
+    }
+
+    /**
+     * Bring the individuals that moved or were added since the last iteration into the order of the engine
+     * May reorder the population, the schedules and the hospital patients are rebuilt for the new indexes then
+     *
+     * @param context Simulation
+     */
+    default void migrate(Simulator context) {
+    }
+
+    /**
+     * Terminate worker threads
+     */
+    default void shutdown() {
+    }
+}
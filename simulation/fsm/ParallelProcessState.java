@@ -0,0 +1,200 @@
+package simulation.fsm;
+
+import simulation.Mediator;
+import simulation.Simulator;
+import simulation.individual.Population;
+import simulation.individual.PopulationCounters;
+import simulation.log.Log;
+import simulation.metrics.TickMetrics;
+import simulation.metrics.TickPhase;
+import simulation.parallel.ParallelLoop;
+import simulation.random.CounterRandom;
+import simulation.util.IntList;
+import simulation.util.PairList;
+
+import java.util.Arrays;
+
+/**
+ * Process state of the simulation that splits every phase over multiple cores
+ * Movement is done in two passes, proposals are made in parallel against the previous positions
+ * and committed in index order, so conflicts are resolved the same way on every thread count
+ */
+public class ParallelProcessState implements IterationEngine {
+    /**
+     * Fork-join workers
+     */
+    protected final ParallelLoop loop;
+    /**
+     * Proposed direction ordinal of each individual, negative if the individual stays
+     */
+    protected byte[] proposals;
+    /**
+     * Is the individual already paired in this iteration's collisions
+     */
+    private boolean[] paired;
+    /**
+     * Collisions found by each chunk
+     */
+    private PairList[] chunkCollisions;
+    /**
+     * Scratch lists of each chunk
+     */
+    private IntList[] candidates;
+    /**
+     * Pairs that start an interaction in this iteration
+     */
+    private final PairList matched;
+
+    // Constructors
+    public ParallelProcessState(int parallelism) {
+        this.loop = new ParallelLoop(parallelism);
+        this.proposals = new byte[0];
+        this.paired = new boolean[0];
+        this.matched = new PairList();
+        allocateChunkBuffers(0);
+    }
+
+    @Override
+    public void execute(Simulator context, int iteration) {
+        Log.debug(() -> "iteration:" + iteration + ", ParallelProcessState::execute() called.");
+        Population population = context.getIndividuals();
+        PopulationCounters counters = population.getCounters();
+        TickMetrics metrics = context.getTickMetrics();
+        // End interactions, then make moves, both are timed as the move
+        long time = System.nanoTime();
+        Mediator.endInteractions(population, context.getTransitions(), iteration, context.getRandom());
+        move(context, iteration);
+        time = metrics.record(TickPhase.MOVE, time, population.size());
+        // Check collisions
+        int pairs = detectCollisions(context);
+        time = metrics.record(TickPhase.COLLISION_DETECTION, time, population.size());
+        //      if collisions exists, handle collisions
+        long infected = counters.getInfectedCount();
+        handleCollisions(context, iteration);
+        time = metrics.record(TickPhase.COLLISION_HANDLING, time, 2 * pairs);
+        metrics.addCollisions(pairs);
+        metrics.addInfections(counters.getInfectedCount() - infected);
+        // Check hospital
+        long hospitalized = counters.getHospitalizedCount();
+        int checked = Mediator.checkHospitalTimeForAll(population, context.getTransitions(), context.getHospital(), iteration);
+        time = metrics.record(TickPhase.HOSPITAL_ADMISSION, time, checked);
+        metrics.addAdmissions(counters.getHospitalizedCount() - hospitalized);
+        int patients = context.getHospital().getPatientCount();
+        context.getHospital().handlePatients(context.getPopulation(), iteration);
+        time = metrics.record(TickPhase.PATIENT_HANDLING, time, patients - context.getHospital().getPatientCount());
+        // Check died ones
+        long casualties = counters.getCasualtyCount();
+        checked = Mediator.checkInfectionTimeForAll(population, context.getTransitions(), iteration);
+        metrics.record(TickPhase.MORTALITY, time, checked);
+        metrics.addDeaths(counters.getCasualtyCount() - casualties);
+        Log.debug(() -> "iteration:" + iteration + ", ParallelProcessState::execute() finished.");
+    }
+
+    @Override
+    public void move(Simulator context, int iteration) {
+        ensureCapacity(context.getIndividuals().size());
+        moveAll(context.getIndividuals(), iteration, context.getRandom());
+    }
+
+    @Override
+    public int detectCollisions(Simulator context) {
+        ensureCapacity(context.getIndividuals().size());
+        matchCollisions(findCollisions(context.getIndividuals()));
+        return matched.size();
+    }
+
+    @Override
+    public void handleCollisions(Simulator context, int iteration) {
+        Population population = context.getIndividuals();
+        loop.forEachChunk(matched.size(), (chunk, from, to) -> {
+            for (int k = from; k < to; k++)
+                Mediator.handleCollision(population, matched.getFirst(k), matched.getSecond(k), context.getDisease(), context.getTransitions(), iteration, context.getRandom());
+        });
+    }
+
+    @Override
+    public void shutdown() {
+        loop.shutdown();
+    }
+
+    /**
+     * Move every alive individual, proposals are made against the previous positions and committed in index order
+     *
+     * @param population Current population of the society
+     * @param iteration  Iteration of the simulation when method called
+     * @param random     Simulation random
+     */
+    protected void moveAll(Population population, int iteration, CounterRandom random) {
+        proposeMoves(population, iteration, random);
+        commitMoves(population);
+    }
+
+    private void proposeMoves(Population population, int iteration, CounterRandom random) {
+        loop.forEachChunk(population.size(), (chunk, from, to) -> {
+            for (int i = from; i < to; i++)
+                proposals[i] = (byte) (population.isAlive(i) ? Mediator.proposeMove(population, i, iteration, random) : -1);
+        });
+    }
+
+    private void commitMoves(Population population) {
+        for (int i = 0; i < population.size(); i++) {
+            if (proposals[i] >= 0)
+                Mediator.commitMove(population, i);
+        }
+    }
+
+    /**
+     * Find the collisions of every individual
+     *
+     * @param population Current population of the society
+     * @return Lists of collisions, in index order of the first individuals when concatenated
+     */
+    protected PairList[] findCollisions(Population population) {
+        allocateChunkBuffers(loop.getChunkCount(population.size()));
+        loop.forEachChunk(population.size(), (chunk, from, to) -> {
+            chunkCollisions[chunk].clear();
+            for (int i = from; i < to; i++)
+                Mediator.findCollisionPartners(population, i, candidates[chunk], chunkCollisions[chunk]);
+        });
+        return chunkCollisions;
+    }
+
+    /**
+     * Walk the pairs in index order and keep a pair only if both individuals are not paired yet
+     */
+    private void matchCollisions(PairList[] found) {
+        matched.clear();
+        for (PairList collisions : found) {
+            for (int k = 0; k < collisions.size(); k++) {
+                int first = collisions.getFirst(k), second = collisions.getSecond(k);
+                if (!paired[first] && !paired[second]) {
+                    paired[first] = true;
+                    paired[second] = true;
+                    matched.add(first, second);
+                }
+            }
+        }
+        for (int k = 0; k < matched.size(); k++) {
+            paired[matched.getFirst(k)] = false;
+            paired[matched.getSecond(k)] = false;
+        }
+    }
+
+    private void ensureCapacity(int size) {
+        if (size > proposals.length) {
+            proposals = Arrays.copyOf(proposals, size);
+            paired = Arrays.copyOf(paired, size);
+        }
+    }
+
+    private void allocateChunkBuffers(int chunkCount) {
+        if (chunkCollisions != null && chunkCollisions.length == chunkCount)
+            return;
+        chunkCollisions = new PairList[chunkCount];
+        candidates = new IntList[chunkCount];
+        for (int chunk = 0; chunk < chunkCount; chunk++) {
+            chunkCollisions[chunk] = new PairList();
+            candidates[chunk] = new IntList();
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package simulation.fsm;
 
 import simulation.Simulator;
+import simulation.log.Log;
 
 /**
  * Pause state of the simulation
@@ -8,14 +9,14 @@ import simulation.Simulator;
 public class PauseState implements SimulationState {
     @Override
     public void execute(Simulator context, int iteration) {
-        System.out.println("iteration:" + iteration + ", PauseState::execute() called.");
-        try {
-            var simulationThread = context.getSimulationThread();
-            if (simulationThread != null)
-                simulationThread.join();
-        } catch (InterruptedException e) {
-            e.printStackTrace();
+        Log.debug(() -> "iteration:" + iteration + ", PauseState::execute() called.");
+        if (context.getProcessState() instanceof PipelinedProcessState && ((PipelinedProcessState) context.getProcessState()).isPhaseThread()) {
+            // Paused by a listener inside an iteration, the iterations in flight run to their end
+            context.getScheduler().cancel();
+        } else {
+            context.getScheduler().pause();
+            context.getScheduler().execute(context::awaitIterations);
         }
-        System.out.println("iteration:" + iteration + ", PauseState::execute() finished.");
+        Log.debug(() -> "iteration:" + iteration + ", PauseState::execute() finished.");
     }
 }
@@ -0,0 +1,227 @@
+package simulation.fsm;
+
+import simulation.Mediator;
+import simulation.Simulator;
+import simulation.TickListener;
+import simulation.individual.Population;
+import simulation.individual.PopulationCounters;
+import simulation.log.Log;
+import simulation.metrics.TickPhase;
+import simulation.phase.AgentState;
+import simulation.phase.Phase;
+import simulation.phase.PhaseScheduler;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Process state of the simulation that runs each phase of an iteration as soon as the phases it depends on are finished
+ * Movement and collisions run on the engine chosen for the world and the thread count, the other phases run as in ProcessState
+ * Hospital patients, statistics and listeners overlap with the mortality of the iteration and the start of the next one,
+ * as far as the parts of the state they use allow, the result is the same as running the phases in sequence
+ * The state publishes statistics and calls tick listeners itself, the iteration of the simulator is advanced by the statistics phase
+ */
+public class PipelinedProcessState implements SimulationState {
+    /**
+     * Parts of the state that the listener phases read, a listener is called by the first phase that covers everything it reads
+     */
+    private static final List<Set<AgentState>> LISTENER_READS = List.of(
+            EnumSet.of(AgentState.STATISTICS),
+            EnumSet.of(AgentState.POSITION, AgentState.INFECTION, AgentState.HOSPITALIZATION, AgentState.LIFE, AgentState.STATISTICS),
+            EnumSet.allOf(AgentState.class));
+    private static final List<String> LISTENER_PHASES = List.of("statisticsListeners", "individualListeners", "stateListeners");
+    /**
+     * Parts of the state that a migration reorders, everything that refers to the individuals by index
+     */
+    private static final Set<AgentState> MIGRATED = EnumSet.range(AgentState.POSITION, AgentState.CONTACTS);
+
+    private final IterationEngine engine;
+    private final PhaseScheduler scheduler;
+    /**
+     * Iteration of the next submitted iteration, taken from the simulator while nothing is in flight
+     */
+    private int next;
+    /**
+     * Start time of the iteration whose first phase ran last, the first phase of an iteration starts after the previous one is finished
+     */
+    private long tickStartTime;
+    /**
+     * Start time of the move, interaction ends are part of the move as in the other process states
+     */
+    private long moveStartTime;
+    /**
+     * Collision pairs found by the engine in the iteration
+     */
+    private int pairs;
+
+    // Constructors
+    public PipelinedProcessState(IterationEngine engine, int threads) {
+        this.engine = engine;
+        this.scheduler = new PhaseScheduler(createPhases(), threads);
+    }
+
+    /**
+     * Run a whole iteration, returns when every phase of it is finished
+     */
+    @Override
+    public void execute(Simulator context, int iteration) {
+        submit(context);
+        await();
+    }
+
+    /**
+     * Start the next iteration, returns while its later phases and the previous iteration may still be running
+     *
+     * @param context Simulation
+     */
+    public void submit(Simulator context) {
+        if (!scheduler.isBusy())
+            next = context.getIteration();
+        int iteration = next++;
+        Log.debug(() -> "iteration:" + iteration + ", PipelinedProcessState::submit() called.");
+        scheduler.submit(context, iteration);
+    }
+
+    /**
+     * Wait until every submitted iteration is finished, the society must not be changed from outside before
+     * Must not be called from a phase, e.g. a tick listener
+     */
+    public void await() {
+        if (scheduler.isPhaseThread())
+            throw new IllegalStateException("PipelinedProcessState::await()::a phase cannot wait for its own iteration");
+        scheduler.await();
+    }
+
+    /**
+     * Is the calling thread running a phase, e.g. a tick listener
+     *
+     * @return True if called from a phase thread
+     */
+    public boolean isPhaseThread() {
+        return scheduler.isPhaseThread();
+    }
+
+    /**
+     * Terminate the phase threads and the threads of the engine
+     */
+    public void shutdown() {
+        scheduler.shutdown();
+        engine.shutdown();
+    }
+
+    public IterationEngine getEngine() {
+        return engine;
+    }
+
+    public List<Phase> getPhases() {
+        return scheduler.getPhases();
+    }
+
+    /**
+     * Phases of ProcessState.execute() in their sequential order, followed by the work that the simulator does after an iteration
+     * An engine that keeps its own order of the population migrates the individuals first
+     */
+    private List<Phase> createPhases() {
+        List<Phase> phases = new ArrayList<>();
+        if (engine.isMigrating())
+            phases.add(new Phase("migration", MIGRATED, MIGRATED, this::migrate));
+        phases.add(new Phase("endInteractions", EnumSet.of(AgentState.LIFE), EnumSet.of(AgentState.SCHEDULE, AgentState.INTERACTION, AgentState.DIRECTION),
+                this::endInteractions));
+        phases.add(new Phase(TickPhase.MOVE.getPhaseName(), EnumSet.of(AgentState.LIFE, AgentState.INTERACTION), EnumSet.of(AgentState.POSITION, AgentState.DIRECTION),
+                this::move));
+        phases.add(new Phase(TickPhase.COLLISION_DETECTION.getPhaseName(), EnumSet.of(AgentState.POSITION, AgentState.INTERACTION), EnumSet.of(AgentState.CONTACTS),
+                this::detectCollisions));
+        phases.add(new Phase(TickPhase.COLLISION_HANDLING.getPhaseName(), EnumSet.of(AgentState.CONTACTS, AgentState.HOSPITALIZATION), EnumSet.of(AgentState.INTERACTION, AgentState.INFECTION, AgentState.SCHEDULE),
+                this::handleCollisions));
+        phases.add(new Phase(TickPhase.HOSPITAL_ADMISSION.getPhaseName(), EnumSet.of(AgentState.LIFE), EnumSet.of(AgentState.INFECTION, AgentState.HOSPITALIZATION, AgentState.SCHEDULE, AgentState.HOSPITAL),
+                this::admitPatients));
+        phases.add(new Phase(TickPhase.PATIENT_HANDLING.getPhaseName(), EnumSet.noneOf(AgentState.class), EnumSet.of(AgentState.HOSPITALIZATION, AgentState.HOSPITAL),
+                this::handlePatients));
+        phases.add(new Phase(TickPhase.MORTALITY.getPhaseName(), EnumSet.of(AgentState.INFECTION), EnumSet.of(AgentState.LIFE, AgentState.SCHEDULE),
+                this::checkDeaths));
+        phases.add(new Phase("statistics", EnumSet.of(AgentState.INFECTION, AgentState.HOSPITALIZATION, AgentState.LIFE), EnumSet.of(AgentState.STATISTICS),
+                (context, iteration) -> context.completeIteration(iteration)));
+        for (int tier = 0; tier < LISTENER_READS.size(); tier++) {
+            int listenerTier = tier;
+            phases.add(new Phase(LISTENER_PHASES.get(tier), LISTENER_READS.get(tier), EnumSet.of(AgentState.EXPORT),
+                    (context, iteration) -> context.notifyTickListeners(listener -> getTier(listener) == listenerTier),
+                    context -> context.hasTickListeners(listener -> getTier(listener) == listenerTier)));
+        }
+        return phases;
+    }
+
+    /**
+     * First listener phase that covers everything the listener reads
+     */
+    private static int getTier(TickListener listener) {
+        Set<AgentState> reads = listener.getReads();
+        int tier = 0;
+        while (!LISTENER_READS.get(tier).containsAll(reads))
+            tier++;
+        return tier;
+    }
+
+    private void migrate(Simulator context, int iteration) {
+        tickStartTime = System.nanoTime();
+        engine.migrate(context);
+    }
+
+    private void endInteractions(Simulator context, int iteration) {
+        moveStartTime = System.nanoTime();
+        if (!engine.isMigrating())
+            tickStartTime = moveStartTime;
+        Mediator.endInteractions(context.getIndividuals(), context.getTransitions(), iteration, context.getRandom());
+    }
+
+    private void move(Simulator context, int iteration) {
+        engine.move(context, iteration);
+        context.getTickMetrics().record(TickPhase.MOVE, moveStartTime, context.getIndividuals().size());
+    }
+
+    private void detectCollisions(Simulator context, int iteration) {
+        long time = System.nanoTime();
+        pairs = engine.detectCollisions(context);
+        context.getTickMetrics().record(TickPhase.COLLISION_DETECTION, time, context.getIndividuals().size());
+    }
+
+    private void handleCollisions(Simulator context, int iteration) {
+        PopulationCounters counters = context.getIndividuals().getCounters();
+        long infected = counters.getInfectedCount();
+        long time = System.nanoTime();
+        engine.handleCollisions(context, iteration);
+        context.getTickMetrics().record(TickPhase.COLLISION_HANDLING, time, 2 * pairs);
+        context.getTickMetrics().addCollisions(pairs);
+        context.getTickMetrics().addInfections(counters.getInfectedCount() - infected);
+    }
+
+    private void admitPatients(Simulator context, int iteration) {
+        PopulationCounters counters = context.getIndividuals().getCounters();
+        long hospitalized = counters.getHospitalizedCount();
+        long time = System.nanoTime();
+        int checked = Mediator.checkHospitalTimeForAll(context.getIndividuals(), context.getTransitions(), context.getHospital(), iteration);
+        context.getTickMetrics().record(TickPhase.HOSPITAL_ADMISSION, time, checked);
+        context.getTickMetrics().addAdmissions(counters.getHospitalizedCount() - hospitalized);
+    }
+
+    private void handlePatients(Simulator context, int iteration) {
+        int patients = context.getHospital().getPatientCount();
+        long time = System.nanoTime();
+        context.getHospital().handlePatients(context.getPopulation(), iteration);
+        context.getTickMetrics().record(TickPhase.PATIENT_HANDLING, time, patients - context.getHospital().getPatientCount());
+    }
+
+    /**
+     * Mortality is the last phase that uses the schedule, the iteration is counted as finished by it
+     */
+    private void checkDeaths(Simulator context, int iteration) {
+        Population population = context.getIndividuals();
+        long casualties = population.getCounters().getCasualtyCount();
+        long time = System.nanoTime();
+        int checked = Mediator.checkInfectionTimeForAll(population, context.getTransitions(), iteration);
+        context.getTickMetrics().record(TickPhase.MORTALITY, time, checked);
+        context.getTickMetrics().addDeaths(population.getCounters().getCasualtyCount() - casualties);
+        context.getTickMetrics().recordTick(tickStartTime, population.size());
+    }
+}
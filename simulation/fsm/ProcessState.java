@@ -1,29 +1,61 @@
 package simulation.fsm;
 
-import simulation.Common;
 import simulation.Mediator;
 import simulation.Simulator;
-import simulation.individual.Individual;
+import simulation.individual.Population;
+import simulation.individual.PopulationCounters;
+import simulation.log.Log;
+import simulation.metrics.TickMetrics;
+import simulation.metrics.TickPhase;
+import simulation.util.IntList;
+import simulation.util.PairList;
 
 /**
  * Process state of the simulation
  */
-public class ProcessState implements SimulationState {
+public class ProcessState implements IterationEngine {
+    /**
+     * Scratch list of neighbour indexes, reused by every iteration
+     */
+    private final IntList candidates = new IntList();
+    /**
+     * Collisions of the iteration, reused by every iteration
+     */
+    private final PairList collisions = new PairList();
+    /**
+     * Proposed direction ordinal of each individual, reused by every iteration
+     */
+    private byte[] proposals = new byte[0];
+
     @Override
     public void execute(Simulator context, int iteration) {
-        System.out.println("iteration:" + iteration + ", ProcessState::execute() called.");
-        // Make moves
-        Mediator.moveForAll(context.getIndividuals(), iteration);
+        Log.debug(() -> "iteration:" + iteration + ", ProcessState::execute() called.");
+        Population population = context.getIndividuals();
+        PopulationCounters counters = population.getCounters();
+        TickMetrics metrics = context.getTickMetrics();
+        // End interactions, then make moves, both are timed as the move
+        long time = System.nanoTime();
+        Mediator.endInteractions(population, context.getTransitions(), iteration, context.getRandom());
+        move(context, iteration);
+        time = metrics.record(TickPhase.MOVE, time, population.size());
         // Check collisions
-        var collisions = Mediator.getListOfCollisions(context.getIndividuals());
+        int pairs = detectCollisions(context);
+        time = metrics.record(TickPhase.COLLISION_DETECTION, time, population.size());
         //      if collisions exists, handle collisions
-        if (!collisions.isEmpty())
-            for (Individual[] collision : collisions)
-                Mediator.handleCollision(collision[0], collision[1], context.getDisease(), iteration);
+        long infected = counters.getInfectedCount();
+        handleCollisions(context, iteration);
+        time = metrics.record(TickPhase.COLLISION_HANDLING, time, 2 * pairs);
+        metrics.addCollisions(pairs);
+        metrics.addInfections(counters.getInfectedCount() - infected);
         // Check hospital
         var hospital = context.getHospital();
-        Mediator.checkHospitalTimeForAll(context.getIndividuals(), hospital, iteration);
+        long hospitalized = counters.getHospitalizedCount();
+        int checked = Mediator.checkHospitalTimeForAll(population, context.getTransitions(), hospital, iteration);
+        time = metrics.record(TickPhase.HOSPITAL_ADMISSION, time, checked);
+        metrics.addAdmissions(counters.getHospitalizedCount() - hospitalized);
+        int patients = hospital.getPatientCount();
         hospital.handlePatients(context.getPopulation(), iteration);
+        time = metrics.record(TickPhase.PATIENT_HANDLING, time, patients - hospital.getPatientCount());
         /*
         Thread hospitalThread = new Thread(() -> {
             var hospital = context.getHospital();
@@ -33,37 +65,27 @@ public class ProcessState implements SimulationState {
         hospitalThread.start();
         */
         // Check died ones
-        Mediator.checkInfectionTimeForAll(context.getIndividuals(), context.getDisease(), iteration);
-        System.out.println("iteration:" + iteration + ", ProcessState::execute() finished.");
+        long casualties = counters.getCasualtyCount();
+        checked = Mediator.checkInfectionTimeForAll(population, context.getTransitions(), iteration);
+        metrics.record(TickPhase.MORTALITY, time, checked);
+        metrics.addDeaths(counters.getCasualtyCount() - casualties);
+        Log.debug(() -> "iteration:" + iteration + ", ProcessState::execute() finished.");
+    }
+
+    @Override
+    public void move(Simulator context, int iteration) {
+        proposals = Mediator.moveForAll(context.getIndividuals(), iteration, context.getRandom(), proposals);
     }
 
-    // Print list of individuals
-    private void printIndividuals(Simulator context, int iteration) {
-        System.out.println("DEBUG::iteration: " + iteration + ", ProcessState::execute()::Moved individuals:");
-        for (Individual person : context.getIndividuals()) {
-            System.out.println("DEBUG::iteration: " + iteration + ", " + person.toString());
-        }
+    @Override
+    public int detectCollisions(Simulator context) {
+        Mediator.collectCollisions(context.getIndividuals(), candidates, collisions);
+        return collisions.size();
     }
 
-    // Check is there any overlapping individuals
-    private void checkOverlaps(Simulator context, int iteration) {
-        for (Individual individual : context.getIndividuals()) {
-            for (Individual overlapped : context.getIndividuals()) {
-                if (individual.getID() != overlapped.getID() && !individual.isInInteraction() && !overlapped.isInInteraction()) {
-                    int minX = individual.getCoordinateX() - Common.CANVAS_BOX_XY;
-                    int minY = individual.getCoordinateY() - Common.CANVAS_BOX_XY;
-                    int maxX = individual.getCoordinateX() + Common.CANVAS_BOX_XY;
-                    int maxY = individual.getCoordinateY() + Common.CANVAS_BOX_XY;
-                    if (overlapped.getCoordinateX() > minX && overlapped.getCoordinateX() < maxX
-                            && (overlapped.getCoordinateY() > minY && overlapped.getCoordinateY() < maxY)) {
-                        System.out.println("DEBUG::OVERLAP::[" + individual.getID() + "]:(" + individual.getCoordinateX() + "," + individual.getCoordinateY() + ")-[" + overlapped.getID() + "]:(" + overlapped.getCoordinateX() + "," + overlapped.getCoordinateY() + ")");
-                        System.out.println("DEBUG::" + individual.toString());
-                        System.out.println("DEBUG::" + Mediator.getAvailableDirectionsForIndividual(context.getIndividuals(), individual));
-                        System.out.println("DEBUG::" + overlapped.toString());
-                        System.out.println("DEBUG::" + Mediator.getAvailableDirectionsForIndividual(context.getIndividuals(), overlapped));
-                    }
-                }
-            }
-        }
+    @Override
+    public void handleCollisions(Simulator context, int iteration) {
+        if (!collisions.isEmpty())
+            Mediator.handleCollisions(context.getIndividuals(), collisions, context.getDisease(), context.getTransitions(), iteration, context.getRandom());
     }
 }
@@ -0,0 +1,189 @@
+package simulation.fsm;
+
+import simulation.Common;
+import simulation.Mediator;
+import simulation.Simulator;
+import simulation.individual.Population;
+import simulation.log.Log;
+import simulation.random.CounterRandom;
+import simulation.space.TileMap;
+import simulation.util.IntList;
+import simulation.util.PairList;
+
+/**
+ * Parallel process state for large worlds, the world is split into tiles that are processed by separate workers
+ * The population is kept sorted by tile, so each tile owns a contiguous range of the individual arrays and its worker
+ * mostly touches its own part of the arrays and the cells of its region
+ * Moves inside the interior of a tile are committed in parallel, moves that reach into the halo along a border are committed
+ * afterwards in index order, when the neighbouring tiles are settled; collision checks read across the borders, that phase only reads
+ * Individuals that crossed a border migrate to their new tile at the end of the iteration, the population is sorted again then
+ * and the schedules and the hospital patients are rebuilt for the new indexes, the same way a checkpoint is restored
+ * The tiles only depend on the world size, so results are the same on every thread count, a single thread included
+ */
+public class TiledProcessState extends ParallelProcessState {
+    private final int worldWidth;
+    private final int worldHeight;
+    private TileMap tiles;
+    /**
+     * Collisions found by each tile, in index order of the first individuals
+     */
+    private PairList[] tileCollisions;
+    /**
+     * Scratch lists of each chunk of tiles
+     */
+    private final IntList[] chunkCandidates;
+    /**
+     * Collisions of every tile in index order of the first individuals
+     */
+    private final PairList[] merged;
+
+    // Constructors
+    public TiledProcessState(int parallelism, int worldWidth, int worldHeight) {
+        super(parallelism);
+        this.worldWidth = worldWidth;
+        this.worldHeight = worldHeight;
+        this.chunkCandidates = new IntList[loop.getMaxChunkCount()];
+        for (int chunk = 0; chunk < chunkCandidates.length; chunk++)
+            chunkCandidates[chunk] = new IntList();
+        this.merged = new PairList[]{new PairList()};
+    }
+
+    /**
+     * Is the world split into more than one tile
+     *
+     * @param worldWidth  World length on X axis
+     * @param worldHeight World length on Y axis
+     * @return True if a tiled process state is worth it
+     */
+    public static boolean isTiled(int worldWidth, int worldHeight) {
+        return TileMap.getTileCount(worldWidth, Common.WORLD_TILE_XY) * TileMap.getTileCount(worldHeight, Common.WORLD_TILE_XY) > 1;
+    }
+
+    @Override
+    public void execute(Simulator context, int iteration) {
+        Population population = context.getIndividuals();
+        // Added individuals join the ranges of their tiles before the iteration
+        if (getTiles(population).assign(population))
+            reorder(context, population);
+        super.execute(context, iteration);
+        migrate(context);
+    }
+
+    @Override
+    public boolean isMigrating() {
+        return true;
+    }
+
+    /**
+     * Move the individuals that crossed a border or were added into the ranges of their tiles
+     */
+    @Override
+    public void migrate(Simulator context) {
+        Population population = context.getIndividuals();
+        boolean added = getTiles(population).assign(population);
+        forEachTile((chunk, tile) -> tiles.collectLeaving(tile, population));
+        int migrated = tiles.getLeavingCount();
+        if (added || migrated > 0)
+            reorder(context, population);
+        Log.debug(() -> "TiledProcessState::migrate()::migrated:" + migrated);
+    }
+
+    @Override
+    protected void moveAll(Population population, int iteration, CounterRandom random) {
+        forEachTile((chunk, tile) -> {
+            for (int i = tiles.getStart(tile); i < tiles.getEnd(tile); i++)
+                proposals[i] = (byte) (population.isAlive(i) ? Mediator.proposeMove(population, i, iteration, random) : -1);
+        });
+        forEachTile((chunk, tile) -> {
+            for (int i = tiles.getStart(tile); i < tiles.getEnd(tile); i++) {
+                if (proposals[i] >= 0 && isInterior(population, tile, i)) {
+                    Mediator.commitMove(population, i);
+                    proposals[i] = -1;
+                }
+            }
+        });
+        // Halo moves, in index order
+        for (int i = 0; i < population.size(); i++) {
+            if (proposals[i] >= 0)
+                Mediator.commitMove(population, i);
+        }
+    }
+
+    @Override
+    protected PairList[] findCollisions(Population population) {
+        forEachTile((chunk, tile) -> {
+            PairList collisions = tileCollisions[tile];
+            collisions.clear();
+            for (int i = tiles.getStart(tile); i < tiles.getEnd(tile); i++)
+                Mediator.findCollisionPartners(population, i, chunkCandidates[chunk], collisions);
+        });
+        // Every tile lists its pairs in index order and the ranges follow each other, so the lists are joined in tile order
+        PairList result = merged[0];
+        result.clear();
+        for (PairList collisions : tileCollisions) {
+            for (int k = 0; k < collisions.size(); k++)
+                result.add(collisions.getFirst(k), collisions.getSecond(k));
+        }
+        return merged;
+    }
+
+    private TileMap getTiles(Population population) {
+        if (tiles == null) {
+            // The halo is at least a cell wide, so a move out of it never shares a cell with another tile
+            int margin = Math.max(population.getCollisionGrid().getCellSize(), population.getOccupancyMap().getCellSize());
+            tiles = new TileMap(worldWidth, worldHeight, Common.WORLD_TILE_XY, margin);
+            tileCollisions = new PairList[tiles.getTileCount()];
+            for (int tile = 0; tile < tileCollisions.length; tile++)
+                tileCollisions[tile] = new PairList();
+        }
+        return tiles;
+    }
+
+    /**
+     * Sort the population by tile, then rebuild the schedules and the hospital patients for the new indexes
+     */
+    private void reorder(Simulator context, Population population) {
+        population.reorder(tiles.sort());
+        context.getTransitions().clear();
+        context.getTransitions().added(population, 0);
+        context.getHospital().reattach(population);
+    }
+
+    /**
+     * Does the proposed move of the individual stay in the interior of the tile, with every box that the move checks
+     */
+    private boolean isInterior(Population population, int tile, int index) {
+        int x = population.getCoordinateX(index), y = population.getCoordinateY(index), speed = population.getSpeed(index);
+        int minX = x - Common.CANVAS_BOX_XY, minY = y - Common.CANVAS_BOX_XY, maxX = x + Common.CANVAS_BOX_XY, maxY = y + Common.CANVAS_BOX_XY;
+        switch (population.getDirection(index)) {
+            case LEFT:
+                minX = x - speed - (Common.CANVAS_BOX_XY * 2);
+                break;
+            case RIGHT:
+                maxX = x + speed + (Common.CANVAS_BOX_XY * 3);
+                break;
+            case UP:
+                minY = y - speed - (Common.CANVAS_BOX_XY * 2);
+                break;
+            case DOWN:
+                maxY = y + speed + (Common.CANVAS_BOX_XY * 3);
+                break;
+        }
+        return tiles.isInterior(tile, minX, minY, maxX, maxY);
+    }
+
+    private void forEachTile(TileTask task) {
+        loop.forEachChunk(tiles.getTileCount(), loop.getMaxChunkCount(), (chunk, from, to) -> {
+            for (int tile = from; tile < to; tile++)
+                task.run(chunk, tile);
+        });
+    }
+
+    /**
+     * Work on a single tile
+     */
+    @FunctionalInterface
+    private interface TileTask {
+        void run(int chunk, int tile);
+    }
+}
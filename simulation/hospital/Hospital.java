@@ -2,26 +2,36 @@ package simulation.hospital;
 
 import simulation.Common;
 import simulation.individual.Individual;
+import simulation.individual.Population;
 
-import java.util.ArrayList;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 
 /**
  * Hospital entity, Publisher in Pub/Sub design
  */
 public class Hospital {
     /**
-     * List of individuals that are hospitalized
+     * Individuals that are hospitalized, in admission order
+     * Every patient stays for the same time, so patients are discharged in admission order too
      */
-    private final ArrayList<Individual> patients;
+    private final ArrayDeque<Individual> patients;
     /**
      * Ventilator count of the hospital
      */
     private int ventilatorCount;
+    /**
+     * Admission iteration and index of each patient, sorted to attach the patients again in admission order
+     */
+    private long[] patientKeys;
 
     // Constructors
     public Hospital(int population) {
         ventilatorCount = population / 100;
-        patients = new ArrayList<>();
+        patients = new ArrayDeque<>();
+        patientKeys = new long[16];
     }
 
     // Getters and Setters
@@ -33,6 +43,19 @@ public class Hospital {
         return ventilatorCount;
     }
 
+    public void setVentilatorCount(int ventilatorCount) {
+        this.ventilatorCount = ventilatorCount;
+    }
+
+    /**
+     * Patients of the hospital in admission order
+     *
+     * @return Read-only view of the patients
+     */
+    public Collection<Individual> getPatients() {
+        return Collections.unmodifiableCollection(patients);
+    }
+
     /**
      * Perform hospital stuff on patients
      *
@@ -43,8 +66,6 @@ public class Hospital {
         int updatedVentilatorCount = population / 100;
         if (updatedVentilatorCount > ventilatorCount)
             ventilatorCount = updatedVentilatorCount;
-        for (Individual patient : patients)
-            curePatient(patient);
         /*
         for (Individual patient : patients)
             System.out.println("\tDEBUG::iteration:" + iteration + ", handlePatients()::patient::" + patient.toString());
@@ -53,12 +74,13 @@ public class Hospital {
     }
 
     /**
-     * Add this individual as a patient
+     * Add this individual as a patient, patient is cured on admission
      *
      * @param patient Incoming patient
      */
     public void attach(Individual patient) {
-        patients.add(patient);
+        patients.addLast(patient);
+        curePatient(patient);
     }
 
     /**
@@ -71,17 +93,41 @@ public class Hospital {
     }
 
     /**
-     * Notify all patients about new iteration, discharge them if needed
+     * Remove every patient without discharging them, used when the patients are attached again in a rebuilt population
+     */
+    public void clear() {
+        patients.clear();
+    }
+
+    /**
+     * Replace the patients with the hospitalized individuals of a rebuilt or reordered population, in admission order
+     *
+     * @param population Population of the society
+     */
+    public void reattach(Population population) {
+        int count = 0;
+        for (int i = 0; i < population.size(); i++) {
+            if (population.isHospitalized(i)) {
+                if (count == patientKeys.length)
+                    patientKeys = Arrays.copyOf(patientKeys, count * 2);
+                patientKeys[count++] = ((long) population.getHospitalizedAt(i) << 32) | i;
+            }
+        }
+        Arrays.sort(patientKeys, 0, count);
+        patients.clear();
+        for (int k = 0; k < count; k++)
+            attach(population.get((int) patientKeys[k]));
+    }
+
+    /**
+     * Notify patients whose time is up about new iteration, discharge them
+     * Only the patients at the head of the admission order are visited
      *
      * @param iteration Iteration of the simulation when method called.
      */
     public void notifyAllObservers(int iteration) {
-        ArrayList<Individual> dischargeList = new ArrayList<>();
-        for (Individual patient : patients)
-            if ((!patient.isAlive()) || (iteration > patient.getHospitalizedAt() + Common.AT_HOSPITAL_SEC))
-                dischargeList.add(patient);
-        for (Individual patient : dischargeList)
-            patient.discharge(this, iteration);
+        while (!patients.isEmpty() && iteration > patients.peekFirst().getHospitalizedAt() + Common.AT_HOSPITAL_SEC)
+            patients.peekFirst().discharge(this, iteration);
     }
 
     /**
@@ -7,189 +7,133 @@ import simulation.hospital.Subscriber;
 
 /**
  * Individual entity,  represents a single person in the society
+ * Light view over a single index of the Population, fields are kept in the Population store
  * Implements Subscriber to subscribe into hospital in Pub/Sub structure
  */
 public class Individual implements Subscriber {
     // Fields
     /**
-     * a unique number for each individual
+     * Store of the individual fields
      */
-    private final int ID;
+    private final Population population;
     /**
-     * X coordinate on the canvas
+     * Index of the individual in the population
      */
-    private int CoordinateX;
-    /**
-     * Y coordinate on the canvas
-     */
-    private int CoordinateY;
-    /**
-     * constant moving speed of an individual, S in [1,5] pixels/second
-     */
-    private final int Speed;
-    /**
-     * moving direction of an individual
-     */
-    private Common.Direction Direction;
-    /**
-     * the social distance that they practice when they collide with other individuals, D in [0,9] (in pixels)
-     */
-    private final int SocialDistance;
-    /**
-     * is the individual in interaction right now
-     */
-    private boolean IsInInteraction;
-    /**
-     * how many seconds passed after getting into interaction
-     */
-    private int InteractedUntil;
-    /**
-     * time spend in a social interaction, C in [1,5] seconds
-     */
-    private final int InteractionTime;
-    /**
-     * is the individual wear a mask or not
-     */
-    private final boolean IsMasked;
-    /**
-     * is the individual infected with a disease or not
-     */
-    private boolean IsInfected;
-    /**
-     * how many seconds passed after getting infected
-     */
-    private int InfectedAt;
-    /**
-     * is the individual hospitalized
-     */
-    private boolean IsHospitalized;
-    /**
-     * how many seconds passed after getting hospitalized
-     */
-    private int HospitalizedAt;
-    /**
-     * is the individual alive
-     */
-    private boolean IsAlive;
+    private final int index;
 
     // Constructors
-    public Individual(int id, int coordinateX, int coordinateY, int speed, Common.Direction direction, int socialDistance, int interactionTime, boolean isMasked, boolean isInfected, int infectedAt) {
-        ID = id;
-        CoordinateX = coordinateX;
-        CoordinateY = coordinateY;
-        Speed = speed;
-        Direction = direction;
-        SocialDistance = socialDistance;
-        InteractionTime = interactionTime;
-        IsInInteraction = false;
-        InteractedUntil = 0;
-        IsMasked = isMasked;
-        IsInfected = isInfected;
-        InfectedAt = infectedAt;
-        IsAlive = true;
-        IsHospitalized = false;
-        HospitalizedAt = 0;
+    Individual(Population population, int index) {
+        this.population = population;
+        this.index = index;
+    }
+
+    public Population getPopulation() {
+        return population;
+    }
+
+    public int getIndex() {
+        return index;
     }
 
     // Getters and Setters
     public int getID() {
-        return ID;
+        return population.getID(index);
     }
 
     public int getCoordinateX() {
-        return CoordinateX;
+        return population.getCoordinateX(index);
     }
 
     public void setCoordinateX(int coordinateX) {
-        CoordinateX = coordinateX;
+        population.setCoordinates(index, coordinateX, getCoordinateY());
     }
 
     public int getCoordinateY() {
-        return CoordinateY;
+        return population.getCoordinateY(index);
     }
 
     public void setCoordinateY(int coordinateY) {
-        CoordinateY = coordinateY;
+        population.setCoordinates(index, getCoordinateX(), coordinateY);
     }
 
     public int getSpeed() {
-        return Speed;
+        return population.getSpeed(index);
     }
 
     public Common.Direction getDirection() {
-        return Direction;
+        return population.getDirection(index);
     }
 
     public void setDirection(Common.Direction direction) {
-        Direction = direction;
+        population.setDirection(index, direction);
     }
 
     public int getSocialDistance() {
-        return SocialDistance;
+        return population.getSocialDistance(index);
     }
 
     public int getInteractionTime() {
-        return InteractionTime;
+        return population.getInteractionTime(index);
     }
 
     public boolean isInInteraction() {
-        return IsInInteraction;
+        return population.isInInteraction(index);
     }
 
     public void setInInteraction(boolean inInteraction) {
-        IsInInteraction = inInteraction;
+        population.setInInteraction(index, inInteraction);
     }
 
     public int getInteractedUntil() {
-        return InteractedUntil;
+        return population.getInteractedUntil(index);
     }
 
     public void setInteractedUntil(int interactedUntil) {
-        InteractedUntil = interactedUntil;
+        population.setInteractedUntil(index, interactedUntil);
     }
 
     public boolean isMasked() {
-        return IsMasked;
+        return population.isMasked(index);
     }
 
     public boolean isInfected() {
-        return IsInfected;
+        return population.isInfected(index);
     }
 
     public void setInfected(boolean infected) {
-        IsInfected = infected;
+        population.setInfected(index, infected);
     }
 
     public int getInfectedAt() {
-        return InfectedAt;
+        return population.getInfectedAt(index);
     }
 
     public void setInfectedAt(int infectedAt) {
-        InfectedAt = infectedAt;
+        population.setInfectedAt(index, infectedAt);
     }
 
     public boolean isAlive() {
-        return IsAlive;
+        return population.isAlive(index);
     }
 
     public void setAlive(boolean alive) {
-        IsAlive = alive;
+        population.setAlive(index, alive);
     }
 
     public boolean isHospitalized() {
-        return IsHospitalized;
+        return population.isHospitalized(index);
     }
 
     public void setHospitalized(boolean hospitalized) {
-        IsHospitalized = hospitalized;
+        population.setHospitalized(index, hospitalized);
     }
 
     public int getHospitalizedAt() {
-        return HospitalizedAt;
+        return population.getHospitalizedAt(index);
     }
 
     public void setHospitalizedAt(int hospitalizedAt) {
-        HospitalizedAt = hospitalizedAt;
+        population.setHospitalizedAt(index, hospitalizedAt);
     }
 
     // Helpers
@@ -199,30 +143,14 @@ public class Individual implements Subscriber {
      * @return Mask Factor
      */
     public double getMaskFactor() {
-        if (isMasked())
-            return 0.2;
-        else
-            return 1.0;
+        return population.getMaskFactor(index);
     }
 
     /**
      * Update position for one step to individuals direction with its speed
      */
     public void makeMove() {
-        switch (getDirection()) {
-            case LEFT:
-                this.setCoordinateX(getCoordinateX() - getSpeed());
-                break;
-            case RIGHT:
-                this.setCoordinateX(getCoordinateX() + getSpeed());
-                break;
-            case UP:
-                this.setCoordinateY(getCoordinateY() - getSpeed());
-                break;
-            case DOWN:
-                this.setCoordinateY(getCoordinateY() + getSpeed());
-                break;
-        }
+        population.makeMove(index);
     }
 
     // Subscriber methods
@@ -236,24 +164,39 @@ public class Individual implements Subscriber {
         Mediator.dischargeIndividual(this, hospital, iteration);
     }
 
+    @Override
+    public boolean equals(Object o) {
+        if (this == o)
+            return true;
+        if (!(o instanceof Individual))
+            return false;
+        Individual other = (Individual) o;
+        return population == other.population && index == other.index;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * System.identityHashCode(population) + index;
+    }
+
     @Override
     public String toString() {
         return "Individual{" +
-                "ID=" + ID +
-                ", CoordinateX=" + CoordinateX +
-                ", CoordinateY=" + CoordinateY +
-                ", Speed=" + Speed +
-                ", Direction=" + Direction +
-                ", SocialDistance=" + SocialDistance +
-                ", IsInInteraction=" + IsInInteraction +
-                ", InteractedUntil=" + InteractedUntil +
-                ", InteractionTime=" + InteractionTime +
-                ", IsMasked=" + IsMasked +
-                ", IsInfected=" + IsInfected +
-                ", InfectedAt=" + InfectedAt +
-                ", IsHospitalized=" + IsHospitalized +
-                ", HospitalizedAt=" + HospitalizedAt +
-                ", IsAlive=" + IsAlive +
+                "ID=" + getID() +
+                ", CoordinateX=" + getCoordinateX() +
+                ", CoordinateY=" + getCoordinateY() +
+                ", Speed=" + getSpeed() +
+                ", Direction=" + getDirection() +
+                ", SocialDistance=" + getSocialDistance() +
+                ", IsInInteraction=" + isInInteraction() +
+                ", InteractedUntil=" + getInteractedUntil() +
+                ", InteractionTime=" + getInteractionTime() +
+                ", IsMasked=" + isMasked() +
+                ", IsInfected=" + isInfected() +
+                ", InfectedAt=" + getInfectedAt() +
+                ", IsHospitalized=" + isHospitalized() +
+                ", HospitalizedAt=" + getHospitalizedAt() +
+                ", IsAlive=" + isAlive() +
                 '}';
     }
 }
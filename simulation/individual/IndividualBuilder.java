@@ -6,6 +6,14 @@ import simulation.Common;
  * Builder interface for Builder design pattern
  */
 public interface IndividualBuilder {
+    /**
+     * Start building the individual with given id, following values are generated for it
+     *
+     * @param iteration Iteration of the simulation when method called
+     * @param id        ID of the individual
+     */
+    void startIndividual(int iteration, int id);
+
     /**
      * Generate X coordinate for individual
      *
@@ -1,7 +1,5 @@
 package simulation.individual;
 
-import java.util.ArrayList;
-
 /**
  * Concrete Factory class for Individuals
  */
@@ -13,13 +11,14 @@ public class IndividualFactory implements Factory {
     }
 
     @Override
-    public Individual getIndividualInstance(int iteration, int id) {
+    public Individual addIndividualInstance(Population population, int iteration, int id) {
+        builder.startIndividual(iteration, id);
         boolean isInfected = builder.generateIsInfectedFlag();
         int infectedAt = 0;
         if (isInfected)
             infectedAt = iteration;
 
-        return new Individual(
+        int index = population.add(
                 id,
                 builder.generateCoordinateX(),
                 builder.generateCoordinateY(),
@@ -31,22 +30,21 @@ public class IndividualFactory implements Factory {
                 isInfected,
                 infectedAt
         );
+        return population.get(index);
     }
 
     @Override
-    public ArrayList<Individual> getIndividualInstances(int iteration, int currentPopulation, int count) {
-        ArrayList<Individual> result = new ArrayList<>();
+    public void addIndividualInstances(Population population, int iteration, int currentPopulation, int count) {
         for (int i = currentPopulation; i < currentPopulation + count; i++) {
-            result.add(getIndividualInstance(iteration, i));
+            addIndividualInstance(population, iteration, i);
         }
-        return result;
     }
 
     @Override
-    public ArrayList<Individual> getIndividualInstancesForInitialization(int count) {
-        ArrayList<Individual> result = new ArrayList<>();
+    public void addIndividualInstancesForInitialization(Population population, int count) {
         for (int i = 0; i < count; i++) {
-            result.add(new Individual(
+            builder.startIndividual(0, i);
+            population.add(
                     i,
                     builder.generateCoordinateX(),
                     builder.generateCoordinateY(),
@@ -57,9 +55,8 @@ public class IndividualFactory implements Factory {
                     builder.generateIsMaskedFlag(),
                     i == 0,
                     0
-            ));
+            );
         }
-        return result;
     }
 
 
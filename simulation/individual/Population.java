@@ -0,0 +1,468 @@
+package simulation.individual;
+
+import simulation.Common;
+import simulation.space.OccupancyMap;
+import simulation.space.SpatialGrid;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Individual store of the society, keeps every field of the individuals in primitive arrays
+ * Individuals are addressed by their index, Individual instances are only light views over this store
+ */
+public class Population implements Iterable<Individual> {
+    private static final Common.Direction[] DIRECTIONS = Common.Direction.values();
+    private static final int INITIAL_CAPACITY = 16;
+
+    // Flag bits
+    private static final byte MASKED = 1;
+    private static final byte INFECTED = 1 << 1;
+    private static final byte HOSPITALIZED = 1 << 2;
+    private static final byte ALIVE = 1 << 3;
+    private static final byte IN_INTERACTION = 1 << 4;
+    /**
+     * Flags that change the counters
+     */
+    private static final byte COUNTED = INFECTED | HOSPITALIZED | ALIVE;
+    /**
+     * Atomic access to the flags, phases that change different flags of an individual may run at the same time
+     */
+    private static final VarHandle FLAGS = MethodHandles.arrayElementVarHandle(byte[].class);
+
+    /**
+     * Number of individuals in the store
+     */
+    private int size;
+    /**
+     * Number of times the store was cleared, indexes of an earlier generation refer to other individuals
+     */
+    private int generation;
+    /**
+     * Unique number of each individual
+     */
+    private int[] id;
+    /**
+     * X coordinate of each individual
+     */
+    private int[] coordinateX;
+    /**
+     * Y coordinate of each individual
+     */
+    private int[] coordinateY;
+    /**
+     * Speed of each individual, S in [1, MAX_SPEED] does not fit in a byte
+     */
+    private short[] speed;
+    /**
+     * Ordinal of the moving direction of each individual
+     */
+    private byte[] direction;
+    /**
+     * Social distance of each individual, D in [0,9]
+     */
+    private byte[] socialDistance;
+    /**
+     * Interaction time of each individual, C in [1,5]
+     */
+    private byte[] interactionTime;
+    /**
+     * Packed masked, infected, hospitalized, alive and in interaction flags of each individual
+     */
+    private byte[] flags;
+    /**
+     * Iteration that interaction of each individual ends
+     */
+    private int[] interactedUntil;
+    /**
+     * Iteration that each individual got infected
+     */
+    private int[] infectedAt;
+    /**
+     * Iteration that each individual got hospitalized
+     */
+    private int[] hospitalizedAt;
+    /**
+     * Size of the world, coordinates are in [0, width] and [0, height]
+     */
+    private final int width;
+    private final int height;
+    /**
+     * Collision grid, kept up to date with coordinates
+     */
+    private final SpatialGrid collisionGrid;
+    /**
+     * Occupancy map, kept up to date with coordinates
+     */
+    private final OccupancyMap occupancyMap;
+    /**
+     * Running counts of the population, kept up to date with flags
+     */
+    private final PopulationCounters counters;
+    /**
+     * Indexes already filled by a reorder, reused by every reorder
+     */
+    private final BitSet reordered;
+
+    // Constructors
+    public Population(int width, int height) {
+        if (width <= 0 || height <= 0 || width > Common.MAX_WORLD_XY || height > Common.MAX_WORLD_XY)
+            throw new IllegalArgumentException("Population::Population()::world size out of range: " + width + "x" + height);
+        this.width = width;
+        this.height = height;
+        this.collisionGrid = new SpatialGrid(width, height, SpatialGrid.getCellSize(width, height, Common.COLLISION_CELL_XY));
+        this.occupancyMap = new OccupancyMap(width, height, SpatialGrid.getCellSize(width, height, Common.CANVAS_BOX_XY));
+        this.counters = new PopulationCounters();
+        this.reordered = new BitSet();
+        allocate(INITIAL_CAPACITY);
+    }
+
+    /**
+     * Add a new individual to the store
+     *
+     * @return index of the new individual
+     */
+    public int add(int id, int coordinateX, int coordinateY, int speed, Common.Direction direction, int socialDistance, int interactionTime, boolean isMasked, boolean isInfected, int infectedAt) {
+        return add(id, coordinateX, coordinateY, speed, direction, socialDistance, interactionTime, isMasked, isInfected, infectedAt, true, false, false, 0, 0);
+    }
+
+    /**
+     * Add an individual with every field given, used to restore a saved population
+     *
+     * @return index of the new individual
+     */
+    public int add(int id, int coordinateX, int coordinateY, int speed, Common.Direction direction, int socialDistance, int interactionTime, boolean isMasked, boolean isInfected, int infectedAt,
+                   boolean isAlive, boolean isHospitalized, boolean isInInteraction, int interactedUntil, int hospitalizedAt) {
+        if (size == this.id.length)
+            allocate(size * 2);
+        int index = size++;
+        this.id[index] = id;
+        this.coordinateX[index] = coordinateX;
+        this.coordinateY[index] = coordinateY;
+        this.speed[index] = (short) speed;
+        this.direction[index] = (byte) direction.ordinal();
+        this.socialDistance[index] = (byte) socialDistance;
+        this.interactionTime[index] = (byte) interactionTime;
+        this.flags[index] = (byte) ((isAlive ? ALIVE : 0) | (isMasked ? MASKED : 0) | (isInfected ? INFECTED : 0)
+                | (isHospitalized ? HOSPITALIZED : 0) | (isInInteraction ? IN_INTERACTION : 0));
+        this.interactedUntil[index] = interactedUntil;
+        this.infectedAt[index] = infectedAt;
+        this.hospitalizedAt[index] = hospitalizedAt;
+        collisionGrid.insert(index, coordinateX, coordinateY);
+        occupancyMap.insert(index, coordinateX, coordinateY);
+        counters.added(isAlive, isInfected, isHospitalized, isMasked, socialDistance);
+        return index;
+    }
+
+    /**
+     * Remove every individual from the store
+     */
+    public void clear() {
+        size = 0;
+        generation++;
+        collisionGrid.clear();
+        occupancyMap.clear();
+        counters.reset();
+    }
+
+    /**
+     * Move the individuals so that the one at index order[k] ends up at index k, the grids follow the new indexes
+     * Indexes and views taken before refer to other individuals afterwards, the caller remaps what it keeps
+     * Fields are moved along the cycles of the permutation, the slot after the last individual holds the start of a cycle
+     *
+     * @param order old index of each new index, a permutation of [0, size)
+     */
+    public void reorder(int[] order) {
+        if (size == id.length)
+            allocate(size * 2);
+        reordered.clear();
+        for (int start = 0; start < size; start++) {
+            if (reordered.get(start) || order[start] == start)
+                continue;
+            copy(start, size);
+            int to = start;
+            while (order[to] != start) {
+                copy(order[to], to);
+                reordered.set(to);
+                to = order[to];
+            }
+            copy(size, to);
+            reordered.set(to);
+        }
+        collisionGrid.reorder(order, size);
+        occupancyMap.reorder(order, size);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int getGeneration() {
+        return generation;
+    }
+
+    /**
+     * View of the individual at the given index
+     *
+     * @param index index of the individual
+     * @return Individual view
+     */
+    public Individual get(int index) {
+        if (index < 0 || index >= size)
+            throw new IndexOutOfBoundsException("Population::get()::index " + index + " out of bounds for size " + size);
+        return new Individual(this, index);
+    }
+
+    @Override
+    public Iterator<Individual> iterator() {
+        return new Iterator<>() {
+            private int index = 0;
+
+            @Override
+            public boolean hasNext() {
+                return index < size;
+            }
+
+            @Override
+            public Individual next() {
+                if (index >= size)
+                    throw new NoSuchElementException();
+                return new Individual(Population.this, index++);
+            }
+        };
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public SpatialGrid getCollisionGrid() {
+        return collisionGrid;
+    }
+
+    public OccupancyMap getOccupancyMap() {
+        return occupancyMap;
+    }
+
+    public PopulationCounters getCounters() {
+        return counters;
+    }
+
+    // Getters and Setters
+    public int getID(int index) {
+        return id[index];
+    }
+
+    public int getCoordinateX(int index) {
+        return coordinateX[index];
+    }
+
+    public int getCoordinateY(int index) {
+        return coordinateY[index];
+    }
+
+    /**
+     * Update coordinates of the individual, keeps the collision grid and the occupancy map up to date
+     *
+     * @param index       index of the individual
+     * @param coordinateX new X coordinate
+     * @param coordinateY new Y coordinate
+     */
+    public void setCoordinates(int index, int coordinateX, int coordinateY) {
+        this.coordinateX[index] = coordinateX;
+        this.coordinateY[index] = coordinateY;
+        collisionGrid.update(index, coordinateX, coordinateY);
+        occupancyMap.update(index, coordinateX, coordinateY);
+    }
+
+    public int getSpeed(int index) {
+        return speed[index];
+    }
+
+    public Common.Direction getDirection(int index) {
+        return DIRECTIONS[direction[index]];
+    }
+
+    public void setDirection(int index, Common.Direction direction) {
+        this.direction[index] = (byte) direction.ordinal();
+    }
+
+    public int getSocialDistance(int index) {
+        return socialDistance[index];
+    }
+
+    public int getInteractionTime(int index) {
+        return interactionTime[index];
+    }
+
+    public boolean isInInteraction(int index) {
+        return (flags[index] & IN_INTERACTION) != 0;
+    }
+
+    public void setInInteraction(int index, boolean inInteraction) {
+        setFlag(index, IN_INTERACTION, inInteraction);
+    }
+
+    public int getInteractedUntil(int index) {
+        return interactedUntil[index];
+    }
+
+    public void setInteractedUntil(int index, int interactedUntil) {
+        this.interactedUntil[index] = interactedUntil;
+    }
+
+    public boolean isMasked(int index) {
+        return (flags[index] & MASKED) != 0;
+    }
+
+    public boolean isInfected(int index) {
+        return (flags[index] & INFECTED) != 0;
+    }
+
+    public void setInfected(int index, boolean infected) {
+        setFlag(index, INFECTED, infected);
+    }
+
+    public int getInfectedAt(int index) {
+        return infectedAt[index];
+    }
+
+    public void setInfectedAt(int index, int infectedAt) {
+        this.infectedAt[index] = infectedAt;
+    }
+
+    public boolean isAlive(int index) {
+        return (flags[index] & ALIVE) != 0;
+    }
+
+    public void setAlive(int index, boolean alive) {
+        setFlag(index, ALIVE, alive);
+    }
+
+    public boolean isHospitalized(int index) {
+        return (flags[index] & HOSPITALIZED) != 0;
+    }
+
+    public void setHospitalized(int index, boolean hospitalized) {
+        setFlag(index, HOSPITALIZED, hospitalized);
+    }
+
+    public int getHospitalizedAt(int index) {
+        return hospitalizedAt[index];
+    }
+
+    public void setHospitalizedAt(int index, int hospitalizedAt) {
+        this.hospitalizedAt[index] = hospitalizedAt;
+    }
+
+    // Helpers
+
+    /**
+     * Return the factor value for individuals mask flag
+     *
+     * @param index index of the individual
+     * @return Mask Factor
+     */
+    public double getMaskFactor(int index) {
+        if (isMasked(index))
+            return 0.2;
+        else
+            return 1.0;
+    }
+
+    /**
+     * Update position for one step to individuals direction with its speed
+     *
+     * @param index index of the individual
+     */
+    public void makeMove(int index) {
+        int x = coordinateX[index], y = coordinateY[index], step = speed[index];
+        switch (getDirection(index)) {
+            case LEFT:
+                x -= step;
+                break;
+            case RIGHT:
+                x += step;
+                break;
+            case UP:
+                y -= step;
+                break;
+            case DOWN:
+                y += step;
+                break;
+        }
+        setCoordinates(index, x, y);
+    }
+
+    /**
+     * Change a flag with a compare-and-set of the flags byte, so a concurrent change of another flag is not lost
+     * and the counters are updated from the flags that were actually replaced
+     */
+    private void setFlag(int index, byte flag, boolean value) {
+        byte before, after;
+        do {
+            before = (byte) FLAGS.getVolatile(flags, index);
+            after = value ? (byte) (before | flag) : (byte) (before & ~flag);
+            if (before == after)
+                return;
+        } while (!FLAGS.compareAndSet(flags, index, before, after));
+        if ((flag & COUNTED) != 0)
+            counters.changed((before & ALIVE) != 0, (before & INFECTED) != 0, (before & HOSPITALIZED) != 0,
+                    (after & ALIVE) != 0, (after & INFECTED) != 0, (after & HOSPITALIZED) != 0,
+                    (after & MASKED) != 0, socialDistance[index]);
+    }
+
+    private void copy(int from, int to) {
+        id[to] = id[from];
+        coordinateX[to] = coordinateX[from];
+        coordinateY[to] = coordinateY[from];
+        speed[to] = speed[from];
+        direction[to] = direction[from];
+        socialDistance[to] = socialDistance[from];
+        interactionTime[to] = interactionTime[from];
+        flags[to] = flags[from];
+        interactedUntil[to] = interactedUntil[from];
+        infectedAt[to] = infectedAt[from];
+        hospitalizedAt[to] = hospitalizedAt[from];
+    }
+
+    private void allocate(int capacity) {
+        if (id == null) {
+            id = new int[capacity];
+            coordinateX = new int[capacity];
+            coordinateY = new int[capacity];
+            speed = new short[capacity];
+            direction = new byte[capacity];
+            socialDistance = new byte[capacity];
+            interactionTime = new byte[capacity];
+            flags = new byte[capacity];
+            interactedUntil = new int[capacity];
+            infectedAt = new int[capacity];
+            hospitalizedAt = new int[capacity];
+        } else {
+            id = Arrays.copyOf(id, capacity);
+            coordinateX = Arrays.copyOf(coordinateX, capacity);
+            coordinateY = Arrays.copyOf(coordinateY, capacity);
+            speed = Arrays.copyOf(speed, capacity);
+            direction = Arrays.copyOf(direction, capacity);
+            socialDistance = Arrays.copyOf(socialDistance, capacity);
+            interactionTime = Arrays.copyOf(interactionTime, capacity);
+            flags = Arrays.copyOf(flags, capacity);
+            interactedUntil = Arrays.copyOf(interactedUntil, capacity);
+            infectedAt = Arrays.copyOf(infectedAt, capacity);
+            hospitalizedAt = Arrays.copyOf(hospitalizedAt, capacity);
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package simulation.individual;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Running counts and sums of the population, updated on each state transition of an individual
+ * Adders are used since the parallel process state changes individuals from multiple threads
+ */
+public class PopulationCounters {
+    private final LongAdder healthy = new LongAdder();
+    private final LongAdder infected = new LongAdder();
+    private final LongAdder hospitalized = new LongAdder();
+    private final LongAdder casualty = new LongAdder();
+    private final LongAdder socialDistanceSum = new LongAdder();
+    private final LongAdder maskedCount = new LongAdder();
+    private final LongAdder aliveSocialDistanceSum = new LongAdder();
+    private final LongAdder aliveMaskedCount = new LongAdder();
+
+    /**
+     * Account a new individual
+     */
+    void added(boolean alive, boolean isInfected, boolean isHospitalized, boolean isMasked, int socialDistance) {
+        socialDistanceSum.add(socialDistance);
+        if (isMasked)
+            maskedCount.increment();
+        account(alive, isInfected, isHospitalized, isMasked, socialDistance, 1);
+    }
+
+    /**
+     * Move an individual from its old state to its new state
+     */
+    void changed(boolean wasAlive, boolean wasInfected, boolean wasHospitalized, boolean alive, boolean isInfected, boolean isHospitalized, boolean isMasked, int socialDistance) {
+        account(wasAlive, wasInfected, wasHospitalized, isMasked, socialDistance, -1);
+        account(alive, isInfected, isHospitalized, isMasked, socialDistance, 1);
+    }
+
+    void reset() {
+        healthy.reset();
+        infected.reset();
+        hospitalized.reset();
+        casualty.reset();
+        socialDistanceSum.reset();
+        maskedCount.reset();
+        aliveSocialDistanceSum.reset();
+        aliveMaskedCount.reset();
+    }
+
+    private void account(boolean alive, boolean isInfected, boolean isHospitalized, boolean isMasked, int socialDistance, int sign) {
+        if (!alive) {
+            casualty.add(sign);
+            return;
+        }
+        if (isHospitalized)
+            hospitalized.add(sign);
+        else if (isInfected)
+            infected.add(sign);
+        else
+            healthy.add(sign);
+        aliveSocialDistanceSum.add((long) sign * socialDistance);
+        if (isMasked)
+            aliveMaskedCount.add(sign);
+    }
+
+    // Getters
+    public long getHealthyCount() {
+        return healthy.sum();
+    }
+
+    public long getInfectedCount() {
+        return infected.sum();
+    }
+
+    public long getHospitalizedCount() {
+        return hospitalized.sum();
+    }
+
+    public long getCasualtyCount() {
+        return casualty.sum();
+    }
+
+    public long getSocialDistanceSum() {
+        return socialDistanceSum.sum();
+    }
+
+    public long getMaskedCount() {
+        return maskedCount.sum();
+    }
+
+    public long getAliveSocialDistanceSum() {
+        return aliveSocialDistanceSum.sum();
+    }
+
+    public long getAliveMaskedCount() {
+        return aliveMaskedCount.sum();
+    }
+}
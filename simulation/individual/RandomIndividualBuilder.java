@@ -1,52 +1,76 @@
 package simulation.individual;
 
 import simulation.Common;
-
-import java.util.Random;
+import simulation.random.CounterRandom;
+import simulation.random.RandomStream;
 
 /**
  * Concrete builder class to use in factory, uses random calculation in project requirements
+ * Values are drawn from the simulation random for the iteration and the ID of the individual
  */
 public class RandomIndividualBuilder implements IndividualBuilder {
-    private static final Random RANDOM = new Random();
+    private final CounterRandom random;
+    private final int width;
+    private final int height;
+    private int iteration;
+    private int id;
+
+    /**
+     * Builder of individuals placed in a world of the given size
+     *
+     * @param random Simulation random
+     * @param width  Width of the world, X coordinates are drawn in [0, width)
+     * @param height Height of the world, Y coordinates are drawn in [0, height)
+     */
+    public RandomIndividualBuilder(CounterRandom random, int width, int height) {
+        this.random = random;
+        this.width = width;
+        this.height = height;
+    }
+
+    @Override
+    public void startIndividual(int iteration, int id) {
+        this.iteration = iteration;
+        this.id = id;
+    }
 
     @Override
     public int generateCoordinateX() {
-        return RANDOM.nextInt(Common.CANVAS_X);
+        return random.nextInt(iteration, id, RandomStream.COORDINATE_X, width);
     }
 
     @Override
     public int generateCoordinateY() {
-        return RANDOM.nextInt(Common.CANVAS_Y);
+        return random.nextInt(iteration, id, RandomStream.COORDINATE_Y, height);
     }
 
     @Override
     public int generateSpeed() {
-        return RANDOM.nextInt(Common.MAX_SPEED) + 1;
+        return random.nextInt(iteration, id, RandomStream.SPEED, Common.MAX_SPEED) + 1;
     }
 
     @Override
     public Common.Direction generateRandomDirection() {
-        return Common.getRandomDirection();
+        return Common.getRandomDirection(random, iteration, id, RandomStream.DIRECTION);
     }
 
     @Override
     public int generateSocialDistance() {
-        return RANDOM.nextInt(Common.MAX_SOCIAL_DISTANCE);
+        return random.nextInt(iteration, id, RandomStream.SOCIAL_DISTANCE, Common.MAX_SOCIAL_DISTANCE);
     }
 
     @Override
     public int generateInteractionTime() {
-        return RANDOM.nextInt(Common.MAX_INTERACTION_TIME) + 1;
+        return random.nextInt(iteration, id, RandomStream.INTERACTION_TIME, Common.MAX_INTERACTION_TIME) + 1;
     }
 
     @Override
     public boolean generateIsMaskedFlag() {
-        return RANDOM.nextInt(2) % 2 == 0;
+        return random.nextBoolean(iteration, id, RandomStream.MASKED);
     }
 
     @Override
     public boolean generateIsInfectedFlag() {
-        return RANDOM.nextInt(2) % 2 == 0;
+        return random.nextBoolean(iteration, id, RandomStream.INFECTED);
     }
 }
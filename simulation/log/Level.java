@@ -0,0 +1,12 @@
+package simulation.log;
+
+/**
+ * Severity levels of log messages, OFF disables every message
+ */
+public enum Level {
+    DEBUG,
+    INFO,
+    WARN,
+    ERROR,
+    OFF
+}
@@ -0,0 +1,185 @@
+package simulation.log;
+
+import java.io.BufferedWriter;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+/**
+ * Logging facade of the simulation
+ * Messages are built lazily only if their level is enabled, then handed to a lock-free ring buffer
+ * that a background thread writes to the standard output, so callers never wait for I/O
+ * Level is read from the "simulation.log.level" system property, INFO by default
+ */
+public final class Log {
+    /**
+     * Ring buffer capacity, a power of two
+     */
+    private static final int CAPACITY = 1 << 13;
+    private static final int MASK = CAPACITY - 1;
+
+    private static volatile Level level = Level.valueOf(System.getProperty("simulation.log.level", Level.INFO.name()).toUpperCase());
+
+    // Ring buffer slots
+    private static final Level[] levels = new Level[CAPACITY];
+    private static final long[] times = new long[CAPACITY];
+    private static final String[] threads = new String[CAPACITY];
+    private static final String[] messages = new String[CAPACITY];
+    /**
+     * Sequence of each slot, a slot is readable when its sequence is one past its position
+     */
+    private static final AtomicLongArray published = new AtomicLongArray(CAPACITY);
+    /**
+     * Next position to claim for producers
+     */
+    private static final AtomicLong tail = new AtomicLong();
+    /**
+     * Next position to read for the writer
+     */
+    private static volatile long head;
+    /**
+     * Every message before this position is written to the output
+     */
+    private static volatile long flushed;
+    /**
+     * Messages dropped because the buffer was full
+     */
+    private static final AtomicLong dropped = new AtomicLong();
+
+    private static volatile Thread writer;
+    private static volatile boolean writerParked;
+
+    private Log() {
+    }
+
+    public static Level getLevel() {
+        return level;
+    }
+
+    public static void setLevel(Level level) {
+        Log.level = level;
+    }
+
+    public static boolean isEnabled(Level level) {
+        return level != Level.OFF && level.compareTo(Log.level) >= 0;
+    }
+
+    public static long getDroppedCount() {
+        return dropped.get();
+    }
+
+    public static void debug(Supplier<String> message) {
+        log(Level.DEBUG, message);
+    }
+
+    public static void info(Supplier<String> message) {
+        log(Level.INFO, message);
+    }
+
+    public static void warn(Supplier<String> message) {
+        log(Level.WARN, message);
+    }
+
+    public static void error(Supplier<String> message) {
+        log(Level.ERROR, message);
+    }
+
+    public static void error(Supplier<String> message, Throwable throwable) {
+        if (isEnabled(Level.ERROR)) {
+            StringWriter trace = new StringWriter();
+            throwable.printStackTrace(new PrintWriter(trace));
+            enqueue(Level.ERROR, message.get() + System.lineSeparator() + trace);
+        }
+    }
+
+    /**
+     * Log the message if the level is enabled, the message is not built otherwise
+     *
+     * @param level   Level of the message
+     * @param message Message builder
+     */
+    public static void log(Level level, Supplier<String> message) {
+        if (isEnabled(level))
+            enqueue(level, message.get());
+    }
+
+    /**
+     * Wait until every message logged so far is written
+     */
+    public static void flush() {
+        long target = tail.get();
+        while (flushed < target && writer != null && writer.isAlive()) {
+            LockSupport.unpark(writer);
+            Thread.onSpinWait();
+        }
+    }
+
+    private static void enqueue(Level level, String message) {
+        long position;
+        do {
+            position = tail.get();
+            if (position - head >= CAPACITY) {
+                dropped.incrementAndGet();
+                return;
+            }
+        } while (!tail.compareAndSet(position, position + 1));
+        int slot = (int) (position & MASK);
+        levels[slot] = level;
+        times[slot] = System.currentTimeMillis();
+        threads[slot] = Thread.currentThread().getName();
+        messages[slot] = message;
+        published.set(slot, position + 1);
+        Thread current = writer;
+        if (current == null)
+            current = startWriter();
+        if (writerParked)
+            LockSupport.unpark(current);
+    }
+
+    private static synchronized Thread startWriter() {
+        if (writer == null) {
+            Thread thread = new Thread(Log::drainLoop, "log-writer");
+            thread.setDaemon(true);
+            writer = thread;
+            thread.start();
+            Runtime.getRuntime().addShutdownHook(new Thread(Log::flush, "log-flush"));
+        }
+        return writer;
+    }
+
+    private static void drainLoop() {
+        Writer out = new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8), 1 << 16);
+        long position = head;
+        try {
+            while (true) {
+                int slot = (int) (position & MASK);
+                if (published.get(slot) != position + 1) {
+                    out.flush();
+                    flushed = position;
+                    writerParked = true;
+                    if (published.get(slot) != position + 1)
+                        LockSupport.park();
+                    writerParked = false;
+                    continue;
+                }
+                out.write(format(levels[slot], times[slot], threads[slot], messages[slot]));
+                messages[slot] = null;
+                position++;
+                head = position;
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+    }
+
+    private static String format(Level level, long time, String thread, String message) {
+        return Instant.ofEpochMilli(time) + " " + level + " [" + thread + "] " + message + System.lineSeparator();
+    }
+}
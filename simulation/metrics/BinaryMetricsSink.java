@@ -0,0 +1,155 @@
+package simulation.metrics;
+
+import simulation.Statistics;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Writes iterations in compact columnar blocks, little-endian
+ * File header: magic, version, rows per block
+ * Block: row count, then each column of the block; a count column is a width byte, the value of the first row as an int,
+ * then the delta of every other row from the previous row, all with that fixed width of 1, 2 or 4 bytes; a ratio column is a 4 byte float per row
+ * Every block starts from a full value, so it can be decoded on its own
+ */
+public class BinaryMetricsSink extends ChannelMetricsSink {
+    /**
+     * "ESMT", first bytes of every metrics file
+     */
+    public static final int MAGIC = 0x45534D54;
+    public static final int VERSION = 1;
+    public static final int BLOCK_ROWS = 4096;
+    /**
+     * Iteration, total, healthy, infected, hospitalized and casualty counts
+     */
+    private static final int COUNT_COLUMNS = 6;
+    /**
+     * Average social distance, mask usage percentage and their current values
+     */
+    private static final int RATIO_COLUMNS = 4;
+    private static final int MAX_BLOCK_BYTES = 4 + COUNT_COLUMNS * (1 + 4 + 4 * BLOCK_ROWS) + RATIO_COLUMNS * 4 * BLOCK_ROWS;
+
+    /**
+     * Rows of the current block, column by column
+     */
+    private final int[][] counts;
+    private final float[][] ratios;
+    private int rows;
+
+    // Constructors
+    public BinaryMetricsSink(Path path) throws IOException {
+        this(path, Math.max(DEFAULT_BUFFER_BYTES, MAX_BLOCK_BYTES));
+    }
+
+    public BinaryMetricsSink(Path path, int bufferBytes) throws IOException {
+        super(path, bufferBytes);
+        this.counts = new int[COUNT_COLUMNS][BLOCK_ROWS];
+        this.ratios = new float[RATIO_COLUMNS][BLOCK_ROWS];
+        reserve(12).putInt(MAGIC).putInt(VERSION).putInt(BLOCK_ROWS);
+    }
+
+    @Override
+    public void record(Statistics statistics) {
+        counts[0][rows] = statistics.getIteration();
+        counts[1][rows] = (int) statistics.getTotalCount();
+        counts[2][rows] = (int) statistics.getHealthyCount();
+        counts[3][rows] = (int) statistics.getInfectedCount();
+        counts[4][rows] = (int) statistics.getHospitalizedCount();
+        counts[5][rows] = (int) statistics.getCasualtyCount();
+        ratios[0][rows] = (float) statistics.getAverageSocialDistance();
+        ratios[1][rows] = (float) statistics.getMaskUsagePercentage();
+        ratios[2][rows] = (float) statistics.getCurrentAverageSocialDistance();
+        ratios[3][rows] = (float) statistics.getCurrentMaskUsagePercentage();
+        if (++rows == BLOCK_ROWS)
+            encodeBlock();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (rows > 0)
+            encodeBlock();
+        super.close();
+    }
+
+    /**
+     * Read every iteration of a metrics file, ratios have the precision of a float
+     *
+     * @param path Path of the metrics file
+     * @return Statistics of the iterations in recorded order
+     * @throws IOException if the file cannot be read, or it is not a metrics file of a supported version
+     */
+    public static List<Statistics> read(Path path) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(path)).order(ByteOrder.LITTLE_ENDIAN);
+        if (buffer.remaining() < 12 || buffer.getInt() != MAGIC)
+            throw new IOException("BinaryMetricsSink::read()::not a metrics file: " + path);
+        int version = buffer.getInt();
+        if (version != VERSION)
+            throw new IOException("BinaryMetricsSink::read()::unsupported version " + version + ": " + path);
+        buffer.getInt();
+        List<Statistics> result = new ArrayList<>();
+        while (buffer.hasRemaining()) {
+            int rows = buffer.getInt();
+            int[][] counts = new int[COUNT_COLUMNS][rows];
+            for (int[] column : counts) {
+                int width = buffer.get();
+                int value = buffer.getInt();
+                column[0] = value;
+                for (int row = 1; row < rows; row++) {
+                    value += width == 1 ? buffer.get() : width == 2 ? buffer.getShort() : buffer.getInt();
+                    column[row] = value;
+                }
+            }
+            float[][] ratios = new float[RATIO_COLUMNS][rows];
+            for (float[] column : ratios)
+                for (int row = 0; row < rows; row++)
+                    column[row] = buffer.getFloat();
+            for (int row = 0; row < rows; row++)
+                result.add(new Statistics(counts[0][row], counts[1][row], counts[2][row], counts[3][row], counts[4][row], counts[5][row],
+                        ratios[0][row], ratios[1][row], ratios[2][row], ratios[3][row]));
+        }
+        return result;
+    }
+
+    private void encodeBlock() {
+        ByteBuffer buffer = reserve(MAX_BLOCK_BYTES);
+        buffer.putInt(rows);
+        for (int[] column : counts) {
+            int width = getDeltaWidth(column);
+            buffer.put((byte) width);
+            buffer.putInt(column[0]);
+            for (int row = 1; row < rows; row++) {
+                int delta = column[row] - column[row - 1];
+                if (width == 1)
+                    buffer.put((byte) delta);
+                else if (width == 2)
+                    buffer.putShort((short) delta);
+                else
+                    buffer.putInt(delta);
+            }
+        }
+        for (float[] column : ratios)
+            for (int row = 0; row < rows; row++)
+                buffer.putFloat(column[row]);
+        rows = 0;
+    }
+
+    /**
+     * Smallest width in bytes that holds every delta of the column
+     */
+    private int getDeltaWidth(int[] column) {
+        int width = 1;
+        for (int row = 1; row < rows; row++) {
+            int delta = column[row] - column[row - 1];
+            if (delta < Short.MIN_VALUE || delta > Short.MAX_VALUE)
+                return 4;
+            if (delta < Byte.MIN_VALUE || delta > Byte.MAX_VALUE)
+                width = 2;
+        }
+        return width;
+    }
+}
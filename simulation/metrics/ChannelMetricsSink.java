@@ -0,0 +1,109 @@
+package simulation.metrics;
+
+import simulation.log.Log;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Base of the sinks that encode into large direct buffers, full buffers are written to the file on a background thread
+ * A fixed number of buffers is allocated up front, the heap does not grow with the length of the run
+ * The simulation thread only waits if every buffer is full and still queued for writing
+ */
+abstract class ChannelMetricsSink implements MetricsSink {
+    static final int DEFAULT_BUFFER_BYTES = 1 << 20;
+    private static final int BUFFER_COUNT = 3;
+
+    private final FileChannel channel;
+    private final ExecutorService writer;
+    /**
+     * Buffers that are written and ready to be filled again
+     */
+    private final BlockingQueue<ByteBuffer> free;
+    /**
+     * Buffer that is being filled by the simulation thread
+     */
+    private ByteBuffer buffer;
+    private volatile IOException failure;
+
+    // Constructors
+    ChannelMetricsSink(Path path, int bufferBytes) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+        this.writer = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "metrics-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.free = new ArrayBlockingQueue<>(BUFFER_COUNT);
+        for (int i = 0; i < BUFFER_COUNT - 1; i++)
+            free.add(ByteBuffer.allocateDirect(bufferBytes).order(ByteOrder.LITTLE_ENDIAN));
+        this.buffer = ByteBuffer.allocateDirect(bufferBytes).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * Buffer with room for the given number of bytes, the current one is handed to the writer if it is too full
+     *
+     * @param bytes Number of bytes that will be put
+     * @return Buffer to put the bytes into
+     */
+    ByteBuffer reserve(int bytes) {
+        if (bytes > buffer.capacity())
+            throw new IllegalArgumentException("ChannelMetricsSink::reserve()::record is larger than the buffer: " + bytes);
+        if (buffer.remaining() < bytes)
+            flush();
+        return buffer;
+    }
+
+    /**
+     * Hand the current buffer to the writer and continue with a free one
+     */
+    void flush() {
+        if (buffer.position() == 0)
+            return;
+        ByteBuffer full = buffer;
+        writer.execute(() -> write(full));
+        try {
+            buffer = free.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("ChannelMetricsSink::flush()::interrupted while waiting for a free buffer", e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        flush();
+        writer.shutdown();
+        try {
+            writer.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        channel.close();
+        if (failure != null)
+            throw failure;
+    }
+
+    private void write(ByteBuffer full) {
+        full.flip();
+        try {
+            while (full.hasRemaining())
+                channel.write(full);
+        } catch (IOException e) {
+            if (failure == null)
+                Log.error(() -> "ChannelMetricsSink::write()::cannot write metrics", e);
+            failure = e;
+        }
+        full.clear();
+        free.add(full);
+    }
+}
@@ -0,0 +1,99 @@
+package simulation.metrics;
+
+import simulation.Statistics;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+
+/**
+ * Writes one CSV line per iteration, numbers are encoded straight into the buffer without building strings
+ */
+public class CsvMetricsSink extends ChannelMetricsSink {
+    public static final String HEADER = "iteration,total,healthy,infected,hospitalized,casualty,"
+            + "averageSocialDistance,maskUsagePercentage,currentAverageSocialDistance,currentMaskUsagePercentage\n";
+    /**
+     * Longest line: 6 counts of at most 20 characters, 4 ratios of at most 24 characters and the separators
+     */
+    private static final int MAX_LINE_BYTES = 6 * 20 + 4 * 24 + 10;
+    private static final long DECIMAL_SCALE = 1000;
+    private static final byte[] NAN = "NaN".getBytes(StandardCharsets.US_ASCII);
+
+    /**
+     * Digits of the number being encoded, in reverse order
+     */
+    private final byte[] digits;
+
+    // Constructors
+    public CsvMetricsSink(Path path) throws IOException {
+        this(path, DEFAULT_BUFFER_BYTES);
+    }
+
+    public CsvMetricsSink(Path path, int bufferBytes) throws IOException {
+        super(path, bufferBytes);
+        this.digits = new byte[20];
+        reserve(HEADER.length()).put(HEADER.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    @Override
+    public void record(Statistics statistics) {
+        ByteBuffer buffer = reserve(MAX_LINE_BYTES);
+        putLong(buffer, statistics.getIteration());
+        buffer.put((byte) ',');
+        putLong(buffer, (long) statistics.getTotalCount());
+        buffer.put((byte) ',');
+        putLong(buffer, (long) statistics.getHealthyCount());
+        buffer.put((byte) ',');
+        putLong(buffer, (long) statistics.getInfectedCount());
+        buffer.put((byte) ',');
+        putLong(buffer, (long) statistics.getHospitalizedCount());
+        buffer.put((byte) ',');
+        putLong(buffer, (long) statistics.getCasualtyCount());
+        buffer.put((byte) ',');
+        putDecimal(buffer, statistics.getAverageSocialDistance());
+        buffer.put((byte) ',');
+        putDecimal(buffer, statistics.getMaskUsagePercentage());
+        buffer.put((byte) ',');
+        putDecimal(buffer, statistics.getCurrentAverageSocialDistance());
+        buffer.put((byte) ',');
+        putDecimal(buffer, statistics.getCurrentMaskUsagePercentage());
+        buffer.put((byte) '\n');
+    }
+
+    private void putLong(ByteBuffer buffer, long value) {
+        if (value < 0) {
+            buffer.put((byte) '-');
+            value = -value;
+        }
+        int count = 0;
+        do {
+            digits[count++] = (byte) ('0' + value % 10);
+            value /= 10;
+        } while (value > 0);
+        while (count > 0)
+            buffer.put(digits[--count]);
+    }
+
+    /**
+     * Put a ratio with a fixed number of decimals, values that do not fit in a long are written as NaN like the ratios of an empty society
+     */
+    private void putDecimal(ByteBuffer buffer, double value) {
+        if (Double.isNaN(value) || Double.isInfinite(value) || Math.abs(value) >= Long.MAX_VALUE / DECIMAL_SCALE) {
+            buffer.put(NAN);
+            return;
+        }
+        long scaled = Math.round(value * DECIMAL_SCALE);
+        if (scaled < 0) {
+            buffer.put((byte) '-');
+            scaled = -scaled;
+        }
+        putLong(buffer, scaled / DECIMAL_SCALE);
+        buffer.put((byte) '.');
+        long fraction = scaled % DECIMAL_SCALE;
+        for (long scale = DECIMAL_SCALE / 10; scale > 0; scale /= 10) {
+            buffer.put((byte) ('0' + fraction / scale));
+            fraction %= scale;
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package simulation.metrics;
+
+import simulation.Simulator;
+import simulation.Statistics;
+import simulation.TickListener;
+import simulation.phase.AgentState;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Destination of the statistics of every iteration, fed once per tick from the simulation thread
+ * Added to a simulator as a tick listener, record() must return quickly and leave slow work to another thread
+ */
+public interface MetricsSink extends TickListener, Closeable {
+    /**
+     * Record the statistics of an iteration
+     *
+     * @param statistics Statistics published at the end of the iteration
+     */
+    void record(Statistics statistics);
+
+    @Override
+    default void onTick(Simulator simulator, Statistics statistics) {
+        record(statistics);
+    }
+
+    @Override
+    default Set<AgentState> getReads() {
+        return EnumSet.of(AgentState.STATISTICS);
+    }
+
+    /**
+     * Write every recorded iteration and release the sink
+     *
+     * @throws IOException if a buffer could not be written
+     */
+    @Override
+    void close() throws IOException;
+}
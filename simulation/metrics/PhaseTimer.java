@@ -0,0 +1,113 @@
+package simulation.metrics;
+
+import simulation.util.QuantileSketch;
+
+/**
+ * Latency histogram and agent count of a phase of the iteration
+ * Written by the thread that runs the phase and read by JMX, each method holds the timer lock for a few operations
+ */
+public class PhaseTimer implements PhaseTimerMBean {
+    private static final double NANOS_PER_MILLI = 1000000.0;
+
+    private final String name;
+    /**
+     * Latencies in nanoseconds
+     */
+    private QuantileSketch latencies;
+    private long totalNanos;
+    private long maxNanos;
+    private long lastNanos;
+    private long agentsTouched;
+    private long lastAgentsTouched;
+
+    // Constructors
+    public PhaseTimer(String name) {
+        this.name = name;
+        this.latencies = new QuantileSketch();
+    }
+
+    /**
+     * Record a run of the phase
+     *
+     * @param nanos   Duration of the run
+     * @param touched Number of individuals the run visited
+     */
+    public synchronized void record(long nanos, int touched) {
+        latencies.add(nanos);
+        totalNanos += nanos;
+        maxNanos = Math.max(maxNanos, nanos);
+        lastNanos = nanos;
+        agentsTouched += touched;
+        lastAgentsTouched = touched;
+    }
+
+    @Override
+    public synchronized void reset() {
+        latencies = new QuantileSketch();
+        totalNanos = 0;
+        maxNanos = 0;
+        lastNanos = 0;
+        agentsTouched = 0;
+        lastAgentsTouched = 0;
+    }
+
+    // Getters
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public synchronized long getCount() {
+        return latencies.getCount();
+    }
+
+    @Override
+    public synchronized double getLastMillis() {
+        return lastNanos / NANOS_PER_MILLI;
+    }
+
+    @Override
+    public synchronized double getMeanMillis() {
+        return latencies.getCount() == 0 ? 0 : totalNanos / NANOS_PER_MILLI / latencies.getCount();
+    }
+
+    @Override
+    public synchronized double getMaxMillis() {
+        return maxNanos / NANOS_PER_MILLI;
+    }
+
+    @Override
+    public double getP50Millis() {
+        return getQuantileMillis(0.5);
+    }
+
+    @Override
+    public double getP90Millis() {
+        return getQuantileMillis(0.9);
+    }
+
+    @Override
+    public double getP99Millis() {
+        return getQuantileMillis(0.99);
+    }
+
+    @Override
+    public synchronized long getAgentsTouched() {
+        return agentsTouched;
+    }
+
+    @Override
+    public synchronized long getLastAgentsTouched() {
+        return lastAgentsTouched;
+    }
+
+    @Override
+    public synchronized double getMeanAgentsTouched() {
+        return latencies.getCount() == 0 ? 0 : (double) agentsTouched / latencies.getCount();
+    }
+
+    private synchronized double getQuantileMillis(double quantile) {
+        return latencies.getCount() == 0 ? 0 : latencies.getQuantile(quantile) / NANOS_PER_MILLI;
+    }
+}
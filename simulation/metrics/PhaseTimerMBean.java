@@ -0,0 +1,33 @@
+package simulation.metrics;
+
+/**
+ * Management interface of a phase timer, latencies are in milliseconds
+ */
+public interface PhaseTimerMBean {
+    String getName();
+
+    long getCount();
+
+    double getLastMillis();
+
+    double getMeanMillis();
+
+    double getMaxMillis();
+
+    double getP50Millis();
+
+    double getP90Millis();
+
+    double getP99Millis();
+
+    /**
+     * Individuals touched by every recorded run of the phase
+     */
+    long getAgentsTouched();
+
+    long getLastAgentsTouched();
+
+    double getMeanAgentsTouched();
+
+    void reset();
+}
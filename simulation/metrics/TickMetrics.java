@@ -0,0 +1,179 @@
+package simulation.metrics;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Cost and outcome of the iterations of a simulator, recorded by the process states around each phase
+ * A phase costs two reads of the nano clock and an uncontended lock, registered under the platform MBean server
+ * as simulation:type=TickMetrics,name=[name] with a simulation:type=TickMetrics,name=[name],phase=[phase] bean per phase
+ */
+public class TickMetrics implements TickMetricsMBean {
+    private static final String DOMAIN = "simulation";
+
+    private final PhaseTimer tick;
+    private final Map<TickPhase, PhaseTimer> phases;
+    private final LongAdder collisions = new LongAdder();
+    private final LongAdder infections = new LongAdder();
+    private final LongAdder admissions = new LongAdder();
+    private final LongAdder deaths = new LongAdder();
+    /**
+     * Names of the registered beans, empty if the metrics are not registered
+     */
+    private final List<ObjectName> registered;
+
+    // Constructors
+    public TickMetrics() {
+        this.tick = new PhaseTimer("tick");
+        this.phases = new EnumMap<>(TickPhase.class);
+        for (TickPhase phase : TickPhase.values())
+            phases.put(phase, new PhaseTimer(phase.getPhaseName()));
+        this.registered = new ArrayList<>();
+    }
+
+    /**
+     * Record a run of a phase that started at the given time
+     *
+     * @param phase     Phase
+     * @param startTime System.nanoTime() at the start of the phase
+     * @param touched   Number of individuals the phase visited
+     * @return System.nanoTime() at the end of the phase, the start time of the next phase
+     */
+    public long record(TickPhase phase, long startTime, int touched) {
+        long endTime = System.nanoTime();
+        phases.get(phase).record(endTime - startTime, touched);
+        return endTime;
+    }
+
+    /**
+     * Record a whole iteration that started at the given time
+     *
+     * @param startTime System.nanoTime() at the start of the iteration
+     * @param touched   Number of individuals of the society
+     */
+    public void recordTick(long startTime, int touched) {
+        tick.record(System.nanoTime() - startTime, touched);
+    }
+
+    public void addCollisions(long count) {
+        collisions.add(count);
+    }
+
+    public void addInfections(long count) {
+        infections.add(count);
+    }
+
+    public void addAdmissions(long count) {
+        admissions.add(count);
+    }
+
+    public void addDeaths(long count) {
+        deaths.add(count);
+    }
+
+    /**
+     * Register the metrics and the timer of each phase to the platform MBean server
+     *
+     * @param name Name of the simulator in the object names
+     */
+    public synchronized void register(String name) {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            ObjectName objectName = ObjectName.getInstance(DOMAIN + ":type=TickMetrics,name=" + ObjectName.quote(name));
+            server.registerMBean(this, objectName);
+            registered.add(objectName);
+            for (PhaseTimer timer : phases.values()) {
+                ObjectName phaseName = ObjectName.getInstance(objectName + ",phase=" + timer.getName());
+                server.registerMBean(timer, phaseName);
+                registered.add(phaseName);
+            }
+        } catch (JMException e) {
+            unregister();
+            throw new IllegalStateException("TickMetrics::register()::cannot register " + name, e);
+        }
+    }
+
+    /**
+     * Remove the registered beans from the platform MBean server, nothing is done if the metrics are not registered
+     */
+    public synchronized void unregister() {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        for (ObjectName objectName : registered) {
+            try {
+                server.unregisterMBean(objectName);
+            } catch (JMException ignored) {
+                // Already removed from outside
+            }
+        }
+        registered.clear();
+    }
+
+    @Override
+    public void reset() {
+        tick.reset();
+        for (PhaseTimer timer : phases.values())
+            timer.reset();
+        collisions.reset();
+        infections.reset();
+        admissions.reset();
+        deaths.reset();
+    }
+
+    // Getters
+    public PhaseTimer getPhaseTimer(TickPhase phase) {
+        return phases.get(phase);
+    }
+
+    @Override
+    public long getTickCount() {
+        return tick.getCount();
+    }
+
+    @Override
+    public double getLastTickMillis() {
+        return tick.getLastMillis();
+    }
+
+    @Override
+    public double getMeanTickMillis() {
+        return tick.getMeanMillis();
+    }
+
+    @Override
+    public double getMaxTickMillis() {
+        return tick.getMaxMillis();
+    }
+
+    @Override
+    public double getP99TickMillis() {
+        return tick.getP99Millis();
+    }
+
+    @Override
+    public long getCollisionCount() {
+        return collisions.sum();
+    }
+
+    @Override
+    public long getInfectionCount() {
+        return infections.sum();
+    }
+
+    @Override
+    public long getAdmissionCount() {
+        return admissions.sum();
+    }
+
+    @Override
+    public long getDeathCount() {
+        return deaths.sum();
+    }
+}
@@ -0,0 +1,26 @@
+package simulation.metrics;
+
+/**
+ * Management interface of the tick metrics of a simulator, latencies are in milliseconds and counts are totals since the last reset
+ */
+public interface TickMetricsMBean {
+    long getTickCount();
+
+    double getLastTickMillis();
+
+    double getMeanTickMillis();
+
+    double getMaxTickMillis();
+
+    double getP99TickMillis();
+
+    long getCollisionCount();
+
+    long getInfectionCount();
+
+    long getAdmissionCount();
+
+    long getDeathCount();
+
+    void reset();
+}
@@ -0,0 +1,25 @@
+package simulation.metrics;
+
+/**
+ * Instrumented phases of an iteration, named like the phases of the pipelined process state
+ */
+public enum TickPhase {
+    MOVE("move"),
+    COLLISION_DETECTION("collisionDetection"),
+    COLLISION_HANDLING("collisionHandling"),
+    HOSPITAL_ADMISSION("hospitalAdmission"),
+    PATIENT_HANDLING("patientHandling"),
+    MORTALITY("mortality");
+
+    private final String phaseName;
+
+    // Constructors
+    TickPhase(String phaseName) {
+        this.phaseName = phaseName;
+    }
+
+    // Getters
+    public String getPhaseName() {
+        return phaseName;
+    }
+}
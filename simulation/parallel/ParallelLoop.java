@@ -0,0 +1,99 @@
+package simulation.parallel;
+
+import java.util.ArrayList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Splits index ranges into fixed chunks and runs them on a fork-join pool
+ * Chunk boundaries only depend on the size and the chunk count, so results collected per chunk
+ * can be concatenated in index order regardless of the thread that processed them
+ */
+public class ParallelLoop {
+    /**
+     * Chunks per worker thread, more chunks than threads to balance uneven work
+     */
+    private static final int CHUNKS_PER_THREAD = 4;
+    /**
+     * Smallest range worth to be a separate chunk
+     */
+    private static final int MIN_CHUNK_SIZE = 1024;
+
+    private final ForkJoinPool pool;
+    private final int maxChunkCount;
+
+    // Constructors
+    public ParallelLoop(int parallelism) {
+        this.pool = new ForkJoinPool(parallelism);
+        this.maxChunkCount = parallelism * CHUNKS_PER_THREAD;
+    }
+
+    public int getParallelism() {
+        return pool.getParallelism();
+    }
+
+    /**
+     * Largest number of chunks a loop is split into
+     */
+    public int getMaxChunkCount() {
+        return maxChunkCount;
+    }
+
+    /**
+     * Number of chunks the given size is split into
+     *
+     * @param size number of indexes
+     * @return chunk count, at least 1
+     */
+    public int getChunkCount(int size) {
+        return Math.max(1, Math.min(maxChunkCount, size / MIN_CHUNK_SIZE));
+    }
+
+    /**
+     * Run the task for every chunk of [0, size) and wait for all of them
+     *
+     * @param size number of indexes
+     * @param task work for each chunk
+     */
+    public void forEachChunk(int size, RangeTask task) {
+        forEachChunk(size, getChunkCount(size), task);
+    }
+
+    /**
+     * Run the task for every chunk of [0, size) split into the given number of chunks, without a minimum chunk size
+     * Used when every index is a large unit of work, like a tile of the world
+     *
+     * @param size       number of indexes
+     * @param chunkCount number of chunks, limited to the size and to the chunks of the workers
+     * @param task       work for each chunk
+     */
+    public void forEachChunk(int size, int chunkCount, RangeTask task) {
+        int chunks = Math.max(1, Math.min(chunkCount, Math.min(size, maxChunkCount)));
+        if (chunks == 1) {
+            task.run(0, 0, size);
+            return;
+        }
+        int chunkSize = (size + chunks - 1) / chunks;
+        pool.invoke(new RecursiveAction() {
+            @Override
+            protected void compute() {
+                var tasks = new ArrayList<ForkJoinTask<?>>(chunks);
+                for (int chunk = 0; chunk < chunks; chunk++) {
+                    int from = Math.min(size, chunk * chunkSize);
+                    int to = Math.min(size, from + chunkSize);
+                    int number = chunk;
+                    tasks.add(ForkJoinTask.adapt(() -> task.run(number, from, to)));
+                }
+                invokeAll(tasks);
+            }
+        });
+    }
+
+    /**
+     * Terminate worker threads
+     */
+    public void shutdown() {
+        pool.shutdown();
+    }
+}
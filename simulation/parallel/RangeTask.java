@@ -0,0 +1,16 @@
+package simulation.parallel;
+
+/**
+ * Work on a contiguous range of individual indexes
+ */
+@FunctionalInterface
+public interface RangeTask {
+    /**
+     * Process individuals in [from, to)
+     *
+     * @param chunk Number of the chunk, chunks are numbered in index order
+     * @param from  First index, inclusive
+     * @param to    Last index, exclusive
+     */
+    void run(int chunk, int from, int to);
+}
@@ -0,0 +1,50 @@
+package simulation.phase;
+
+/**
+ * Parts of the simulation state that a phase reads or writes, phases that write a part that another one uses are ordered
+ * The interaction, infection, hospitalization and life flags of an individual share a byte, Population changes a flag
+ * atomically so phases that write different flags of the same individual may still run at the same time
+ */
+public enum AgentState {
+    /**
+     * Coordinates of the individuals with the grids that index them
+     */
+    POSITION,
+    DIRECTION,
+    /**
+     * In interaction flags and interaction end iterations
+     */
+    INTERACTION,
+    /**
+     * Infected flags and infection iterations, with the counters that follow them
+     */
+    INFECTION,
+    /**
+     * Hospitalized flags and admission iterations, with the counters that follow them
+     */
+    HOSPITALIZATION,
+    /**
+     * Alive flags, with the counters that follow them
+     */
+    LIFE,
+    /**
+     * Scheduled transitions and the waiting list of the hospital
+     */
+    SCHEDULE,
+    /**
+     * Patients and ventilators of the hospital
+     */
+    HOSPITAL,
+    /**
+     * Collisions found in the iteration, kept for the phase that handles them
+     */
+    CONTACTS,
+    /**
+     * Published statistics and iteration of the simulator
+     */
+    STATISTICS,
+    /**
+     * State of the tick listeners, listeners are called in iteration order
+     */
+    EXPORT
+}
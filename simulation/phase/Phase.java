@@ -0,0 +1,80 @@
+package simulation.phase;
+
+import simulation.Simulator;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * Step of an iteration with the parts of the simulation state that it reads and writes
+ * Two phases conflict if one of them writes a part that the other one reads or writes, phases that do not conflict may run at the same time
+ */
+public final class Phase {
+    private final String name;
+    private final Set<AgentState> reads;
+    private final Set<AgentState> writes;
+    private final PhaseTask task;
+    /**
+     * Does the phase have work in an iteration, a phase without work is left out of the iteration with its dependencies
+     */
+    private final Predicate<Simulator> active;
+
+    // Constructors
+    public Phase(String name, Set<AgentState> reads, Set<AgentState> writes, PhaseTask task) {
+        this(name, reads, writes, task, context -> true);
+    }
+
+    public Phase(String name, Set<AgentState> reads, Set<AgentState> writes, PhaseTask task, Predicate<Simulator> active) {
+        this.name = name;
+        this.reads = reads.isEmpty() ? EnumSet.noneOf(AgentState.class) : EnumSet.copyOf(reads);
+        this.writes = writes.isEmpty() ? EnumSet.noneOf(AgentState.class) : EnumSet.copyOf(writes);
+        this.task = task;
+        this.active = active;
+    }
+
+    /**
+     * Must the two phases run one after the other
+     *
+     * @param other Other phase
+     * @return True if one of the phases writes a part of the state that the other one uses
+     */
+    public boolean conflictsWith(Phase other) {
+        for (AgentState state : writes) {
+            if (other.reads.contains(state) || other.writes.contains(state))
+                return true;
+        }
+        for (AgentState state : other.writes) {
+            if (reads.contains(state))
+                return true;
+        }
+        return false;
+    }
+
+    public boolean isActive(Simulator context) {
+        return active.test(context);
+    }
+
+    public void run(Simulator context, int iteration) {
+        task.run(context, iteration);
+    }
+
+    // Getters
+    public String getName() {
+        return name;
+    }
+
+    public Set<AgentState> getReads() {
+        return Collections.unmodifiableSet(reads);
+    }
+
+    public Set<AgentState> getWrites() {
+        return Collections.unmodifiableSet(writes);
+    }
+
+    @Override
+    public String toString() {
+        return name + "{reads=" + reads + ", writes=" + writes + '}';
+    }
+}
@@ -0,0 +1,166 @@
+package simulation.phase;
+
+import simulation.Simulator;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs the phases of consecutive iterations as soon as the phases they conflict with are finished
+ * Phases are given in the order of a sequential iteration, a phase waits for the earlier phases of its iteration and for the phases
+ * of the previous iteration that it conflicts with, so every run gives the same result as running the phases one by one
+ * Up to two iterations are in flight, the tail of an iteration overlaps with the head of the next one
+ */
+public class PhaseScheduler {
+    private static final CompletableFuture<Void> DONE = CompletableFuture.completedFuture(null);
+
+    private final Phase[] phases;
+    /**
+     * Earlier phases of the same iteration that each phase waits for
+     */
+    private final int[][] sameIteration;
+    /**
+     * Phases of the previous iteration that each phase waits for
+     */
+    private final int[][] previousIteration;
+    private final ExecutorService executor;
+    /**
+     * Threads of the executor, a phase must not wait for the iterations
+     */
+    private final Set<Thread> threads;
+    /**
+     * Phases of the last submitted iteration and the one before it, null for a phase without work
+     */
+    private CompletableFuture<?>[] last;
+    private CompletableFuture<?>[] beforeLast;
+
+    // Constructors
+    public PhaseScheduler(List<Phase> phases, int threads) {
+        this.phases = phases.toArray(new Phase[0]);
+        this.sameIteration = new int[this.phases.length][];
+        this.previousIteration = new int[this.phases.length][];
+        for (int j = 0; j < this.phases.length; j++) {
+            List<Integer> same = new ArrayList<>(), previous = new ArrayList<>();
+            for (int i = 0; i < this.phases.length; i++) {
+                if (this.phases[j].conflictsWith(this.phases[i])) {
+                    if (i < j)
+                        same.add(i);
+                    previous.add(i);
+                }
+            }
+            sameIteration[j] = same.stream().mapToInt(Integer::intValue).toArray();
+            previousIteration[j] = previous.stream().mapToInt(Integer::intValue).toArray();
+        }
+        AtomicInteger count = new AtomicInteger();
+        this.threads = ConcurrentHashMap.newKeySet();
+        this.executor = Executors.newFixedThreadPool(Math.max(threads, 1), runnable -> {
+            Thread thread = new Thread(runnable, "phase-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            this.threads.add(thread);
+            return thread;
+        });
+    }
+
+    /**
+     * Start the phases of an iteration, returns once the iteration before the last submitted one is finished
+     *
+     * @param context   Simulation
+     * @param iteration Iteration to run
+     */
+    public void submit(Simulator context, int iteration) {
+        if (beforeLast != null)
+            join(beforeLast);
+        CompletableFuture<?>[] current = new CompletableFuture<?>[phases.length];
+        List<CompletableFuture<?>> dependencies = new ArrayList<>();
+        for (int j = 0; j < phases.length; j++) {
+            Phase phase = phases[j];
+            if (!phase.isActive(context))
+                continue;
+            dependencies.clear();
+            for (int i : sameIteration[j]) {
+                if (current[i] != null)
+                    dependencies.add(current[i]);
+            }
+            if (last != null) {
+                for (int i : previousIteration[j]) {
+                    if (last[i] != null && !last[i].isDone())
+                        dependencies.add(last[i]);
+                }
+            }
+            CompletableFuture<?> ready = dependencies.isEmpty() ? DONE : CompletableFuture.allOf(dependencies.toArray(new CompletableFuture<?>[0]));
+            current[j] = ready.thenRunAsync(() -> phase.run(context, iteration), executor);
+        }
+        beforeLast = last;
+        last = current;
+    }
+
+    /**
+     * Wait until every submitted iteration is finished
+     */
+    public void await() {
+        try {
+            if (beforeLast != null)
+                join(beforeLast);
+            if (last != null)
+                join(last);
+        } finally {
+            beforeLast = null;
+            last = null;
+        }
+    }
+
+    /**
+     * Is any submitted iteration not awaited yet
+     *
+     * @return True if phases may be running
+     */
+    public boolean isBusy() {
+        return last != null;
+    }
+
+    /**
+     * Is the calling thread running a phase, e.g. a tick listener
+     *
+     * @return True if called from a phase thread
+     */
+    public boolean isPhaseThread() {
+        return threads.contains(Thread.currentThread());
+    }
+
+    /**
+     * Terminate the phase threads
+     */
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    public List<Phase> getPhases() {
+        return List.of(phases);
+    }
+
+    /**
+     * Wait for the phases of an iteration, a failure of a phase is thrown on the waiting thread
+     */
+    private static void join(CompletableFuture<?>[] futures) {
+        for (CompletableFuture<?> future : futures) {
+            if (future == null)
+                continue;
+            try {
+                future.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException)
+                    throw (RuntimeException) e.getCause();
+                if (e.getCause() instanceof Error)
+                    throw (Error) e.getCause();
+                throw e;
+            }
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package simulation.phase;
+
+import simulation.Simulator;
+
+/**
+ * Work of a phase in a single iteration
+ */
+@FunctionalInterface
+public interface PhaseTask {
+    /**
+     * Run the phase
+     *
+     * @param context   Simulation
+     * @param iteration Iteration of the simulation that the phase belongs to
+     */
+    void run(Simulator context, int iteration);
+}
@@ -0,0 +1,87 @@
+package simulation.random;
+
+/**
+ * Counter-based random number generator, each number is a SplitMix64 hash of (seed, iteration, agent, stream)
+ * There is no state that changes between draws, so any thread can draw the numbers of any agent
+ * and a run gives the same numbers on every thread count
+ */
+public final class CounterRandom {
+    /**
+     * Odd constant of the golden ratio used by SplitMix64
+     */
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+    private final long seed;
+
+    // Constructors
+    public CounterRandom(long seed) {
+        this.seed = seed;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Random 64 bits of the given agent in the given iteration and stream
+     *
+     * @param iteration Iteration of the simulation
+     * @param agent     ID of the individual
+     * @param stream    Decision that the number is used for
+     * @return Random bits
+     */
+    public long nextLong(int iteration, int agent, RandomStream stream) {
+        long counter = ((long) iteration << 32) | (agent & 0xFFFFFFFFL);
+        long hash = mix(seed + GOLDEN_GAMMA * counter);
+        return mix(hash + GOLDEN_GAMMA * (stream.ordinal() + 1));
+    }
+
+    /**
+     * Random int in [0, bound) of the given agent in the given iteration and stream
+     *
+     * @param iteration Iteration of the simulation
+     * @param agent     ID of the individual
+     * @param stream    Decision that the number is used for
+     * @param bound     Upper bound, exclusive, must be positive
+     * @return Random int
+     */
+    public int nextInt(int iteration, int agent, RandomStream stream, int bound) {
+        if (bound <= 0)
+            throw new IllegalArgumentException("CounterRandom::nextInt()::bound must be positive: " + bound);
+        // Multiply-shift maps the upper 32 bits to the range without division
+        return (int) (((nextLong(iteration, agent, stream) >>> 32) * bound) >>> 32);
+    }
+
+    /**
+     * Random double in [0.0, 1.0) of the given agent in the given iteration and stream
+     *
+     * @param iteration Iteration of the simulation
+     * @param agent     ID of the individual
+     * @param stream    Decision that the number is used for
+     * @return Random double
+     */
+    public double nextDouble(int iteration, int agent, RandomStream stream) {
+        return (nextLong(iteration, agent, stream) >>> 11) * 0x1.0p-53;
+    }
+
+    /**
+     * Random boolean of the given agent in the given iteration and stream
+     *
+     * @param iteration Iteration of the simulation
+     * @param agent     ID of the individual
+     * @param stream    Decision that the number is used for
+     * @return Random boolean
+     */
+    public boolean nextBoolean(int iteration, int agent, RandomStream stream) {
+        return nextLong(iteration, agent, stream) < 0;
+    }
+
+    /**
+     * Finalizer of SplitMix64, a bijection with good avalanche
+     */
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,20 @@
+package simulation.random;
+
+/**
+ * Independent streams of random numbers, each decision of the simulation draws from its own stream
+ * so adding a draw to one decision does not shift the numbers of the others
+ */
+public enum RandomStream {
+    COORDINATE_X,
+    COORDINATE_Y,
+    SPEED,
+    DIRECTION,
+    SOCIAL_DISTANCE,
+    INTERACTION_TIME,
+    MASKED,
+    INFECTED,
+    MOVE,
+    INTERACTION_END,
+    INFECTION,
+    REPLICATE
+}
@@ -0,0 +1,93 @@
+package simulation.schedule;
+
+import simulation.util.IntList;
+
+/**
+ * Hashed timing wheel of individual indexes keyed by iteration
+ * Each slot holds the entries whose deadline maps to it, deadlines farther than a full turn stay in their slot
+ * until their turn comes, so advancing one iteration only visits a single slot
+ */
+public class TimingWheel {
+    /**
+     * Indexes scheduled in each slot
+     */
+    private final IntList[] indexes;
+    /**
+     * Deadline of each entry, parallel to indexes
+     */
+    private final IntList[] deadlines;
+    private final int mask;
+    /**
+     * Last iteration that is advanced to, entries scheduled before it are moved to the next iteration
+     */
+    private int current;
+
+    // Constructors
+    public TimingWheel(int slotCount) {
+        if (Integer.bitCount(slotCount) != 1)
+            throw new IllegalArgumentException("TimingWheel::TimingWheel()::slot count must be a power of two: " + slotCount);
+        this.indexes = new IntList[slotCount];
+        this.deadlines = new IntList[slotCount];
+        for (int slot = 0; slot < slotCount; slot++) {
+            indexes[slot] = new IntList();
+            deadlines[slot] = new IntList();
+        }
+        this.mask = slotCount - 1;
+        this.current = -1;
+    }
+
+    /**
+     * Schedule the given index to expire at the given iteration, safe to call from multiple threads
+     *
+     * @param index    index of the individual
+     * @param deadline iteration that the entry expires
+     */
+    public synchronized void schedule(int index, int deadline) {
+        int slot = Math.max(deadline, current + 1) & mask;
+        indexes[slot].add(index);
+        deadlines[slot].add(deadline);
+    }
+
+    /**
+     * Collect entries that expire at or before the given iteration, iterations skipped since the last call are visited too
+     *
+     * @param iteration iteration to advance to
+     * @param expired   list to append indexes of expired entries
+     */
+    public synchronized void advance(int iteration, IntList expired) {
+        int from = Math.max(current + 1, iteration - mask);
+        for (int tick = from; tick <= iteration; tick++)
+            expireSlot(tick & mask, iteration, expired);
+        current = Math.max(current, iteration);
+    }
+
+    /**
+     * Remove every entry
+     */
+    public synchronized void clear() {
+        for (int slot = 0; slot < indexes.length; slot++) {
+            indexes[slot].clear();
+            deadlines[slot].clear();
+        }
+    }
+
+    /**
+     * Move due entries of the slot to the expired list, keep the others in place
+     */
+    private void expireSlot(int slot, int iteration, IntList expired) {
+        IntList slotIndexes = indexes[slot], slotDeadlines = deadlines[slot];
+        int kept = 0;
+        for (int k = 0; k < slotIndexes.size(); k++) {
+            int index = slotIndexes.get(k), deadline = slotDeadlines.get(k);
+            if (deadline <= iteration) {
+                expired.add(index);
+            } else {
+                slotIndexes.set(kept, index);
+                slotDeadlines.set(kept, deadline);
+                kept++;
+            }
+        }
+        slotIndexes.truncate(kept);
+        slotDeadlines.truncate(kept);
+    }
+}
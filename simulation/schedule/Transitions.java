@@ -0,0 +1,135 @@
+package simulation.schedule;
+
+import simulation.Common;
+import simulation.disease.Disease;
+import simulation.individual.Population;
+import simulation.util.IntList;
+
+import java.util.BitSet;
+
+/**
+ * Future time-based transitions of the individuals, scheduled when infection and interaction happen
+ * Entries are validated lazily when they expire, an entry whose individual changed since then is ignored
+ */
+public class Transitions {
+    /**
+     * Slot count of the wheels, longer than every delay of the simulation
+     */
+    private static final int WHEEL_SLOTS = 128;
+
+    /**
+     * Iterations an infected individual survives without hospital
+     */
+    private final int mortalityTime;
+    private final TimingWheel deaths;
+    private final TimingWheel admissions;
+    private final TimingWheel interactionEnds;
+    /**
+     * Individuals that are waiting for a free ventilator, admitted in index order
+     */
+    private final BitSet waitingList;
+    /**
+     * Reused list of expired entries
+     */
+    private final IntList expired;
+
+    // Constructors
+    public Transitions(Disease disease) {
+        this.mortalityTime = (int) (100 * (1.0 - disease.getMortalityRate()));
+        this.deaths = new TimingWheel(WHEEL_SLOTS);
+        this.admissions = new TimingWheel(WHEEL_SLOTS);
+        this.interactionEnds = new TimingWheel(WHEEL_SLOTS);
+        this.waitingList = new BitSet();
+        this.expired = new IntList();
+    }
+
+    /**
+     * Schedule death and hospital admission of a newly infected individual
+     *
+     * @param index      index of the individual
+     * @param infectedAt iteration that the individual got infected
+     */
+    public void infected(int index, int infectedAt) {
+        deaths.schedule(index, infectedAt + mortalityTime + 1);
+        admissions.schedule(index, infectedAt + Common.TO_HOSPITAL_SEC + 1);
+    }
+
+    /**
+     * Schedule end of the interaction of an individual
+     *
+     * @param index           index of the individual
+     * @param interactedUntil iteration that the interaction ends
+     */
+    public void interacted(int index, int interactedUntil) {
+        interactionEnds.schedule(index, interactedUntil);
+    }
+
+    /**
+     * Schedule transitions of the individuals added to the population, also used to rebuild the schedule of a restored population
+     *
+     * @param population Current population of the society
+     * @param from       index of the first added individual
+     */
+    public void added(Population population, int from) {
+        for (int i = from; i < population.size(); i++) {
+            if (population.isInfected(i))
+                infected(i, population.getInfectedAt(i));
+            if (population.isInInteraction(i))
+                interacted(i, population.getInteractedUntil(i));
+        }
+    }
+
+    /**
+     * Individuals whose death is due at the given iteration, the list is reused on the next call
+     *
+     * @param iteration Iteration of the simulation when method called
+     * @return Indexes of the individuals
+     */
+    public IntList expireDeaths(int iteration) {
+        return expire(deaths, iteration);
+    }
+
+    /**
+     * Individuals whose hospital admission is due at the given iteration, the list is reused on the next call
+     *
+     * @param iteration Iteration of the simulation when method called
+     * @return Indexes of the individuals
+     */
+    public IntList expireAdmissions(int iteration) {
+        return expire(admissions, iteration);
+    }
+
+    /**
+     * Individuals whose interaction ends at the given iteration, the list is reused on the next call
+     *
+     * @param iteration Iteration of the simulation when method called
+     * @return Indexes of the individuals
+     */
+    public IntList expireInteractions(int iteration) {
+        return expire(interactionEnds, iteration);
+    }
+
+    public int getMortalityTime() {
+        return mortalityTime;
+    }
+
+    public BitSet getWaitingList() {
+        return waitingList;
+    }
+
+    /**
+     * Remove every scheduled transition
+     */
+    public void clear() {
+        deaths.clear();
+        admissions.clear();
+        interactionEnds.clear();
+        waitingList.clear();
+    }
+
+    private IntList expire(TimingWheel wheel, int iteration) {
+        expired.clear();
+        wheel.advance(iteration, expired);
+        return expired;
+    }
+}
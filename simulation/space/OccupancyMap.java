@@ -0,0 +1,115 @@
+package simulation.space;
+
+import java.util.Arrays;
+
+/**
+ * Fine grained grid that answers whether a box on the canvas is occupied by any individual
+ * Cells are counted, only the individuals in the cells on the border of a box are checked one by one
+ */
+public class OccupancyMap extends SpatialGrid {
+    /**
+     * X coordinate of each individual in the map
+     */
+    private int[] coordinateX;
+    /**
+     * Y coordinate of each individual in the map
+     */
+    private int[] coordinateY;
+    /**
+     * Coordinate arrays that a reorder fills, swapped with the current ones afterwards
+     */
+    private int[] spareX;
+    private int[] spareY;
+
+    // Constructors
+    public OccupancyMap(int width, int height, int cellSize) {
+        super(width, height, cellSize);
+        this.coordinateX = new int[0];
+        this.coordinateY = new int[0];
+        this.spareX = new int[0];
+        this.spareY = new int[0];
+    }
+
+    @Override
+    public void insert(int index, int x, int y) {
+        super.insert(index, x, y);
+        if (index >= coordinateX.length) {
+            int length = Math.max(index + 1, coordinateX.length * 2);
+            coordinateX = Arrays.copyOf(coordinateX, length);
+            coordinateY = Arrays.copyOf(coordinateY, length);
+        }
+        coordinateX[index] = x;
+        coordinateY[index] = y;
+    }
+
+    @Override
+    public void update(int index, int x, int y) {
+        super.update(index, x, y);
+        coordinateX[index] = x;
+        coordinateY[index] = y;
+    }
+
+    @Override
+    public void reorder(int[] order, int size) {
+        super.reorder(order, size);
+        if (spareX.length != coordinateX.length) {
+            spareX = new int[coordinateX.length];
+            spareY = new int[coordinateY.length];
+        }
+        for (int k = 0; k < size; k++) {
+            spareX[k] = coordinateX[order[k]];
+            spareY[k] = coordinateY[order[k]];
+        }
+        int[] swap = coordinateX;
+        coordinateX = spareX;
+        spareX = swap;
+        swap = coordinateY;
+        coordinateY = spareY;
+        spareY = swap;
+    }
+
+    /**
+     * Check there is no individual strictly inside the given box, except the given one
+     *
+     * @param minX    Left border of the box, exclusive
+     * @param minY    Top border of the box, exclusive
+     * @param maxX    Right border of the box, exclusive
+     * @param maxY    Bottom border of the box, exclusive
+     * @param exclude Index of the individual to ignore
+     * @return True if the box is free
+     */
+    public boolean isBoxFree(int minX, int minY, int maxX, int maxY, int exclude) {
+        if (maxX - minX < 2 || maxY - minY < 2)
+            return true;
+        int cellSize = getCellSize();
+        int excludedCell = cellOf(exclude);
+        int firstColumn = columnOf(minX + 1), lastColumn = columnOf(maxX - 1);
+        int firstRow = rowOf(minY + 1), lastRow = rowOf(maxY - 1);
+        for (int row = firstRow; row <= lastRow; row++) {
+            int cellMinY = row * cellSize;
+            boolean rowInside = cellMinY > minY && cellMinY + cellSize - 1 < maxY;
+            for (int column = firstColumn; column <= lastColumn; column++) {
+                int cell = cellAt(column, row);
+                int count = countAt(cell);
+                if (cell == excludedCell)
+                    count--;
+                if (count <= 0)
+                    continue;
+                int cellMinX = column * cellSize;
+                // Whole cell is inside the box, any other individual in it blocks the box
+                if (rowInside && cellMinX > minX && cellMinX + cellSize - 1 < maxX)
+                    return false;
+                for (int index = first(cell); index >= 0; index = next(index)) {
+                    if (index != exclude && isInside(index, minX, minY, maxX, maxY))
+                        return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private boolean isInside(int index, int minX, int minY, int maxX, int maxY) {
+        int x = coordinateX[index], y = coordinateY[index];
+        return (x > minX && x < maxX) && (y > minY && y < maxY);
+    }
+}
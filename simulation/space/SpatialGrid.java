@@ -0,0 +1,293 @@
+package simulation.space;
+
+import java.util.Arrays;
+
+/**
+ * Uniform bucket grid over the canvas, each cell keeps an intrusive linked list of the individuals inside it
+ * Individuals are referenced by their index in the individual list of the society
+ */
+public class SpatialGrid {
+    private static final int NONE = -1;
+    /**
+     * Maximum number of cells of a grid, larger worlds get larger cells
+     */
+    private static final long MAX_CELLS = 1 << 22;
+    /**
+     * Length of a single cell
+     */
+    private final int cellSize;
+    /**
+     * Number of cells on X axis
+     */
+    private final int columns;
+    /**
+     * Number of cells on Y axis
+     */
+    private final int rows;
+    /**
+     * First individual of each cell
+     */
+    private final int[] head;
+    /**
+     * Number of individuals in each cell
+     */
+    private final int[] count;
+    /**
+     * Next individual in the same cell, for each individual
+     */
+    private int[] next;
+    /**
+     * Previous individual in the same cell, for each individual
+     */
+    private int[] previous;
+    /**
+     * Cell of each individual, NONE if not inserted
+     */
+    private int[] cellOf;
+    /**
+     * Arrays of the links that a reorder fills, swapped with the current ones afterwards
+     */
+    private int[] spareNext;
+    private int[] sparePrevious;
+    private int[] spareCellOf;
+    /**
+     * New index of each old index during a reorder
+     */
+    private int[] newIndexOf;
+
+    // Constructors
+    public SpatialGrid(int width, int height, int cellSize) {
+        this.cellSize = cellSize;
+        this.columns = width / cellSize + 1;
+        this.rows = height / cellSize + 1;
+        this.head = new int[columns * rows];
+        this.count = new int[columns * rows];
+        this.next = new int[0];
+        this.previous = new int[0];
+        this.cellOf = new int[0];
+        this.spareNext = new int[0];
+        this.sparePrevious = new int[0];
+        this.spareCellOf = new int[0];
+        this.newIndexOf = new int[0];
+        Arrays.fill(head, NONE);
+    }
+
+    /**
+     * Smallest cell size not less than the given one that keeps the cell count of the grid bounded
+     * Cells larger than needed keep every query correct, they only hold more individuals each
+     *
+     * @param width           Width of the area
+     * @param height          Height of the area
+     * @param minimumCellSize Cell size used if the area is small enough
+     * @return Cell size
+     */
+    public static int getCellSize(int width, int height, int minimumCellSize) {
+        int cellSize = minimumCellSize;
+        while ((long) (width / cellSize + 1) * (height / cellSize + 1) > MAX_CELLS)
+            cellSize += Math.max(cellSize / 8, 1);
+        return cellSize;
+    }
+
+    // Getters
+    public int getCellSize() {
+        return cellSize;
+    }
+
+    public int getColumns() {
+        return columns;
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    /**
+     * Column of the given X coordinate, clamped into the grid
+     *
+     * @param x X coordinate
+     * @return column index
+     */
+    public int columnOf(int x) {
+        return Math.min(Math.max(x / cellSize, 0), columns - 1);
+    }
+
+    /**
+     * Row of the given Y coordinate, clamped into the grid
+     *
+     * @param y Y coordinate
+     * @return row index
+     */
+    public int rowOf(int y) {
+        return Math.min(Math.max(y / cellSize, 0), rows - 1);
+    }
+
+    /**
+     * Cell index of the given column and row
+     *
+     * @param column column index
+     * @param row    row index
+     * @return cell index
+     */
+    public int cellAt(int column, int row) {
+        return row * columns + column;
+    }
+
+    /**
+     * First individual inside the given cell
+     *
+     * @param cell cell index
+     * @return index of the individual, negative if the cell is empty
+     */
+    public int first(int cell) {
+        return head[cell];
+    }
+
+    /**
+     * Next individual in the same cell with the given individual
+     *
+     * @param index index of the individual
+     * @return index of the next individual, negative if there is none
+     */
+    public int next(int index) {
+        return next[index];
+    }
+
+    /**
+     * Number of individuals inside the given cell
+     *
+     * @param cell cell index
+     * @return count
+     */
+    public int countAt(int cell) {
+        return count[cell];
+    }
+
+    /**
+     * Cell of the given individual
+     *
+     * @param index index of the individual
+     * @return cell index, negative if the individual is not in the grid
+     */
+    public int cellOf(int index) {
+        return index < cellOf.length ? cellOf[index] : NONE;
+    }
+
+    /**
+     * Put the individual into the cell of the given coordinates
+     *
+     * @param index index of the individual
+     * @param x     X coordinate
+     * @param y     Y coordinate
+     */
+    public void insert(int index, int x, int y) {
+        ensureCapacity(index + 1);
+        if (cellOf[index] != NONE)
+            unlink(index);
+        link(index, cellAt(columnOf(x), rowOf(y)));
+    }
+
+    /**
+     * Move the individual into the cell of its new coordinates, does nothing if the cell is not changed
+     *
+     * @param index index of the individual
+     * @param x     new X coordinate
+     * @param y     new Y coordinate
+     */
+    public void update(int index, int x, int y) {
+        int cell = cellAt(columnOf(x), rowOf(y));
+        if (cellOf[index] != cell) {
+            unlink(index);
+            link(index, cell);
+        }
+    }
+
+    /**
+     * Remove the individual from the grid
+     *
+     * @param index index of the individual
+     */
+    public void remove(int index) {
+        if (index < cellOf.length && cellOf[index] != NONE)
+            unlink(index);
+    }
+
+    /**
+     * Remove every individual from the grid
+     */
+    public void clear() {
+        Arrays.fill(head, NONE);
+        Arrays.fill(count, 0);
+        Arrays.fill(cellOf, NONE);
+    }
+
+    /**
+     * Follow a reorder of the individuals, the individual at index order[k] is at index k afterwards
+     * Cells keep their lists, only the indexes in the links change, so the cost does not depend on the cell count
+     *
+     * @param order old index of each new index, a permutation of [0, size)
+     * @param size  number of individuals, every one of them is in the grid
+     */
+    public void reorder(int[] order, int size) {
+        ensureCapacity(size);
+        if (spareCellOf.length != cellOf.length) {
+            spareNext = new int[cellOf.length];
+            sparePrevious = new int[cellOf.length];
+            spareCellOf = new int[cellOf.length];
+            newIndexOf = new int[cellOf.length];
+        }
+        for (int k = 0; k < size; k++)
+            newIndexOf[order[k]] = k;
+        for (int k = 0; k < size; k++) {
+            int index = order[k], cell = cellOf[index];
+            spareCellOf[k] = cell;
+            spareNext[k] = next[index] == NONE ? NONE : newIndexOf[next[index]];
+            sparePrevious[k] = previous[index] == NONE ? NONE : newIndexOf[previous[index]];
+            if (cell != NONE && previous[index] == NONE)
+                head[cell] = k;
+        }
+        Arrays.fill(spareCellOf, size, spareCellOf.length, NONE);
+        int[] swap = next;
+        next = spareNext;
+        spareNext = swap;
+        swap = previous;
+        previous = sparePrevious;
+        sparePrevious = swap;
+        swap = cellOf;
+        cellOf = spareCellOf;
+        spareCellOf = swap;
+    }
+
+    private void link(int index, int cell) {
+        int first = head[cell];
+        next[index] = first;
+        previous[index] = NONE;
+        if (first != NONE)
+            previous[first] = index;
+        head[cell] = index;
+        cellOf[index] = cell;
+        count[cell]++;
+    }
+
+    private void unlink(int index) {
+        int cell = cellOf[index];
+        if (previous[index] != NONE)
+            next[previous[index]] = next[index];
+        else
+            head[cell] = next[index];
+        if (next[index] != NONE)
+            previous[next[index]] = previous[index];
+        cellOf[index] = NONE;
+        count[cell]--;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > cellOf.length) {
+            int length = Math.max(capacity, cellOf.length * 2);
+            int oldLength = cellOf.length;
+            next = Arrays.copyOf(next, length);
+            previous = Arrays.copyOf(previous, length);
+            cellOf = Arrays.copyOf(cellOf, length);
+            Arrays.fill(cellOf, oldLength, length, NONE);
+        }
+    }
+}
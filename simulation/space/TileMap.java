@@ -0,0 +1,216 @@
+package simulation.space;
+
+import simulation.individual.Population;
+
+import java.util.Arrays;
+
+/**
+ * Splits the world into square tiles, each tile owns the individuals positioned inside it
+ * The halo of a tile is the band of the given margin along its borders with other tiles, the world edges have no halo
+ * A move that stays out of the halo only touches grid cells of its own tile, so tiles can move their individuals in parallel
+ * Once the population is reordered by sort(), each tile owns a contiguous range of indexes in tile order,
+ * individuals that crossed a border or were added since then are moved into their ranges by the next sort
+ */
+public class TileMap {
+    private final int tileSize;
+    private final int columns;
+    private final int rows;
+    /**
+     * Width of the halo, not less than a cell of the grids of the population
+     */
+    private final int margin;
+    /**
+     * First index of each tile, the range of a tile ends at the first index of the next one
+     */
+    private final int[] start;
+    /**
+     * Number of individuals that left each tile since the last sort
+     */
+    private final int[] leaving;
+    /**
+     * Tile of each assigned individual, the new tile of the ones that left their range
+     */
+    private int[] tileOf;
+    /**
+     * Old index of each new index, filled by sort()
+     */
+    private int[] order;
+    /**
+     * Number of individuals of the population that are assigned to a tile
+     */
+    private int assigned;
+    /**
+     * Number of individuals of the population that are in the ranges of their tiles
+     */
+    private int sorted;
+    /**
+     * Generation of the population that the individuals are assigned from
+     */
+    private int generation;
+
+    // Constructors
+    public TileMap(int width, int height, int tileSize, int margin) {
+        this.tileSize = tileSize;
+        this.columns = getTileCount(width, tileSize);
+        this.rows = getTileCount(height, tileSize);
+        this.margin = margin;
+        this.start = new int[columns * rows + 1];
+        this.leaving = new int[columns * rows];
+        this.tileOf = new int[0];
+        this.order = new int[0];
+    }
+
+    /**
+     * Number of tiles along an axis, the last tile of an axis takes the remainder
+     *
+     * @param length   World length of the axis
+     * @param tileSize Length of a tile
+     * @return tile count, at least 1
+     */
+    public static int getTileCount(int length, int tileSize) {
+        return Math.max(1, length / tileSize);
+    }
+
+    /**
+     * Assign the individuals added since the last call to the tiles of their positions
+     * Everything is assigned again if the population was cleared, even if it is refilled since then
+     *
+     * @param population Population of the world
+     * @return True if the population must be sorted before the ranges cover every individual
+     */
+    public boolean assign(Population population) {
+        if (population.getGeneration() != generation) {
+            Arrays.fill(start, 0);
+            Arrays.fill(leaving, 0);
+            assigned = 0;
+            sorted = 0;
+            generation = population.getGeneration();
+        }
+        if (tileOf.length < population.size())
+            tileOf = Arrays.copyOf(tileOf, Math.max(population.size(), tileOf.length * 2));
+        for (int i = assigned; i < population.size(); i++)
+            tileOf[i] = tileAt(population.getCoordinateX(i), population.getCoordinateY(i));
+        assigned = population.size();
+        return sorted < assigned;
+    }
+
+    /**
+     * Find the individuals of a tile that are no longer positioned inside it, they move to the range of their new tile on the next sort
+     * Only touches the range of the tile, tiles can be processed in parallel
+     *
+     * @param tile       Tile to check
+     * @param population Population of the world
+     */
+    public void collectLeaving(int tile, Population population) {
+        int count = 0;
+        for (int i = start[tile]; i < start[tile + 1]; i++) {
+            int current = tileAt(population.getCoordinateX(i), population.getCoordinateY(i));
+            if (current != tile) {
+                tileOf[i] = current;
+                count++;
+            }
+        }
+        leaving[tile] = count;
+    }
+
+    /**
+     * Number of individuals that left their tiles, must not run with collectLeaving()
+     *
+     * @return leaving count
+     */
+    public int getLeavingCount() {
+        int count = 0;
+        for (int tile = 0; tile < leaving.length; tile++)
+            count += leaving[tile];
+        return count;
+    }
+
+    /**
+     * Order of the assigned individuals by tile, in index order inside a tile, and the ranges of that order
+     * The population must be reordered with the returned order before the ranges are used, must not run with any other method
+     *
+     * @return old index of each new index, valid up to the assigned count
+     */
+    public int[] sort() {
+        if (order.length < assigned)
+            order = new int[tileOf.length];
+        int tileCount = leaving.length;
+        Arrays.fill(start, 0);
+        for (int i = 0; i < assigned; i++)
+            start[tileOf[i] + 1]++;
+        for (int tile = 0; tile < tileCount; tile++)
+            start[tile + 1] += start[tile];
+        // Counting sort, start[tile] is used as the cursor of the tile and restored afterwards
+        for (int i = 0; i < assigned; i++)
+            order[start[tileOf[i]]++] = i;
+        for (int tile = tileCount; tile > 0; tile--)
+            start[tile] = start[tile - 1];
+        start[0] = 0;
+        for (int tile = 0; tile < tileCount; tile++) {
+            Arrays.fill(tileOf, start[tile], start[tile + 1], tile);
+            leaving[tile] = 0;
+        }
+        sorted = assigned;
+        return order;
+    }
+
+    /**
+     * Is the area inside the tile and out of its halo, an area on a world edge only needs to be away from the borders with other tiles
+     *
+     * @param tile Tile of the area
+     * @param minX Left of the area, inclusive
+     * @param minY Top of the area, inclusive
+     * @param maxX Right of the area, inclusive
+     * @param maxY Bottom of the area, inclusive
+     * @return True if the area is in the interior of the tile
+     */
+    public boolean isInterior(int tile, int minX, int minY, int maxX, int maxY) {
+        int column = tile % columns, row = tile / columns;
+        return (column == 0 || minX >= column * tileSize + margin)
+                && (column == columns - 1 || maxX < (column + 1) * tileSize - margin)
+                && (row == 0 || minY >= row * tileSize + margin)
+                && (row == rows - 1 || maxY < (row + 1) * tileSize - margin);
+    }
+
+    /**
+     * Tile of the given position, positions outside of the world belong to the nearest tile
+     *
+     * @param x X coordinate
+     * @param y Y coordinate
+     * @return tile index
+     */
+    public int tileAt(int x, int y) {
+        int column = Math.min(Math.max(x / tileSize, 0), columns - 1);
+        int row = Math.min(Math.max(y / tileSize, 0), rows - 1);
+        return row * columns + column;
+    }
+
+    // Getters
+    public int getTileCount() {
+        return leaving.length;
+    }
+
+    public int getMargin() {
+        return margin;
+    }
+
+    /**
+     * First index of the range of the tile since the last sort
+     *
+     * @param tile tile index
+     * @return first index
+     */
+    public int getStart(int tile) {
+        return start[tile];
+    }
+
+    /**
+     * End of the range of the tile since the last sort, exclusive
+     *
+     * @param tile tile index
+     * @return index after the last individual of the tile
+     */
+    public int getEnd(int tile) {
+        return start[tile + 1];
+    }
+}
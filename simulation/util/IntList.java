@@ -0,0 +1,121 @@
+package simulation.util;
+
+import java.util.Arrays;
+
+/**
+ * Growable list of primitive ints, reused between iterations to avoid boxing and reallocation
+ */
+public class IntList {
+    /**
+     * Runs shorter than this are extended with insertion sort before merging
+     */
+    private static final int MIN_RUN = 32;
+
+    private int[] values;
+    private int size;
+    /**
+     * Merge buffer of the sort, kept so sorting does not allocate once it has grown
+     */
+    private int[] scratch;
+
+    // Constructors
+    public IntList() {
+        this(16);
+    }
+
+    public IntList(int capacity) {
+        this.values = new int[Math.max(capacity, 1)];
+        this.size = 0;
+        this.scratch = new int[0];
+    }
+
+    public void add(int value) {
+        if (size == values.length)
+            values = Arrays.copyOf(values, size * 2);
+        values[size++] = value;
+    }
+
+    public int get(int index) {
+        return values[index];
+    }
+
+    public void set(int index, int value) {
+        values[index] = value;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * Keep only the first given number of values
+     *
+     * @param size new size, not greater than the current size
+     */
+    public void truncate(int size) {
+        this.size = size;
+    }
+
+    /**
+     * Sort values in [from, size) in ascending order
+     * Blocks of a few values are insertion sorted, then merged pairwise through a reused buffer, adjacent blocks already
+     * in order are copied without merging, so no memory is allocated once the buffer has grown
+     *
+     * @param from first index to sort
+     */
+    public void sortFrom(int from) {
+        if (size - from < 2)
+            return;
+        for (int start = from; start < size; start += MIN_RUN)
+            insertionSort(values, start, Math.min(start + MIN_RUN, size));
+        if (size - from <= MIN_RUN)
+            return;
+        if (scratch.length < values.length)
+            scratch = new int[values.length];
+        int[] source = values, target = scratch;
+        for (int width = MIN_RUN; width < size - from; width *= 2) {
+            for (int start = from; start < size; start += 2 * width) {
+                int middle = Math.min(start + width, size), end = Math.min(start + 2 * width, size);
+                merge(source, target, start, middle, end);
+            }
+            int[] swap = source;
+            source = target;
+            target = swap;
+        }
+        if (source != values)
+            System.arraycopy(source, from, values, from, size - from);
+    }
+
+    private static void insertionSort(int[] values, int from, int to) {
+        for (int i = from + 1; i < to; i++) {
+            int value = values[i];
+            int j = i - 1;
+            while (j >= from && values[j] > value) {
+                values[j + 1] = values[j];
+                j--;
+            }
+            values[j + 1] = value;
+        }
+    }
+
+    /**
+     * Merge the sorted ranges [from, middle) and [middle, to) of the source into the same range of the target
+     */
+    private static void merge(int[] source, int[] target, int from, int middle, int to) {
+        if (middle == to || source[middle - 1] <= source[middle]) {
+            System.arraycopy(source, from, target, from, to - from);
+            return;
+        }
+        int left = from, right = middle;
+        for (int k = from; k < to; k++)
+            target[k] = right >= to || (left < middle && source[left] <= source[right]) ? source[left++] : source[right++];
+    }
+}
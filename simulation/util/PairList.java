@@ -0,0 +1,47 @@
+package simulation.util;
+
+import java.util.Arrays;
+
+/**
+ * Growable list of int pairs, each pair packed in a single long, reused between iterations to avoid allocation
+ */
+public class PairList {
+    private long[] pairs;
+    private int size;
+
+    // Constructors
+    public PairList() {
+        this(16);
+    }
+
+    public PairList(int capacity) {
+        this.pairs = new long[Math.max(capacity, 1)];
+        this.size = 0;
+    }
+
+    public void add(int first, int second) {
+        if (size == pairs.length)
+            pairs = Arrays.copyOf(pairs, size * 2);
+        pairs[size++] = ((long) first << 32) | (second & 0xFFFFFFFFL);
+    }
+
+    public int getFirst(int index) {
+        return (int) (pairs[index] >>> 32);
+    }
+
+    public int getSecond(int index) {
+        return (int) pairs[index];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+}
@@ -0,0 +1,114 @@
+package simulation.util;
+
+import java.util.Arrays;
+
+/**
+ * Mergeable quantile sketch of non-negative integer values
+ * Values are counted in log-linear buckets, small values exactly and larger ones with bounded relative error,
+ * merging two sketches only adds their bucket counts
+ */
+public class QuantileSketch {
+    /**
+     * Default precision, relative error of a quantile is at most 2^-(bits+1), about 1.6%
+     */
+    public static final int DEFAULT_PRECISION_BITS = 5;
+
+    private final int precisionBits;
+    /**
+     * Count of each bucket, grown up to the largest bucket seen
+     */
+    private int[] counts;
+    private long total;
+    /**
+     * Smallest and largest values added, estimates are clamped to them
+     */
+    private long minimum = Long.MAX_VALUE;
+    private long maximum = Long.MIN_VALUE;
+
+    // Constructors
+    public QuantileSketch() {
+        this(DEFAULT_PRECISION_BITS);
+    }
+
+    public QuantileSketch(int precisionBits) {
+        if (precisionBits < 1 || precisionBits > 16)
+            throw new IllegalArgumentException("QuantileSketch::QuantileSketch()::precision must be in [1, 16]: " + precisionBits);
+        this.precisionBits = precisionBits;
+        this.counts = new int[0];
+    }
+
+    public void add(long value) {
+        if (value < 0)
+            throw new IllegalArgumentException("QuantileSketch::add()::value must be non-negative: " + value);
+        int bucket = bucketOf(value);
+        if (bucket >= counts.length)
+            counts = Arrays.copyOf(counts, Math.max(bucket + 1, counts.length * 2));
+        counts[bucket]++;
+        total++;
+        minimum = Math.min(minimum, value);
+        maximum = Math.max(maximum, value);
+    }
+
+    /**
+     * Add values of the other sketch into this one
+     *
+     * @param other Sketch with the same precision
+     */
+    public void merge(QuantileSketch other) {
+        if (other.precisionBits != precisionBits)
+            throw new IllegalArgumentException("QuantileSketch::merge()::precision mismatch: " + precisionBits + " != " + other.precisionBits);
+        if (other.counts.length > counts.length)
+            counts = Arrays.copyOf(counts, other.counts.length);
+        for (int bucket = 0; bucket < other.counts.length; bucket++)
+            counts[bucket] += other.counts[bucket];
+        total += other.total;
+        minimum = Math.min(minimum, other.minimum);
+        maximum = Math.max(maximum, other.maximum);
+    }
+
+    public long getCount() {
+        return total;
+    }
+
+    /**
+     * Estimate the value at the given quantile
+     *
+     * @param quantile Quantile in [0, 1]
+     * @return Estimated value, NaN if the sketch is empty
+     */
+    public double getQuantile(double quantile) {
+        if (total == 0)
+            return Double.NaN;
+        long rank = Math.max(1, (long) Math.ceil(quantile * total));
+        long seen = 0;
+        for (int bucket = 0; bucket < counts.length; bucket++) {
+            seen += counts[bucket];
+            if (seen >= rank)
+                return Math.min(Math.max((lowerBoundOf(bucket) + upperBoundOf(bucket)) / 2.0, minimum), maximum);
+        }
+        return maximum;
+    }
+
+    private int bucketOf(long value) {
+        if (value < (1L << precisionBits))
+            return (int) value;
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int shift = exponent - precisionBits;
+        return ((shift + 1) << precisionBits) + (int) ((value >>> shift) - (1L << precisionBits));
+    }
+
+    private long lowerBoundOf(int bucket) {
+        if (bucket < (1 << precisionBits))
+            return bucket;
+        int shift = (bucket >>> precisionBits) - 1;
+        long mantissa = (bucket & ((1 << precisionBits) - 1)) + (1L << precisionBits);
+        return mantissa << shift;
+    }
+
+    private long upperBoundOf(int bucket) {
+        if (bucket < (1 << precisionBits))
+            return bucket;
+        int shift = (bucket >>> precisionBits) - 1;
+        return lowerBoundOf(bucket) + (1L << shift) - 1;
+    }
+}